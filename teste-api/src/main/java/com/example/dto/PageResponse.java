@@ -6,18 +6,27 @@ public class PageResponse<T> {
     private List<T> content;
     private int pageNumber;
     private int pageSize;
-    private long totalElements;
-    private int totalPages;
+    private Long totalElements;
+    private Integer totalPages;
+    private String nextCursor;
 
     public PageResponse() {
     }
 
-    public PageResponse(List<T> content, int pageNumber, int pageSize, long totalElements) {
+    /**
+     * Page of a listing; {@code totalElements} is {@code null} when the client skipped the total.
+     */
+    public PageResponse(List<T> content, int pageNumber, int pageSize, Long totalElements) {
         this.content = content;
         this.pageNumber = pageNumber;
         this.pageSize = pageSize;
         this.totalElements = totalElements;
-        this.totalPages = (int) Math.ceil((double) totalElements / pageSize);
+        this.totalPages = totalElements != null ? (int) Math.ceil((double) totalElements / pageSize) : null;
+    }
+
+    public PageResponse(List<T> content, int pageNumber, int pageSize, Long totalElements, String nextCursor) {
+        this(content, pageNumber, pageSize, totalElements);
+        this.nextCursor = nextCursor;
     }
 
     public List<T> getContent() {
@@ -44,19 +53,27 @@ public class PageResponse<T> {
         this.pageSize = pageSize;
     }
 
-    public long getTotalElements() {
+    public Long getTotalElements() {
         return totalElements;
     }
 
-    public void setTotalElements(long totalElements) {
+    public void setTotalElements(Long totalElements) {
         this.totalElements = totalElements;
     }
 
-    public int getTotalPages() {
+    public Integer getTotalPages() {
         return totalPages;
     }
 
-    public void setTotalPages(int totalPages) {
+    public void setTotalPages(Integer totalPages) {
         this.totalPages = totalPages;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -0,0 +1,7 @@
+package com.example.dto.catalogimport;
+
+public record ImportErrorDTO(
+        long line,
+        String error
+) {
+}
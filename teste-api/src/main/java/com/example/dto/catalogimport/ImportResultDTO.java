@@ -0,0 +1,10 @@
+package com.example.dto.catalogimport;
+
+import java.util.List;
+
+public record ImportResultDTO(
+        long imported,
+        long failed,
+        List<ImportErrorDTO> errors
+) {
+}
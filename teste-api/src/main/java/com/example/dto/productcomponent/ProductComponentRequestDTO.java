@@ -0,0 +1,16 @@
+package com.example.dto.productcomponent;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+public record ProductComponentRequestDTO(
+        @NotNull(message = "Component product ID is required")
+        Long componentProductId,
+
+        @NotNull(message = "Quantity needed is required")
+        @DecimalMin(value = "0.01", message = "Quantity needed must be greater than zero")
+        BigDecimal quantityNeeded
+) {
+}
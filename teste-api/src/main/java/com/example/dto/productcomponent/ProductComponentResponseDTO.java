@@ -0,0 +1,24 @@
+package com.example.dto.productcomponent;
+
+import io.quarkus.hibernate.orm.panache.common.ProjectedFieldName;
+
+import java.math.BigDecimal;
+
+public record ProductComponentResponseDTO(
+        Long id,
+
+        @ProjectedFieldName("product.id")
+        Long productId,
+
+        @ProjectedFieldName("product.name")
+        String productName,
+
+        @ProjectedFieldName("component.id")
+        Long componentProductId,
+
+        @ProjectedFieldName("component.name")
+        String componentProductName,
+
+        BigDecimal quantityNeeded
+) {
+}
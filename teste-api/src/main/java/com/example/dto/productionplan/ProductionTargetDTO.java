@@ -0,0 +1,14 @@
+package com.example.dto.productionplan;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record ProductionTargetDTO(
+        @NotNull(message = "Product ID is required")
+        Long productId,
+
+        @NotNull(message = "Quantity is required")
+        @Min(value = 1, message = "Quantity must be greater than zero")
+        Long quantity
+) {
+}
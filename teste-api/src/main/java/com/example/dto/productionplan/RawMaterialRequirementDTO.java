@@ -0,0 +1,12 @@
+package com.example.dto.productionplan;
+
+import java.math.BigDecimal;
+
+public record RawMaterialRequirementDTO(
+        Long rawMaterialId,
+        String rawMaterialName,
+        BigDecimal requiredQuantity,
+        BigDecimal stockQuantity,
+        BigDecimal shortfall
+) {
+}
@@ -0,0 +1,14 @@
+package com.example.dto.productionplan;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record RequirementsRequestDTO(
+        @NotEmpty(message = "At least one production target is required")
+        @Size(max = 10000, message = "At most 10000 production targets can be evaluated at once")
+        List<@Valid ProductionTargetDTO> targets
+) {
+}
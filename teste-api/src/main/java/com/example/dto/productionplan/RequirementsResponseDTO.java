@@ -0,0 +1,9 @@
+package com.example.dto.productionplan;
+
+import java.util.List;
+
+public record RequirementsResponseDTO(
+        boolean feasible,
+        List<RawMaterialRequirementDTO> rawMaterials
+) {
+}
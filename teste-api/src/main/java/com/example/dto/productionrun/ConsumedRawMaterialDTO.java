@@ -0,0 +1,10 @@
+package com.example.dto.productionrun;
+
+import java.math.BigDecimal;
+
+public record ConsumedRawMaterialDTO(
+        Long rawMaterialId,
+        String rawMaterialName,
+        BigDecimal quantityConsumed
+) {
+}
@@ -0,0 +1,11 @@
+package com.example.dto.productionrun;
+
+import java.util.List;
+
+public record ProductionRunResponseDTO(
+        Long productId,
+        String productName,
+        Long quantity,
+        List<ConsumedRawMaterialDTO> rawMaterials
+) {
+}
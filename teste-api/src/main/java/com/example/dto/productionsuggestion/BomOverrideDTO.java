@@ -0,0 +1,19 @@
+package com.example.dto.productionsuggestion;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+public record BomOverrideDTO(
+        @NotNull(message = "Product ID is required")
+        Long productId,
+
+        @NotNull(message = "Raw material ID is required")
+        Long rawMaterialId,
+
+        @NotNull(message = "Quantity needed is required")
+        @DecimalMin(value = "0.0", message = "Quantity needed must be greater than or equal to zero")
+        BigDecimal quantityNeeded
+) {
+}
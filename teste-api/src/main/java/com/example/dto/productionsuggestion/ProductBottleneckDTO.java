@@ -0,0 +1,15 @@
+package com.example.dto.productionsuggestion;
+
+import java.math.BigDecimal;
+
+public record ProductBottleneckDTO(
+        Long productId,
+        String productName,
+        Long suggestedQuantity,
+        Long priorityRank,
+        Long limitingRawMaterialId,
+        String limitingRawMaterialName,
+        BigDecimal remainingStock,
+        BigDecimal additionalQuantityForNextUnit
+) {
+}
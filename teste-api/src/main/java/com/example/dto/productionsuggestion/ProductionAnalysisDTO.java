@@ -0,0 +1,11 @@
+package com.example.dto.productionsuggestion;
+
+import java.util.List;
+
+public record ProductionAnalysisDTO(
+        Long snapshotVersion,
+        Boolean shadowPricesOptimal,
+        List<ProductBottleneckDTO> products,
+        List<RawMaterialShadowPriceDTO> rawMaterials
+) {
+}
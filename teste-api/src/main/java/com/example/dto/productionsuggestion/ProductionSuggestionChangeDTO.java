@@ -0,0 +1,11 @@
+package com.example.dto.productionsuggestion;
+
+import java.math.BigDecimal;
+
+public record ProductionSuggestionChangeDTO(
+        Long productId,
+        Long priorityRank,
+        Long suggestedQuantity,
+        BigDecimal totalValue
+) {
+}
@@ -0,0 +1,12 @@
+package com.example.dto.productionsuggestion;
+
+import java.util.List;
+
+public record ProductionSuggestionChangesDTO(
+        Long fromSnapshotVersion,
+        Long toSnapshotVersion,
+        Long totalElements,
+        List<ProductionSuggestionChangeDTO> changed,
+        List<Long> removedProductIds
+) {
+}
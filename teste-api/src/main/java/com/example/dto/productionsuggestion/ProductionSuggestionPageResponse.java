@@ -0,0 +1,48 @@
+package com.example.dto.productionsuggestion;
+
+import com.example.dto.PageResponse;
+
+import java.time.Instant;
+import java.util.List;
+
+public class ProductionSuggestionPageResponse extends PageResponse<ProductionSuggestionResponseDTO> {
+    private long snapshotVersion;
+    private Instant snapshotRefreshedAt;
+    private long snapshotAgeMillis;
+
+    public ProductionSuggestionPageResponse() {
+    }
+
+    public ProductionSuggestionPageResponse(List<ProductionSuggestionResponseDTO> content, int pageNumber, int pageSize,
+                                            long totalElements, String nextCursor, long snapshotVersion,
+                                            Instant snapshotRefreshedAt, long snapshotAgeMillis) {
+        super(content, pageNumber, pageSize, totalElements, nextCursor);
+        this.snapshotVersion = snapshotVersion;
+        this.snapshotRefreshedAt = snapshotRefreshedAt;
+        this.snapshotAgeMillis = snapshotAgeMillis;
+    }
+
+    public long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    public void setSnapshotVersion(long snapshotVersion) {
+        this.snapshotVersion = snapshotVersion;
+    }
+
+    public Instant getSnapshotRefreshedAt() {
+        return snapshotRefreshedAt;
+    }
+
+    public void setSnapshotRefreshedAt(Instant snapshotRefreshedAt) {
+        this.snapshotRefreshedAt = snapshotRefreshedAt;
+    }
+
+    public long getSnapshotAgeMillis() {
+        return snapshotAgeMillis;
+    }
+
+    public void setSnapshotAgeMillis(long snapshotAgeMillis) {
+        this.snapshotAgeMillis = snapshotAgeMillis;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.dto.productionsuggestion;
+
+import java.math.BigDecimal;
+
+public record RawMaterialShadowPriceDTO(
+        Long rawMaterialId,
+        String rawMaterialName,
+        BigDecimal stockQuantity,
+        BigDecimal remainingStock,
+        BigDecimal shadowPrice,
+        Long limitedProducts
+) {
+}
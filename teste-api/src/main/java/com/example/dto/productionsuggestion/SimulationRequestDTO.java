@@ -0,0 +1,20 @@
+package com.example.dto.productionsuggestion;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record SimulationRequestDTO(
+        @NotEmpty(message = "At least one scenario is required")
+        @Size(max = 1000, message = "At most 1000 scenarios can be simulated at once")
+        List<@Valid SimulationScenarioDTO> scenarios,
+
+        String strategy,
+
+        @Min(value = 1, message = "Suggestion limit must be greater than zero")
+        Integer suggestionLimit
+) {
+}
@@ -0,0 +1,11 @@
+package com.example.dto.productionsuggestion;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record SimulationResponseDTO(
+        Long snapshotVersion,
+        BigDecimal baselineProductionValue,
+        List<SimulationResultDTO> scenarios
+) {
+}
@@ -0,0 +1,12 @@
+package com.example.dto.productionsuggestion;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record SimulationResultDTO(
+        String name,
+        List<ProductionSuggestionResponseDTO> suggestions,
+        BigDecimal totalProductionValue,
+        BigDecimal valueChange
+) {
+}
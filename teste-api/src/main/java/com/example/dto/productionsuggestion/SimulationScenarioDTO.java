@@ -0,0 +1,13 @@
+package com.example.dto.productionsuggestion;
+
+import jakarta.validation.Valid;
+
+import java.util.List;
+
+public record SimulationScenarioDTO(
+        String name,
+        List<@Valid StockDeltaDTO> stockDeltas,
+        List<@Valid BomOverrideDTO> bomOverrides,
+        List<@Valid ValueChangeDTO> valueChanges
+) {
+}
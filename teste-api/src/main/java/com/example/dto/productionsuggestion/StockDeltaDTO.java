@@ -0,0 +1,14 @@
+package com.example.dto.productionsuggestion;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+public record StockDeltaDTO(
+        @NotNull(message = "Raw material ID is required")
+        Long rawMaterialId,
+
+        @NotNull(message = "Delta is required")
+        BigDecimal delta
+) {
+}
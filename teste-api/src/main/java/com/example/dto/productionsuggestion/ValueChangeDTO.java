@@ -0,0 +1,16 @@
+package com.example.dto.productionsuggestion;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+public record ValueChangeDTO(
+        @NotNull(message = "Product ID is required")
+        Long productId,
+
+        @NotNull(message = "Value is required")
+        @DecimalMin(value = "0.01", message = "Value must be greater than zero")
+        BigDecimal value
+) {
+}
@@ -0,0 +1,8 @@
+package com.example.dto.productrawmaterial;
+
+public record BillOfMaterialsErrorDTO(
+        Long productId,
+        Long rawMaterialId,
+        String error
+) {
+}
@@ -0,0 +1,14 @@
+package com.example.dto.productrawmaterial;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BillOfMaterialsRequestDTO(
+        @NotNull(message = "Raw materials are required")
+        @Size(max = 1000, message = "At most 1000 raw materials can be sent at once")
+        List<@Valid @NotNull(message = "Raw material is required") ProductRawMaterialRequestDTO> rawMaterials
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.dto.productrawmaterial;
+
+import java.util.List;
+
+public record BillOfMaterialsResultDTO(
+        int upserted,
+        long removed,
+        List<BillOfMaterialsErrorDTO> errors
+) {
+}
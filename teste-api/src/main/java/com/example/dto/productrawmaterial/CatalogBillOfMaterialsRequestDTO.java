@@ -0,0 +1,14 @@
+package com.example.dto.productrawmaterial;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record CatalogBillOfMaterialsRequestDTO(
+        @NotEmpty(message = "At least one product is required")
+        @Size(max = 1000, message = "At most 1000 products can be sent at once")
+        List<@Valid ProductBillOfMaterialsDTO> products
+) {
+}
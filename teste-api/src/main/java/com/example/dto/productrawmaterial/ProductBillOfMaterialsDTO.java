@@ -0,0 +1,15 @@
+package com.example.dto.productrawmaterial;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record ProductBillOfMaterialsDTO(
+        @NotNull(message = "Product ID is required")
+        Long productId,
+
+        @NotNull(message = "Raw materials are required")
+        List<@Valid @NotNull(message = "Raw material is required") ProductRawMaterialRequestDTO> rawMaterials
+) {
+}
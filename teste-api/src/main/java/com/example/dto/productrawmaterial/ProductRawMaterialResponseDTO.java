@@ -1,13 +1,24 @@
 package com.example.dto.productrawmaterial;
 
+import io.quarkus.hibernate.orm.panache.common.ProjectedFieldName;
+
 import java.math.BigDecimal;
 
 public record ProductRawMaterialResponseDTO(
         Long id,
+
+        @ProjectedFieldName("product.id")
         Long productId,
+
+        @ProjectedFieldName("product.name")
         String productName,
+
+        @ProjectedFieldName("rawMaterial.id")
         Long rawMaterialId,
+
+        @ProjectedFieldName("rawMaterial.name")
         String rawMaterialName,
+
         BigDecimal quantityNeeded
 ) {
 }
@@ -0,0 +1,13 @@
+package com.example.dto.stockledger;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record StockLedgerEntryDTO(
+        Long id,
+        Long rawMaterialId,
+        BigDecimal delta,
+        String reason,
+        Instant createdAt
+) {
+}
@@ -0,0 +1,11 @@
+package com.example.dto.stockledger;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record StockLevelDTO(
+        Long rawMaterialId,
+        Instant at,
+        BigDecimal stockQuantity
+) {
+}
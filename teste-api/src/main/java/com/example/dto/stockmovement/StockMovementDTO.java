@@ -0,0 +1,16 @@
+package com.example.dto.stockmovement;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+public record StockMovementDTO(
+        @NotNull(message = "Raw material ID is required")
+        Long rawMaterialId,
+
+        @NotNull(message = "Delta is required")
+        @Digits(integer = 8, fraction = 2, message = "Delta must have at most 8 integer digits and 2 decimal places")
+        BigDecimal delta
+) {
+}
@@ -0,0 +1,12 @@
+package com.example.dto.stockmovement;
+
+import java.math.BigDecimal;
+
+public record StockMovementResultDTO(
+        Long rawMaterialId,
+        BigDecimal delta,
+        boolean applied,
+        BigDecimal stockQuantity,
+        String error
+) {
+}
@@ -0,0 +1,15 @@
+package com.example.dto.stockmovement;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record StockMovementsRequestDTO(
+        @NotEmpty(message = "At least one movement is required")
+        @Size(max = 10000, message = "At most 10000 movements can be sent at once")
+        List<@Valid @NotNull(message = "Movement is required") StockMovementDTO> movements
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.dto.stockmovement;
+
+import java.util.List;
+
+public record StockMovementsResponseDTO(
+        int applied,
+        int rejected,
+        List<StockMovementResultDTO> results
+) {
+}
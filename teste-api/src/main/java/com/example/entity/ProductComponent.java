@@ -0,0 +1,66 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "product_components")
+public class ProductComponent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "component_product_id", nullable = false)
+    private Product component;
+
+    @Column(name = "quantity_needed", nullable = false, precision = 10, scale = 2)
+    private BigDecimal quantityNeeded;
+
+    public ProductComponent() {
+    }
+
+    public ProductComponent(Product product, Product component, BigDecimal quantityNeeded) {
+        this.product = product;
+        this.component = component;
+        this.quantityNeeded = quantityNeeded;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public void setProduct(Product product) {
+        this.product = product;
+    }
+
+    public Product getComponent() {
+        return component;
+    }
+
+    public void setComponent(Product component) {
+        this.component = component;
+    }
+
+    public BigDecimal getQuantityNeeded() {
+        return quantityNeeded;
+    }
+
+    public void setQuantityNeeded(BigDecimal quantityNeeded) {
+        this.quantityNeeded = quantityNeeded;
+    }
+}
@@ -1,35 +1,77 @@
 package com.example.entity;
 
 import jakarta.persistence.*;
-import org.hibernate.annotations.Immutable;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Entity
-@Immutable
-@Table(name = "production_suggestions")
-public class ProductionSuggestion {
+@Table(name = "production_suggestion_snapshots")
+public class ProductionSuggestionSnapshotEntry {
 
     @Id
-    @Column(name = "product_id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "snapshot_version", nullable = false)
+    private Long snapshotVersion;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private Instant refreshedAt;
+
+    @Column(name = "priority_rank", nullable = false)
+    private Long priorityRank;
+
+    @Column(name = "product_id", nullable = false)
     private Long productId;
 
-    @Column(name = "product_name")
+    @Column(name = "product_name", nullable = false, length = 255)
     private String productName;
 
-    @Column(name = "product_value")
+    @Column(name = "product_value", nullable = false, precision = 10, scale = 2)
     private BigDecimal productValue;
 
-    @Column(name = "suggested_quantity")
+    @Column(name = "suggested_quantity", nullable = false)
     private Long suggestedQuantity;
 
-    @Column(name = "total_value")
+    @Column(name = "total_value", nullable = false, precision = 19, scale = 2)
     private BigDecimal totalValue;
 
-    @Column(name = "priority_rank")
-    private Long priorityRank;
+    public ProductionSuggestionSnapshotEntry() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    public void setSnapshotVersion(Long snapshotVersion) {
+        this.snapshotVersion = snapshotVersion;
+    }
+
+    public Instant getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    public void setRefreshedAt(Instant refreshedAt) {
+        this.refreshedAt = refreshedAt;
+    }
+
+    public Long getPriorityRank() {
+        return priorityRank;
+    }
+
+    public void setPriorityRank(Long priorityRank) {
+        this.priorityRank = priorityRank;
+    }
 
-    // Getters and Setters
     public Long getProductId() {
         return productId;
     }
@@ -69,12 +111,4 @@ public class ProductionSuggestion {
     public void setTotalValue(BigDecimal totalValue) {
         this.totalValue = totalValue;
     }
-
-    public Long getPriorityRank() {
-        return priorityRank;
-    }
-
-    public void setPriorityRank(Long priorityRank) {
-        this.priorityRank = priorityRank;
-    }
 }
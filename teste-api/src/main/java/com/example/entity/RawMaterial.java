@@ -5,11 +5,13 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 
 @Entity
+@Cacheable
 @Table(name = "raw_materials")
 public class RawMaterial {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "raw_materials_seq")
+    @SequenceGenerator(name = "raw_materials_seq", sequenceName = "raw_materials_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 255)
@@ -0,0 +1,97 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(name = "stock_movements")
+public class StockMovement {
+
+    public enum Reason {
+        INITIAL,
+        ADJUSTMENT,
+        MOVEMENT,
+        PRODUCTION_RUN
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movements_seq")
+    @SequenceGenerator(name = "stock_movements_seq", sequenceName = "stock_movements_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "raw_material_id", nullable = false)
+    private Long rawMaterialId;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Reason reason;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "snapshot_id")
+    private Long snapshotId;
+
+    public StockMovement() {
+    }
+
+    public StockMovement(Long rawMaterialId, BigDecimal delta, Reason reason, Instant createdAt) {
+        this.rawMaterialId = rawMaterialId;
+        this.delta = delta;
+        this.reason = reason;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getRawMaterialId() {
+        return rawMaterialId;
+    }
+
+    public void setRawMaterialId(Long rawMaterialId) {
+        this.rawMaterialId = rawMaterialId;
+    }
+
+    public BigDecimal getDelta() {
+        return delta;
+    }
+
+    public void setDelta(BigDecimal delta) {
+        this.delta = delta;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public void setReason(Reason reason) {
+        this.reason = reason;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getSnapshotId() {
+        return snapshotId;
+    }
+
+    public void setSnapshotId(Long snapshotId) {
+        this.snapshotId = snapshotId;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(name = "stock_snapshots")
+public class StockSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "raw_material_id", nullable = false)
+    private Long rawMaterialId;
+
+    @Column(name = "stock_quantity", nullable = false, precision = 12, scale = 2)
+    private BigDecimal stockQuantity;
+
+    @Column(name = "covered_until", nullable = false)
+    private Instant coveredUntil;
+
+    public StockSnapshot() {
+    }
+
+    public StockSnapshot(Long rawMaterialId, BigDecimal stockQuantity, Instant coveredUntil) {
+        this.rawMaterialId = rawMaterialId;
+        this.stockQuantity = stockQuantity;
+        this.coveredUntil = coveredUntil;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getRawMaterialId() {
+        return rawMaterialId;
+    }
+
+    public void setRawMaterialId(Long rawMaterialId) {
+        this.rawMaterialId = rawMaterialId;
+    }
+
+    public BigDecimal getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(BigDecimal stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public Instant getCoveredUntil() {
+        return coveredUntil;
+    }
+
+    public void setCoveredUntil(Instant coveredUntil) {
+        this.coveredUntil = coveredUntil;
+    }
+}
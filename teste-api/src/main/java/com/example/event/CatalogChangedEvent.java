@@ -0,0 +1,45 @@
+package com.example.event;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Fired by the catalog services whenever products, raw materials or bills of materials are
+ * written. Observers interested in committed data only should use
+ * {@code @Observes(during = TransactionPhase.AFTER_SUCCESS)}.
+ */
+public record CatalogChangedEvent(Type type, Set<Long> ids) {
+
+    public enum Type {
+        PRODUCT,
+        RAW_MATERIAL,
+        BILL_OF_MATERIALS
+    }
+
+    public static CatalogChangedEvent product(Long productId) {
+        return new CatalogChangedEvent(Type.PRODUCT, Set.of(productId));
+    }
+
+    public static CatalogChangedEvent products(Collection<Long> productIds) {
+        return new CatalogChangedEvent(Type.PRODUCT, Set.copyOf(productIds));
+    }
+
+    public static CatalogChangedEvent rawMaterial(Long rawMaterialId) {
+        return new CatalogChangedEvent(Type.RAW_MATERIAL, Set.of(rawMaterialId));
+    }
+
+    public static CatalogChangedEvent rawMaterials(Collection<Long> rawMaterialIds) {
+        return new CatalogChangedEvent(Type.RAW_MATERIAL, Set.copyOf(rawMaterialIds));
+    }
+
+    /**
+     * The bill of materials of the given product changed.
+     */
+    public static CatalogChangedEvent billOfMaterials(Long productId) {
+        return new CatalogChangedEvent(Type.BILL_OF_MATERIALS, Set.of(productId));
+    }
+
+    public static CatalogChangedEvent billsOfMaterials(Collection<Long> productIds) {
+        return new CatalogChangedEvent(Type.BILL_OF_MATERIALS, Set.copyOf(productIds));
+    }
+}
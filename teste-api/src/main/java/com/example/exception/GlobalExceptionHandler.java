@@ -5,6 +5,7 @@ import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
+import org.hibernate.exception.ConstraintViolationException;
 import org.jboss.logging.Logger;
 
 import java.util.HashMap;
@@ -43,6 +44,38 @@ public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
                     .build();
         }
 
+        // Handle stock that ran out before it could be consumed
+        if (exception instanceof InsufficientStockException) {
+            return Response
+                    .status(Response.Status.CONFLICT)
+                    .entity(createErrorResponse(exception.getMessage()))
+                    .build();
+        }
+
+        // Handle invalid request parameters
+        if (exception instanceof InvalidRequestException) {
+            return Response
+                    .status(Response.Status.BAD_REQUEST)
+                    .entity(createErrorResponse(exception.getMessage()))
+                    .build();
+        }
+
+        // Handle expired snapshots
+        if (exception instanceof SnapshotExpiredException) {
+            return Response
+                    .status(Response.Status.GONE)
+                    .entity(createErrorResponse(exception.getMessage()))
+                    .build();
+        }
+
+        // Handle names taken by a concurrent write, caught by the unique indexes on LOWER(name)
+        if (isNameConflict(exception)) {
+            return Response
+                    .status(Response.Status.CONFLICT)
+                    .entity(createErrorResponse("A resource with this name already exists"))
+                    .build();
+        }
+
         // Handle JSON parsing errors
         if (exception instanceof WebApplicationException) {
             WebApplicationException wae = (WebApplicationException) exception;
@@ -52,6 +85,12 @@ public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
                         .entity(createErrorResponse("Invalid JSON format"))
                         .build();
             }
+
+            // Keep the status of other HTTP errors, e.g. 415 for an unsupported media type
+            return Response
+                    .status(wae.getResponse().getStatus())
+                    .entity(createErrorResponse(wae.getMessage()))
+                    .build();
         }
 
         // Handle all other errors
@@ -61,6 +100,16 @@ public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
                 .build();
     }
 
+    private boolean isNameConflict(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String constraint = violation.getConstraintName();
+                return constraint != null && constraint.toLowerCase().endsWith("lower_name");
+            }
+        }
+        return false;
+    }
+
     private Map<String, String> createErrorResponse(String message) {
         Map<String, String> error = new HashMap<>();
         error.put("error", message);
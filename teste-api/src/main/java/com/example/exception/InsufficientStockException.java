@@ -0,0 +1,10 @@
+package com.example.exception;
+
+import java.math.BigDecimal;
+
+public class InsufficientStockException extends RuntimeException {
+
+    public InsufficientStockException(Long rawMaterialId, BigDecimal quantity) {
+        super(String.format("Raw material with id %d does not have %s in stock", rawMaterialId, quantity.toPlainString()));
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.exception;
+
+public class SnapshotExpiredException extends RuntimeException {
+
+    public SnapshotExpiredException(Long version) {
+        super(String.format("Snapshot %d is no longer available; restart from the latest snapshot", version));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.filter;
+
+import com.example.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque pagination cursor: the values a listing needs to seek to the next page, encoded
+ * as URL-safe Base64 so clients pass it back untouched.
+ */
+public final class Cursor {
+
+    private static final String SEPARATOR = "\u0000";
+
+    private Cursor() {
+    }
+
+    public static String encode(Object... parts) {
+        String joined = String.join(SEPARATOR, Arrays.stream(parts).map(String::valueOf).toList());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode(Object...)}, rejecting cursors whose leading
+     * parts differ from {@code expectedPrefix}, i.e. issued for another listing or sort order.
+     */
+    public static List<String> decode(String cursor, int expectedParts, String... expectedPrefix) {
+        List<String> parts;
+        try {
+            String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            parts = List.of(joined.split(SEPARATOR, -1));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+        if (parts.size() != expectedParts
+                || !parts.subList(0, expectedPrefix.length).equals(List.of(expectedPrefix))) {
+            throw new InvalidRequestException("Cursor does not match the requested listing or sort order");
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.filter;
+
+import com.example.exception.InvalidRequestException;
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination: pages are ordered by a sort field with {@code id} as tiebreaker and
+ * each page seeks past the last row of the previous one, so deep pages cost the same as the
+ * first one when an index on {@code (sortField, id)} exists. Rows are selected straight into
+ * {@code T}, a record projected as with Panache's {@code project()}, without loading entities.
+ */
+public class KeysetFilter<T> {
+    private final PanacheRepository<?> repository;
+    private final Class<T> rowType;
+    private final String listing;
+    private final String sortField;
+    private final Function<T, ?> sortValue;
+    private final Function<String, ?> sortValueParser;
+    private final Function<T, Long> idExtractor;
+    private final Sort.Direction direction;
+    private final List<String> conditions = new ArrayList<>();
+    private final Map<String, Object> parameters = new HashMap<>();
+    private String nextCursor;
+
+    private KeysetFilter(PanacheRepository<?> repository, Class<T> rowType, String listing, String sortField,
+                         Function<T, ?> sortValue, Function<String, ?> sortValueParser, Function<T, Long> idExtractor,
+                         Sort.Direction direction) {
+        this.repository = repository;
+        this.rowType = rowType;
+        this.listing = listing;
+        this.sortField = sortField;
+        this.sortValue = sortValue;
+        this.sortValueParser = sortValueParser;
+        this.idExtractor = idExtractor;
+        this.direction = Objects.requireNonNull(direction, "direction");
+    }
+
+    public static <T extends Record> KeysetFilter<T> byId(PanacheRepository<?> repository, Class<T> rowType,
+                                                          String listing, Function<T, Long> idExtractor,
+                                                          Sort.Direction direction) {
+        return new KeysetFilter<>(repository, rowType, listing, "id", idExtractor, Long::valueOf, idExtractor,
+                direction);
+    }
+
+    public static <T extends Record, R> KeysetFilter<T> byField(PanacheRepository<?> repository, Class<T> rowType,
+                                                                String listing, String sortField,
+                                                                Function<T, R> sortValue,
+                                                                Function<String, R> sortValueParser,
+                                                                Function<T, Long> idExtractor,
+                                                                Sort.Direction direction) {
+        return new KeysetFilter<>(repository, rowType, listing, sortField, sortValue, sortValueParser, idExtractor,
+                direction);
+    }
+
+    public KeysetFilter<T> where(String condition, String parameter, Object value) {
+        conditions.add(condition);
+        parameters.put(parameter, value);
+        return this;
+    }
+
+    public KeysetFilter<T> search(String fieldName, String searchValue) {
+        if (searchValue != null && !searchValue.trim().isEmpty()) {
+            where(String.format("LOWER(%s) LIKE LOWER(:search)", fieldName), "search", "%" + searchValue + "%");
+        }
+        return this;
+    }
+
+    public long count() {
+        return conditions.isEmpty()
+                ? repository.count()
+                : repository.count(String.join(" and ", conditions), parameters);
+    }
+
+    /**
+     * Returns the page following {@code cursor}, or the first page when the cursor is empty.
+     */
+    public List<T> list(String cursor, int pageSize) {
+        List<String> seekConditions = new ArrayList<>(conditions);
+        Map<String, Object> seekParameters = new HashMap<>(parameters);
+        if (cursor != null && !cursor.isEmpty()) {
+            List<String> parts = Cursor.decode(cursor, 5, listing, sortField, direction.name());
+            String operator = direction == Sort.Direction.Descending ? "<" : ">";
+            try {
+                seekParameters.put("lastId", Long.valueOf(parts.get(4)));
+                if ("id".equals(sortField)) {
+                    seekConditions.add(String.format("id %s :lastId", operator));
+                } else {
+                    seekParameters.put("lastValue", sortValueParser.apply(parts.get(3)));
+                    seekConditions.add(String.format("(%1$s %2$s :lastValue or (%1$s = :lastValue and id %2$s :lastId))",
+                            sortField, operator));
+                }
+            } catch (NumberFormatException e) {
+                throw new InvalidRequestException("Invalid cursor");
+            }
+        }
+
+        Sort sort = "id".equals(sortField)
+                ? Sort.by("id", direction)
+                : Sort.by(sortField, direction).and("id", direction);
+        PanacheQuery<?> query = seekConditions.isEmpty()
+                ? repository.findAll(sort)
+                : repository.find(String.join(" and ", seekConditions), sort, seekParameters);
+
+        List<T> rows = new ArrayList<>(query.project(rowType).range(0, pageSize).list());
+        nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            T last = rows.get(pageSize - 1);
+            nextCursor = Cursor.encode(listing, sortField, direction.name(), sortValue.apply(last), idExtractor.apply(last));
+        }
+        return rows;
+    }
+
+    /**
+     * Cursor of the page after the last one listed, or {@code null} when it was the last page.
+     */
+    public String nextCursor() {
+        return nextCursor;
+    }
+}
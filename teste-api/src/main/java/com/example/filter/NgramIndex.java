@@ -0,0 +1,110 @@
+package com.example.filter;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process trigram index over names, for databases without {@code pg_trgm}. A search term
+ * of three or more characters only looks at the names containing its rarest trigram; shorter
+ * terms check every name. Matches are substring matches, like {@code LIKE '%term%'}, ranked
+ * by trigram similarity computed as {@code pg_trgm}'s {@code similarity()} does.
+ */
+public final class NgramIndex {
+
+    private static final int N = 3;
+
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    public void put(Long id, String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        String previous = names.put(id, key);
+        if (key.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            grams(previous).forEach(gram -> removePosting(gram, id));
+        }
+        grams(key).forEach(gram -> postings.computeIfAbsent(gram, k -> ConcurrentHashMap.newKeySet()).add(id));
+    }
+
+    public void remove(Long id) {
+        String previous = names.remove(id);
+        if (previous != null) {
+            grams(previous).forEach(gram -> removePosting(gram, id));
+        }
+    }
+
+    /**
+     * Ids of the names containing {@code term}, most similar first and by id among equals.
+     */
+    public List<Long> search(String term) {
+        String key = term.toLowerCase(Locale.ROOT);
+        Set<String> termGrams = paddedGrams(key);
+        return candidates(key).stream()
+                .map(id -> {
+                    String name = names.get(id);
+                    return name != null && name.contains(key) ? new Match(id, similarity(termGrams, name)) : null;
+                })
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingDouble(Match::similarity).reversed().thenComparing(Match::id))
+                .map(Match::id)
+                .toList();
+    }
+
+    private Collection<Long> candidates(String key) {
+        if (key.length() < N) {
+            return names.keySet();
+        }
+        Set<Long> rarest = null;
+        for (String gram : grams(key)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return Set.of();
+            }
+            if (rarest == null || ids.size() < rarest.size()) {
+                rarest = ids;
+            }
+        }
+        return rarest;
+    }
+
+    private void removePosting(String gram, Long id) {
+        postings.computeIfPresent(gram, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static double similarity(Set<String> termGrams, String name) {
+        Set<String> nameGrams = paddedGrams(name);
+        long shared = termGrams.stream().filter(nameGrams::contains).count();
+        return (double) shared / (termGrams.size() + nameGrams.size() - shared);
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + N <= value.length(); i++) {
+            grams.add(value.substring(i, i + N));
+        }
+        return grams;
+    }
+
+    /**
+     * Trigrams of the value padded with two blanks before and one after, so that matching
+     * starts and ends count towards the similarity.
+     */
+    private static Set<String> paddedGrams(String value) {
+        return grams("  " + value + " ");
+    }
+
+    private record Match(Long id, double similarity) {
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.filter;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Offset pagination that reads a page and the number of matching rows in one statement:
+ * every row is selected together with {@code count(*) over ()}. Only a page past the last
+ * row, which has no row to carry the total, is counted separately. Conditions refer to the
+ * entity as {@code e}. Rows are ordered by id unless a sort or a ranked search is applied.
+ */
+public class OffsetFilter<T> {
+    private static final String READ_ONLY = "org.hibernate.readOnly";
+
+    private final PanacheRepository<T> repository;
+    private final Class<T> entityClass;
+    private final List<String> conditions = new ArrayList<>();
+    private final Map<String, Object> parameters = new HashMap<>();
+    private final Map<String, Object> orderParameters = new HashMap<>();
+    private String orderBy = "e.id";
+    private List<Long> rankedIds;
+
+    private OffsetFilter(PanacheRepository<T> repository, Class<T> entityClass) {
+        this.repository = repository;
+        this.entityClass = entityClass;
+    }
+
+    public static <T> OffsetFilter<T> of(PanacheRepository<T> repository, Class<T> entityClass) {
+        return new OffsetFilter<>(repository, entityClass);
+    }
+
+    public OffsetFilter<T> where(String condition, String parameter, Object value) {
+        conditions.add(condition);
+        parameters.put(parameter, value);
+        return this;
+    }
+
+    public OffsetFilter<T> search(String fieldName, String searchValue) {
+        if (searchValue != null && !searchValue.trim().isEmpty()) {
+            where(String.format("LOWER(e.%s) LIKE LOWER(:search)", fieldName), "search", "%" + searchValue + "%");
+        }
+        return this;
+    }
+
+    public OffsetFilter<T> orderBy(SortSpec sort) {
+        if (!sort.isEmpty()) {
+            orderBy = sort.toOrderBy("e");
+            orderParameters.clear();
+        }
+        return this;
+    }
+
+    /**
+     * Like {@link #search(String, String)}, but the best matches come first. With an index the
+     * matches and their order come from it and no other condition may be applied; without one
+     * the {@code LIKE} is left to the database, which must provide {@code pg_trgm}'s
+     * {@code similarity()}.
+     */
+    public OffsetFilter<T> rankedSearch(String fieldName, String searchValue, NgramIndex index) {
+        if (searchValue == null || searchValue.trim().isEmpty()) {
+            return this;
+        }
+        if (index != null) {
+            rankedIds = index.search(searchValue);
+            return this;
+        }
+        search(fieldName, searchValue);
+        orderBy = String.format("function('similarity', LOWER(e.%s), LOWER(:term)) desc, e.id", fieldName);
+        orderParameters.put("term", searchValue);
+        return this;
+    }
+
+    public PagedResult<T> list(int pageNumber, int pageSize, boolean withTotal) {
+        return page("e", entityClass, pageNumber, pageSize, withTotal);
+    }
+
+    /**
+     * Like {@link #list(int, int, boolean)}, but selects straight into {@code type}, a record
+     * whose components name the entity fields to read, as with Panache's {@code project()}.
+     * No entity is loaded, so nothing is left to dirty-check or flush.
+     */
+    public <R extends Record> PagedResult<R> project(Class<R> type, int pageNumber, int pageSize, boolean withTotal) {
+        return page(Projection.of(type), type, pageNumber, pageSize, withTotal);
+    }
+
+    private <R> PagedResult<R> page(String selection, Class<R> type, int pageNumber, int pageSize, boolean withTotal) {
+        if (rankedIds != null) {
+            return pageRanked(selection, type, pageNumber, pageSize, withTotal);
+        }
+        String from = String.format(" from %s e%s", entityClass.getSimpleName(),
+                conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions));
+        int offset = offset(pageNumber, pageSize);
+
+        if (!withTotal) {
+            TypedQuery<R> query = repository.getEntityManager()
+                    .createQuery("select " + selection + from + " order by " + orderBy, type)
+                    .setHint(READ_ONLY, true);
+            parameters.forEach(query::setParameter);
+            orderParameters.forEach(query::setParameter);
+            return new PagedResult<>(query.setFirstResult(offset).setMaxResults(pageSize).getResultList(), null);
+        }
+
+        TypedQuery<Object[]> query = repository.getEntityManager()
+                .createQuery("select " + selection + ", count(*) over ()" + from + " order by " + orderBy, Object[].class)
+                .setHint(READ_ONLY, true);
+        parameters.forEach(query::setParameter);
+        orderParameters.forEach(query::setParameter);
+        List<Object[]> rows = query.setFirstResult(offset).setMaxResults(pageSize).getResultList();
+        if (rows.isEmpty()) {
+            return new PagedResult<>(new ArrayList<>(), offset == 0 ? 0L : count(from));
+        }
+        List<R> content = rows.stream()
+                .map(row -> type.cast(row[0]))
+                .collect(Collectors.toList());
+        return new PagedResult<>(content, ((Number) rows.get(0)[1]).longValue());
+    }
+
+    private <R> PagedResult<R> pageRanked(String selection, Class<R> type, int pageNumber, int pageSize,
+                                          boolean withTotal) {
+        int fromIndex = Math.min(offset(pageNumber, pageSize), rankedIds.size());
+        List<Long> pageIds = rankedIds.subList(fromIndex, fromIndex + Math.min(pageSize, rankedIds.size() - fromIndex));
+        Long totalElements = withTotal ? (long) rankedIds.size() : null;
+        if (pageIds.isEmpty()) {
+            return new PagedResult<>(new ArrayList<>(), totalElements);
+        }
+
+        Map<Object, R> byId = new HashMap<>();
+        repository.getEntityManager()
+                .createQuery("select e.id, " + selection + " from " + entityClass.getSimpleName()
+                        + " e where e.id in :ids", Object[].class)
+                .setHint(READ_ONLY, true)
+                .setParameter("ids", pageIds)
+                .getResultList()
+                .forEach(row -> byId.put(row[0], type.cast(row[1])));
+        List<R> content = pageIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new PagedResult<>(content, totalElements);
+    }
+
+    /**
+     * First row of the page, clamped to {@code Integer.MAX_VALUE} so far-off pages come back
+     * empty instead of wrapping around to a negative offset.
+     */
+    private static int offset(int pageNumber, int pageSize) {
+        return (int) Math.min(Math.multiplyExact((long) pageNumber, pageSize), Integer.MAX_VALUE);
+    }
+
+    private long count(String from) {
+        TypedQuery<Long> query = repository.getEntityManager().createQuery("select count(e)" + from, Long.class);
+        parameters.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+}
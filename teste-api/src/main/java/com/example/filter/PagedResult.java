@@ -0,0 +1,10 @@
+package com.example.filter;
+
+import java.util.List;
+
+/**
+ * Rows of one page and the number of rows matching overall, or {@code null} when the total
+ * was not requested.
+ */
+public record PagedResult<T>(List<T> content, Long totalElements) {
+}
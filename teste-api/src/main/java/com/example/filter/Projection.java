@@ -0,0 +1,48 @@
+package com.example.filter;
+
+import io.quarkus.hibernate.orm.panache.common.ProjectedFieldName;
+
+import java.lang.reflect.Parameter;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * HQL constructor expression selecting an entity aliased as {@code e} into a record, one
+ * argument per component: the component name, or the path given by its
+ * {@link ProjectedFieldName}, the same rule Panache's {@code project()} follows.
+ */
+final class Projection {
+
+    private static final ClassValue<String> SELECTIONS = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            RecordComponent[] components = type.getRecordComponents();
+            Parameter[] parameters;
+            try {
+                parameters = type.getDeclaredConstructor(Arrays.stream(components)
+                        .map(RecordComponent::getType)
+                        .toArray(Class<?>[]::new)).getParameters();
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException("No canonical constructor in " + type.getName(), e);
+            }
+            String arguments = IntStream.range(0, components.length)
+                    .mapToObj(i -> {
+                        ProjectedFieldName fieldName = components[i].isAnnotationPresent(ProjectedFieldName.class)
+                                ? components[i].getAnnotation(ProjectedFieldName.class)
+                                : parameters[i].getAnnotation(ProjectedFieldName.class);
+                        return "e." + (fieldName != null ? fieldName.value() : components[i].getName());
+                    })
+                    .collect(Collectors.joining(", "));
+            return String.format("new %s(%s)", type.getName(), arguments);
+        }
+    };
+
+    private Projection() {
+    }
+
+    static String of(Class<? extends Record> type) {
+        return SELECTIONS.get(type);
+    }
+}
@@ -1,7 +0,0 @@
-package com.example.filter;
-
-import io.quarkus.hibernate.orm.panache.PanacheQuery;
-
-public interface QueryFilter<T> {
-    PanacheQuery<T> apply(PanacheQuery<T> query);
-}
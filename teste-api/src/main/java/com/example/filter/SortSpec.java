@@ -0,0 +1,86 @@
+package com.example.filter;
+
+import com.example.exception.InvalidRequestException;
+import io.quarkus.panache.common.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Validated sort order of a listing, parsed from the {@code sortBy} and {@code sortDirection}
+ * query parameters. {@code sortBy} lists fields separated by commas, each optionally followed
+ * by {@code :asc} or {@code :desc}; fields without a direction use {@code sortDirection}.
+ * An empty spec leaves the listing in its default order.
+ */
+public record SortSpec(List<Field> fields) {
+
+    public record Field(String name, Sort.Direction direction) {
+    }
+
+    public static SortSpec none() {
+        return new SortSpec(List.of());
+    }
+
+    public static SortSpec parse(String sortBy, String sortDirection, Set<String> allowedFields) {
+        if (sortBy == null || sortBy.trim().isEmpty()) {
+            return none();
+        }
+        Sort.Direction defaultDirection = direction(sortDirection);
+        List<Field> fields = new ArrayList<>();
+        for (String part : sortBy.split(",")) {
+            String[] nameAndDirection = part.trim().split(":", 2);
+            String name = nameAndDirection[0];
+            if (!allowedFields.contains(name)) {
+                throw new InvalidRequestException(String.format("Cannot sort by '%s'; allowed fields are %s",
+                        name, allowedFields.stream().sorted().collect(Collectors.joining(", "))));
+            }
+            if (fields.stream().anyMatch(field -> field.name().equals(name))) {
+                throw new InvalidRequestException(String.format("Sort field '%s' is listed more than once", name));
+            }
+            fields.add(new Field(name, nameAndDirection.length > 1 ? direction(nameAndDirection[1]) : defaultDirection));
+        }
+        return new SortSpec(List.copyOf(fields));
+    }
+
+    /**
+     * Parses {@code asc} or {@code desc} in any case; a missing direction is ascending.
+     */
+    public static Sort.Direction direction(String direction) {
+        if (direction == null || direction.trim().isEmpty()) {
+            return Sort.Direction.Ascending;
+        }
+        return switch (direction.trim().toLowerCase(Locale.ROOT)) {
+            case "asc" -> Sort.Direction.Ascending;
+            case "desc" -> Sort.Direction.Descending;
+            default -> throw new InvalidRequestException(
+                    String.format("Invalid sort direction '%s'; use asc or desc", direction));
+        };
+    }
+
+    public boolean isEmpty() {
+        return fields.isEmpty();
+    }
+
+    /**
+     * HQL {@code order by} list for the entity aliased as {@code alias}, ending with {@code id}
+     * in the direction of the last field unless it is listed, so rows with equal sort values
+     * keep the same order on every page.
+     */
+    public String toOrderBy(String alias) {
+        List<String> columns = fields.stream()
+                .map(field -> column(alias, field.name(), field.direction()))
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (fields.stream().noneMatch(field -> "id".equals(field.name()))) {
+            Sort.Direction last = fields.isEmpty() ? Sort.Direction.Ascending : fields.get(fields.size() - 1).direction();
+            columns.add(column(alias, "id", last));
+        }
+        return String.join(", ", columns);
+    }
+
+    private static String column(String alias, String name, Sort.Direction direction) {
+        return String.format("%s.%s %s", alias, name, direction == Sort.Direction.Descending ? "desc" : "asc");
+    }
+}
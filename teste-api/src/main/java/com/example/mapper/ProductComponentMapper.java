@@ -0,0 +1,18 @@
+package com.example.mapper;
+
+import com.example.dto.productcomponent.ProductComponentResponseDTO;
+import com.example.entity.ProductComponent;
+
+public class ProductComponentMapper {
+
+    public static ProductComponentResponseDTO toResponseDTO(ProductComponent entity) {
+        return new ProductComponentResponseDTO(
+                entity.getId(),
+                entity.getProduct().getId(),
+                entity.getProduct().getName(),
+                entity.getComponent().getId(),
+                entity.getComponent().getName(),
+                entity.getQuantityNeeded()
+        );
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.mapper;
+
+import com.example.dto.productionplan.RawMaterialRequirementDTO;
+import com.example.planning.BomMatrix;
+import com.example.planning.FixedPoint;
+import com.example.planning.MaterialRequirements;
+
+public class ProductionPlanMapper {
+
+    public static RawMaterialRequirementDTO toRequirementDTO(MaterialRequirements requirements, int material) {
+        BomMatrix bom = requirements.bom();
+        return new RawMaterialRequirementDTO(
+                bom.materialId(material),
+                bom.materialName(material),
+                FixedPoint.toDecimal(requirements.required(material)),
+                FixedPoint.toDecimal(requirements.stock(material)),
+                FixedPoint.toDecimal(requirements.shortfall(material))
+        );
+    }
+}
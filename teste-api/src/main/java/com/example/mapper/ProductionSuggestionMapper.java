@@ -1,18 +1,107 @@
 package com.example.mapper;
 
+import com.example.dto.productionsuggestion.ProductBottleneckDTO;
+import com.example.dto.productionsuggestion.ProductionSuggestionChangeDTO;
 import com.example.dto.productionsuggestion.ProductionSuggestionResponseDTO;
-import com.example.entity.ProductionSuggestion;
+import com.example.dto.productionsuggestion.RawMaterialShadowPriceDTO;
+import com.example.dto.productionsuggestion.SimulationScenarioDTO;
+import com.example.entity.ProductionSuggestionSnapshotEntry;
+import com.example.planning.BomMatrix;
+import com.example.planning.FixedPoint;
+import com.example.planning.PlanAnalysis;
+import com.example.planning.ProductionPlan;
+import com.example.planning.Scenario;
+import com.example.service.ProductionSuggestionSnapshot;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 public class ProductionSuggestionMapper {
 
-    public static ProductionSuggestionResponseDTO toResponseDTO(ProductionSuggestion entity) {
+    public static ProductionSuggestionResponseDTO toResponseDTO(ProductionPlan plan, int position) {
+        BomMatrix bom = plan.bom();
+        int product = plan.product(position);
         return new ProductionSuggestionResponseDTO(
-                entity.getProductId(),
-                entity.getProductName(),
-                entity.getProductValue(),
-                entity.getSuggestedQuantity(),
-                entity.getTotalValue(),
-                entity.getPriorityRank()
+                bom.productId(product),
+                bom.productName(product),
+                FixedPoint.toDecimal(bom.productValue(product)),
+                plan.quantity(position),
+                plan.totalValue(position),
+                plan.priorityRank(position)
+        );
+    }
+
+    public static ProductionSuggestionChangeDTO toChangeDTO(ProductionPlan plan, int position) {
+        return new ProductionSuggestionChangeDTO(
+                plan.bom().productId(plan.product(position)),
+                plan.priorityRank(position),
+                plan.quantity(position),
+                plan.totalValue(position)
+        );
+    }
+
+    public static ProductBottleneckDTO toBottleneckDTO(PlanAnalysis analysis, int position) {
+        ProductionPlan plan = analysis.plan();
+        BomMatrix bom = plan.bom();
+        int product = plan.product(position);
+        int material = analysis.limitingMaterial(position);
+        return new ProductBottleneckDTO(
+                bom.productId(product),
+                bom.productName(product),
+                plan.quantity(position),
+                plan.priorityRank(position),
+                bom.materialId(material),
+                bom.materialName(material),
+                FixedPoint.toDecimal(plan.remainingStock(material)),
+                FixedPoint.toDecimal(analysis.shortfall(position))
         );
     }
+
+    public static RawMaterialShadowPriceDTO toShadowPriceDTO(PlanAnalysis analysis, int material) {
+        ProductionPlan plan = analysis.plan();
+        BomMatrix bom = plan.bom();
+        return new RawMaterialShadowPriceDTO(
+                bom.materialId(material),
+                bom.materialName(material),
+                FixedPoint.toDecimal(bom.stock(material)),
+                FixedPoint.toDecimal(plan.remainingStock(material)),
+                analysis.shadowPricesOptimal()
+                        ? BigDecimal.valueOf(analysis.shadowPrice(material)).setScale(FixedPoint.SCALE, RoundingMode.HALF_UP)
+                        : null,
+                (long) analysis.limitedProducts(material)
+        );
+    }
+
+    public static ProductionSuggestionSnapshotEntry toSnapshotEntry(ProductionSuggestionSnapshot snapshot, int position) {
+        ProductionPlan plan = snapshot.greedyPlan();
+        BomMatrix bom = plan.bom();
+        int product = plan.product(position);
+        ProductionSuggestionSnapshotEntry entry = new ProductionSuggestionSnapshotEntry();
+        entry.setSnapshotVersion(snapshot.version());
+        entry.setRefreshedAt(snapshot.refreshedAt());
+        entry.setPriorityRank(plan.priorityRank(position));
+        entry.setProductId(bom.productId(product));
+        entry.setProductName(bom.productName(product));
+        entry.setProductValue(FixedPoint.toDecimal(bom.productValue(product)));
+        entry.setSuggestedQuantity(plan.quantity(position));
+        entry.setTotalValue(plan.totalValue(position));
+        return entry;
+    }
+
+    public static Scenario toScenario(SimulationScenarioDTO dto, int index) {
+        Scenario scenario = new Scenario(dto.name() != null && !dto.name().isBlank()
+                ? dto.name()
+                : "Scenario " + (index + 1));
+        if (dto.stockDeltas() != null) {
+            dto.stockDeltas().forEach(delta -> scenario.adjustStock(delta.rawMaterialId(), delta.delta()));
+        }
+        if (dto.bomOverrides() != null) {
+            dto.bomOverrides().forEach(override ->
+                    scenario.setRequirement(override.productId(), override.rawMaterialId(), override.quantityNeeded()));
+        }
+        if (dto.valueChanges() != null) {
+            dto.valueChanges().forEach(change -> scenario.setValue(change.productId(), change.value()));
+        }
+        return scenario;
+    }
 }
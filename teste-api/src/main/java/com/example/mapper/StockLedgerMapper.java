@@ -0,0 +1,17 @@
+package com.example.mapper;
+
+import com.example.dto.stockledger.StockLedgerEntryDTO;
+import com.example.entity.StockMovement;
+
+public class StockLedgerMapper {
+
+    public static StockLedgerEntryDTO toEntryDTO(StockMovement movement) {
+        return new StockLedgerEntryDTO(
+                movement.getId(),
+                movement.getRawMaterialId(),
+                movement.getDelta(),
+                movement.getReason().name(),
+                movement.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.planning;
+
+/**
+ * Connected components of the bipartite graph formed by products and the raw materials they
+ * consume. Products in different components share no stock, so they can be planned apart.
+ */
+final class BomComponents {
+
+    private BomComponents() {
+    }
+
+    /**
+     * Groups the given products by component. Every group keeps the products in the order
+     * they were given; products without raw materials are left out.
+     */
+    static int[][] partition(BomMatrix bom, int[] products) {
+        int[] parent = new int[bom.materialCount()];
+        int[] size = new int[bom.materialCount()];
+        for (int m = 0; m < parent.length; m++) {
+            parent[m] = m;
+            size[m] = 1;
+        }
+        for (int product : products) {
+            int[] materials = bom.materials(product);
+            for (int i = 1; i < materials.length; i++) {
+                union(parent, size, materials[0], materials[i]);
+            }
+        }
+
+        int[] componentOf = new int[parent.length];
+        int[] counts = new int[parent.length];
+        int componentCount = 0;
+        for (int m = 0; m < parent.length; m++) {
+            componentOf[m] = -1;
+        }
+        int[] productComponents = new int[products.length];
+        for (int i = 0; i < products.length; i++) {
+            int[] materials = bom.materials(products[i]);
+            if (materials.length == 0) {
+                productComponents[i] = -1;
+                continue;
+            }
+            int root = find(parent, materials[0]);
+            if (componentOf[root] < 0) {
+                componentOf[root] = componentCount++;
+            }
+            productComponents[i] = componentOf[root];
+            counts[componentOf[root]]++;
+        }
+
+        int[][] components = new int[componentCount][];
+        for (int c = 0; c < componentCount; c++) {
+            components[c] = new int[counts[c]];
+            counts[c] = 0;
+        }
+        for (int i = 0; i < products.length; i++) {
+            int component = productComponents[i];
+            if (component >= 0) {
+                components[component][counts[component]++] = products[i];
+            }
+        }
+        return components;
+    }
+
+    private static int find(int[] parent, int material) {
+        while (parent[material] != material) {
+            parent[material] = parent[parent[material]];
+            material = parent[material];
+        }
+        return material;
+    }
+
+    private static void union(int[] parent, int[] size, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA == rootB) {
+            return;
+        }
+        if (size[rootA] < size[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.planning;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Multi-level bill of materials: products consume raw materials and other products. The
+ * structure is flattened into raw material requirements per product with a memoized,
+ * cycle-checked explosion; changing a product only drops the memo of that product and of
+ * the products built from it. Not thread-safe.
+ */
+public final class BomExplosion {
+
+    private final Map<Long, Map<Long, BigDecimal>> rawMaterials = new HashMap<>();
+    private final Map<Long, Map<Long, BigDecimal>> components = new HashMap<>();
+    private final Map<Long, Set<Long>> parents = new HashMap<>();
+    private final Map<Long, Map<Long, BigDecimal>> exploded = new HashMap<>();
+
+    public static BomExplosion of(List<BomLine> lines, List<ComponentLine> componentLines) {
+        BomExplosion explosion = new BomExplosion();
+        for (BomLine line : lines) {
+            explosion.rawMaterials.computeIfAbsent(line.productId(), id -> new HashMap<>())
+                    .put(line.rawMaterialId(), line.quantityNeeded());
+        }
+        for (ComponentLine line : componentLines) {
+            explosion.link(line.productId(), line.componentProductId(), line.quantityNeeded());
+        }
+        return explosion;
+    }
+
+    /**
+     * Replaces the raw materials a product consumes directly. Returns the products whose
+     * exploded requirements changed: the product itself and every product built from it.
+     */
+    public Set<Long> setRawMaterials(long productId, List<BomLine> lines) {
+        Map<Long, BigDecimal> direct = new HashMap<>();
+        lines.forEach(line -> direct.put(line.rawMaterialId(), line.quantityNeeded()));
+        rawMaterials.put(productId, direct);
+        return invalidate(productId);
+    }
+
+    /**
+     * Replaces the products a product consumes. Returns the products whose exploded
+     * requirements changed.
+     */
+    public Set<Long> setComponents(long productId, List<ComponentLine> lines) {
+        unlinkComponents(productId);
+        lines.forEach(line -> link(productId, line.componentProductId(), line.quantityNeeded()));
+        return invalidate(productId);
+    }
+
+    /**
+     * Forgets a deleted product. Returns the products that were built from it.
+     */
+    public Set<Long> removeProduct(long productId) {
+        Set<Long> affected = invalidate(productId);
+        affected.remove(productId);
+        for (Long parent : parents.getOrDefault(productId, Set.of())) {
+            components.get(parent).remove(productId);
+        }
+        parents.remove(productId);
+        unlinkComponents(productId);
+        rawMaterials.remove(productId);
+        return affected;
+    }
+
+    /**
+     * Raw material requirements per unit of the product, including everything its components
+     * consume, sorted by raw material id. Quantities are rounded up to {@link FixedPoint#SCALE}
+     * decimal places so a plan never needs more stock than it reserves.
+     */
+    public List<BomLine> explode(long productId) {
+        Map<Long, BigDecimal> requirements = explode(productId, new LinkedHashSet<>());
+        List<BomLine> lines = new ArrayList<>(requirements.size());
+        requirements.forEach((rawMaterialId, quantity) -> lines.add(
+                new BomLine(productId, rawMaterialId, quantity.setScale(FixedPoint.SCALE, RoundingMode.CEILING))));
+        return lines;
+    }
+
+    private Map<Long, BigDecimal> explode(long productId, Set<Long> path) {
+        Map<Long, BigDecimal> memo = exploded.get(productId);
+        if (memo != null) {
+            return memo;
+        }
+        if (!path.add(productId)) {
+            throw new IllegalStateException("Bill of materials cycle through products " + path);
+        }
+
+        Map<Long, BigDecimal> requirements = new TreeMap<>(rawMaterials.getOrDefault(productId, Map.of()));
+        for (Map.Entry<Long, BigDecimal> component : components.getOrDefault(productId, Map.of()).entrySet()) {
+            BigDecimal perUnit = component.getValue();
+            explode(component.getKey(), path).forEach((rawMaterialId, quantity) ->
+                    requirements.merge(rawMaterialId, quantity.multiply(perUnit), BigDecimal::add));
+        }
+
+        path.remove(productId);
+        Map<Long, BigDecimal> result = Collections.unmodifiableMap(requirements);
+        exploded.put(productId, result);
+        return result;
+    }
+
+    private void link(long productId, long componentProductId, BigDecimal quantityNeeded) {
+        components.computeIfAbsent(productId, id -> new HashMap<>()).put(componentProductId, quantityNeeded);
+        parents.computeIfAbsent(componentProductId, id -> new HashSet<>()).add(productId);
+    }
+
+    private void unlinkComponents(long productId) {
+        Map<Long, BigDecimal> previous = components.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        for (Long componentProductId : previous.keySet()) {
+            Set<Long> componentParents = parents.get(componentProductId);
+            componentParents.remove(productId);
+            if (componentParents.isEmpty()) {
+                parents.remove(componentProductId);
+            }
+        }
+    }
+
+    /**
+     * Drops the memo of the product and of every product built from it, returning them all.
+     */
+    private Set<Long> invalidate(long productId) {
+        Set<Long> affected = new HashSet<>();
+        Deque<Long> pending = new ArrayDeque<>();
+        pending.push(productId);
+        while (!pending.isEmpty()) {
+            Long current = pending.pop();
+            if (affected.add(current)) {
+                exploded.remove(current);
+                parents.getOrDefault(current, Set.of()).forEach(pending::push);
+            }
+        }
+        return affected;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.planning;
+
+import io.quarkus.hibernate.orm.panache.common.ProjectedFieldName;
+
+import java.math.BigDecimal;
+
+public record BomLine(
+        @ProjectedFieldName("product.id")
+        Long productId,
+
+        @ProjectedFieldName("rawMaterial.id")
+        Long rawMaterialId,
+
+        BigDecimal quantityNeeded
+) {
+}
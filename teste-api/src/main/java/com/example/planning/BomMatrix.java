@@ -0,0 +1,469 @@
+package com.example.planning;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, array-based view of the catalog used by the planners: products with their
+ * unit value, raw materials with their stock and, for every product, the raw materials it
+ * consumes. Values, stock and quantities are stored in {@link FixedPoint} units.
+ */
+public final class BomMatrix {
+
+    private static final int[] NO_MATERIALS = new int[0];
+    private static final long[] NO_QUANTITIES = new long[0];
+
+    private final long[] productIds;
+    private final String[] productNames;
+    private final long[] productValues;
+    private final int[][] productMaterials;
+    private final long[][] productQuantities;
+
+    private final long[] materialIds;
+    private final String[] materialNames;
+    private final long[] materialStock;
+
+    private final Map<Long, Integer> productIndex;
+    private final Map<Long, Integer> materialIndex;
+
+    private BomMatrix(long[] productIds, String[] productNames, long[] productValues,
+                      int[][] productMaterials, long[][] productQuantities,
+                      long[] materialIds, String[] materialNames, long[] materialStock,
+                      Map<Long, Integer> productIndex, Map<Long, Integer> materialIndex) {
+        this.productIds = productIds;
+        this.productNames = productNames;
+        this.productValues = productValues;
+        this.productMaterials = productMaterials;
+        this.productQuantities = productQuantities;
+        this.materialIds = materialIds;
+        this.materialNames = materialNames;
+        this.materialStock = materialStock;
+        this.productIndex = productIndex;
+        this.materialIndex = materialIndex;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int productCount() {
+        return productIds.length;
+    }
+
+    public int materialCount() {
+        return materialIds.length;
+    }
+
+    public long productId(int product) {
+        return productIds[product];
+    }
+
+    public String productName(int product) {
+        return productNames[product];
+    }
+
+    public long productValue(int product) {
+        return productValues[product];
+    }
+
+    /**
+     * Material indexes consumed by the product. The returned array must not be modified.
+     */
+    public int[] materials(int product) {
+        return productMaterials[product];
+    }
+
+    /**
+     * Quantity needed per unit, aligned with {@link #materials(int)}. The returned array must not be modified.
+     */
+    public long[] quantities(int product) {
+        return productQuantities[product];
+    }
+
+    public long materialId(int material) {
+        return materialIds[material];
+    }
+
+    public String materialName(int material) {
+        return materialNames[material];
+    }
+
+    public long stock(int material) {
+        return materialStock[material];
+    }
+
+    public long[] stockCopy() {
+        return materialStock.clone();
+    }
+
+    /**
+     * Returns the product index for the given id, or -1 when the product is unknown.
+     */
+    public int productIndexOf(long productId) {
+        Integer index = productIndex.get(productId);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the material index for the given id, or -1 when the raw material is unknown.
+     */
+    public int materialIndexOf(long materialId) {
+        Integer index = materialIndex.get(materialId);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Starts a copy-on-write edit; arrays are only copied for the parts that change, so
+     * updating one product or one raw material does not copy the whole catalog.
+     */
+    public Editor edit() {
+        return new Editor(this);
+    }
+
+    public static final class Editor {
+
+        private long[] productIds;
+        private String[] productNames;
+        private long[] productValues;
+        private int[][] productMaterials;
+        private long[][] productQuantities;
+        private long[] materialIds;
+        private String[] materialNames;
+        private long[] materialStock;
+        private Map<Long, Integer> productIndex;
+        private Map<Long, Integer> materialIndex;
+
+        private int productCount;
+        private int materialCount;
+        private boolean productsCopied;
+        private boolean valuesCopied;
+        private boolean rowsCopied;
+        private boolean materialsCopied;
+        private boolean stockCopied;
+
+        private Editor(BomMatrix source) {
+            productIds = source.productIds;
+            productNames = source.productNames;
+            productValues = source.productValues;
+            productMaterials = source.productMaterials;
+            productQuantities = source.productQuantities;
+            materialIds = source.materialIds;
+            materialNames = source.materialNames;
+            materialStock = source.materialStock;
+            productIndex = source.productIndex;
+            materialIndex = source.materialIndex;
+            productCount = source.productIds.length;
+            materialCount = source.materialIds.length;
+        }
+
+        /**
+         * Inserts or updates a product and returns its index.
+         */
+        public int upsertProduct(long id, String name, BigDecimal value) {
+            copyProducts(productCount + 1);
+            Integer existing = productIndex.get(id);
+            int product = existing != null ? existing : productCount++;
+            if (existing == null) {
+                productIndex.put(id, product);
+                productIds[product] = id;
+                productMaterials[product] = NO_MATERIALS;
+                productQuantities[product] = NO_QUANTITIES;
+            }
+            productNames[product] = name;
+            productValues[product] = FixedPoint.toUnits(value);
+            return product;
+        }
+
+        /**
+         * Removes a product, leaving an empty slot that the planners never select. Returns its
+         * former index, or -1 when the product was unknown.
+         */
+        public int removeProduct(long id) {
+            copyProducts(productCount);
+            Integer existing = productIndex.remove(id);
+            if (existing == null) {
+                return -1;
+            }
+            setRequirements(existing, NO_MATERIALS, NO_QUANTITIES);
+            productValues[existing] = 0;
+            return existing;
+        }
+
+        public int upsertMaterial(long id, String name, BigDecimal stockQuantity) {
+            copyMaterials(materialCount + 1);
+            Integer existing = materialIndex.get(id);
+            int material = existing != null ? existing : materialCount++;
+            if (existing == null) {
+                materialIndex.put(id, material);
+                materialIds[material] = id;
+            }
+            materialNames[material] = name;
+            materialStock[material] = FixedPoint.toUnits(stockQuantity);
+            return material;
+        }
+
+        public int removeMaterial(long id) {
+            copyMaterials(materialCount);
+            Integer existing = materialIndex.remove(id);
+            if (existing == null) {
+                return -1;
+            }
+            materialStock[existing] = 0;
+            return existing;
+        }
+
+        /**
+         * Changes the unit value of an existing product without copying the product index.
+         */
+        public void setValue(int product, long units) {
+            copyValues();
+            productValues[product] = units;
+        }
+
+        /**
+         * Changes the stock of an existing raw material without copying the material index.
+         */
+        public void setStock(int material, long units) {
+            copyStock();
+            materialStock[material] = units;
+        }
+
+        public long stock(int material) {
+            return materialStock[material];
+        }
+
+        /**
+         * Sets how much of one raw material a product needs per unit, adding or replacing the
+         * entry; a quantity of zero removes the raw material from the product.
+         */
+        public void setRequirement(int product, int material, long units) {
+            int[] materials = productMaterials[product];
+            long[] quantities = productQuantities[product];
+            int k = 0;
+            while (k < materials.length && materials[k] != material) {
+                k++;
+            }
+            if (k == materials.length) {
+                if (units == 0) {
+                    return;
+                }
+                int[] grownMaterials = Arrays.copyOf(materials, k + 1);
+                long[] grownQuantities = Arrays.copyOf(quantities, k + 1);
+                grownMaterials[k] = material;
+                grownQuantities[k] = units;
+                setRequirements(product, grownMaterials, grownQuantities);
+            } else if (units == 0) {
+                int[] shrunkMaterials = new int[materials.length - 1];
+                long[] shrunkQuantities = new long[materials.length - 1];
+                System.arraycopy(materials, 0, shrunkMaterials, 0, k);
+                System.arraycopy(materials, k + 1, shrunkMaterials, k, materials.length - k - 1);
+                System.arraycopy(quantities, 0, shrunkQuantities, 0, k);
+                System.arraycopy(quantities, k + 1, shrunkQuantities, k, quantities.length - k - 1);
+                setRequirements(product, shrunkMaterials, shrunkQuantities);
+            } else {
+                long[] replaced = quantities.clone();
+                replaced[k] = units;
+                setRequirements(product, materials, replaced);
+            }
+        }
+
+        public void setRequirements(int product, int[] materials, long[] quantities) {
+            copyRows();
+            productMaterials[product] = materials.length == 0 ? NO_MATERIALS : materials;
+            productQuantities[product] = quantities.length == 0 ? NO_QUANTITIES : quantities;
+        }
+
+        public int[] materials(int product) {
+            return productMaterials[product];
+        }
+
+        public int productIndexOf(long productId) {
+            Integer index = productIndex.get(productId);
+            return index == null ? -1 : index;
+        }
+
+        public int materialIndexOf(long materialId) {
+            Integer index = materialIndex.get(materialId);
+            return index == null ? -1 : index;
+        }
+
+        /**
+         * Builds the edited catalog. Arrays that were neither changed nor grown are shared with
+         * the source; later edits through this editor copy again instead of writing through.
+         */
+        public BomMatrix build() {
+            BomMatrix built = new BomMatrix(
+                    trim(productIds, productCount),
+                    trim(productNames, productCount),
+                    trim(productValues, productCount),
+                    trim(productMaterials, productCount),
+                    trim(productQuantities, productCount),
+                    trim(materialIds, materialCount),
+                    trim(materialNames, materialCount),
+                    trim(materialStock, materialCount),
+                    productIndex,
+                    materialIndex);
+            productsCopied = false;
+            valuesCopied = false;
+            rowsCopied = false;
+            materialsCopied = false;
+            stockCopied = false;
+            return built;
+        }
+
+        private static long[] trim(long[] array, int length) {
+            return array.length == length ? array : Arrays.copyOf(array, length);
+        }
+
+        private static <T> T[] trim(T[] array, int length) {
+            return array.length == length ? array : Arrays.copyOf(array, length);
+        }
+
+        private void copyProducts(int required) {
+            if (!productsCopied) {
+                productIndex = new HashMap<>(productIndex);
+                productNames = productNames.clone();
+                productIds = productIds.clone();
+                copyValues();
+                productsCopied = true;
+            }
+            if (required > productIds.length) {
+                int capacity = Math.max(required, productIds.length + (productIds.length >> 1) + 1);
+                productIds = Arrays.copyOf(productIds, capacity);
+                productNames = Arrays.copyOf(productNames, capacity);
+                productValues = Arrays.copyOf(productValues, capacity);
+                productMaterials = Arrays.copyOf(productMaterials, capacity);
+                productQuantities = Arrays.copyOf(productQuantities, capacity);
+                rowsCopied = true;
+            }
+        }
+
+        private void copyValues() {
+            if (!valuesCopied) {
+                productValues = productValues.clone();
+                valuesCopied = true;
+            }
+        }
+
+        private void copyRows() {
+            if (!rowsCopied) {
+                productMaterials = productMaterials.clone();
+                productQuantities = productQuantities.clone();
+                rowsCopied = true;
+            }
+        }
+
+        private void copyMaterials(int required) {
+            if (!materialsCopied) {
+                materialIndex = new HashMap<>(materialIndex);
+                materialIds = materialIds.clone();
+                materialNames = materialNames.clone();
+                copyStock();
+                materialsCopied = true;
+            }
+            if (required > materialIds.length) {
+                int capacity = Math.max(required, materialIds.length + (materialIds.length >> 1) + 1);
+                materialIds = Arrays.copyOf(materialIds, capacity);
+                materialNames = Arrays.copyOf(materialNames, capacity);
+                materialStock = Arrays.copyOf(materialStock, capacity);
+            }
+        }
+
+        private void copyStock() {
+            if (!stockCopied) {
+                materialStock = materialStock.clone();
+                stockCopied = true;
+            }
+        }
+    }
+
+    public static final class Builder {
+
+        private final List<Long> productIds = new ArrayList<>();
+        private final List<String> productNames = new ArrayList<>();
+        private final List<Long> productValues = new ArrayList<>();
+        private final List<Long> materialIds = new ArrayList<>();
+        private final List<String> materialNames = new ArrayList<>();
+        private final List<Long> materialStock = new ArrayList<>();
+        private final Map<Long, Integer> productIndex = new HashMap<>();
+        private final Map<Long, Integer> materialIndex = new HashMap<>();
+        private final List<int[]> requirements = new ArrayList<>();
+        private final List<Long> requirementQuantities = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder addProduct(long id, String name, BigDecimal value) {
+            productIndex.put(id, productIds.size());
+            productIds.add(id);
+            productNames.add(name);
+            productValues.add(FixedPoint.toUnits(value));
+            return this;
+        }
+
+        public Builder addMaterial(long id, String name, BigDecimal stockQuantity) {
+            materialIndex.put(id, materialIds.size());
+            materialIds.add(id);
+            materialNames.add(name);
+            materialStock.add(FixedPoint.toUnits(stockQuantity));
+            return this;
+        }
+
+        public Builder addRequirement(long productId, long materialId, BigDecimal quantityNeeded) {
+            Integer product = productIndex.get(productId);
+            Integer material = materialIndex.get(materialId);
+            if (product == null || material == null) {
+                throw new IllegalArgumentException(String.format(
+                        "Requirement references unknown product %d or raw material %d", productId, materialId));
+            }
+            requirements.add(new int[]{product, material});
+            requirementQuantities.add(FixedPoint.toUnits(quantityNeeded));
+            return this;
+        }
+
+        public BomMatrix build() {
+            int products = productIds.size();
+            int[] rowLengths = new int[products];
+            for (int[] requirement : requirements) {
+                rowLengths[requirement[0]]++;
+            }
+
+            int[][] rowMaterials = new int[products][];
+            long[][] rowQuantities = new long[products][];
+            for (int p = 0; p < products; p++) {
+                rowMaterials[p] = rowLengths[p] == 0 ? NO_MATERIALS : new int[rowLengths[p]];
+                rowQuantities[p] = rowLengths[p] == 0 ? NO_QUANTITIES : new long[rowLengths[p]];
+            }
+
+            int[] fill = new int[products];
+            for (int i = 0; i < requirements.size(); i++) {
+                int p = requirements.get(i)[0];
+                rowMaterials[p][fill[p]] = requirements.get(i)[1];
+                rowQuantities[p][fill[p]] = requirementQuantities.get(i);
+                fill[p]++;
+            }
+
+            return new BomMatrix(
+                    toLongArray(productIds),
+                    productNames.toArray(new String[0]),
+                    toLongArray(productValues),
+                    rowMaterials,
+                    rowQuantities,
+                    toLongArray(materialIds),
+                    materialNames.toArray(new String[0]),
+                    toLongArray(materialStock),
+                    new HashMap<>(productIndex),
+                    new HashMap<>(materialIndex));
+        }
+
+        private static long[] toLongArray(List<Long> values) {
+            long[] array = new long[values.size()];
+            Arrays.setAll(array, values::get);
+            return array;
+        }
+    }
+}
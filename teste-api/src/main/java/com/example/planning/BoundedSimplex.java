@@ -0,0 +1,345 @@
+package com.example.planning;
+
+import java.util.Arrays;
+
+/**
+ * Revised primal simplex for {@code max c.x} subject to {@code A.x <= b, 0 <= x <= u} with {@code A >= 0}
+ * and {@code b >= 0}, so the all-slack basis is always a feasible start. Columns are kept
+ * sparse, the basis inverse dense and pricing works from a short candidate list, which
+ * suits catalogs with many products and a few hundred raw materials.
+ */
+final class BoundedSimplex {
+
+    private static final double PIVOT_TOLERANCE = 1e-9;
+    private static final double COST_TOLERANCE = 1e-7;
+    private static final int DEGENERATE_STEPS_BEFORE_BLAND = 50;
+    private static final int PRICING_CANDIDATES = 1024;
+    private static final int DUAL_REFRESH_INTERVAL = 64;
+
+    enum Status {
+        OPTIMAL,
+        TIME_LIMIT,
+        UNBOUNDED
+    }
+
+    record Result(Status status, double objective, double[] values, double[] duals) {
+    }
+
+    private final int rows;
+    private final int columns;
+    private final int[][] columnRows;
+    private final double[][] columnValues;
+    private final double[] cost;
+
+    BoundedSimplex(int rows, int[][] columnRows, double[][] columnValues, double[] cost) {
+        this.rows = rows;
+        this.columns = cost.length;
+        this.columnRows = columnRows;
+        this.columnValues = columnValues;
+        this.cost = cost;
+    }
+
+    /**
+     * Numbers the raw materials consumed by the given products as constraint rows: fills
+     * {@code materialRows} (material index to row, -1 when unused) and returns the material
+     * of every row.
+     */
+    static int[] materialRows(BomMatrix bom, int[] products, int[] materialRows) {
+        Arrays.fill(materialRows, -1);
+        int[] rowMaterials = new int[materialRows.length];
+        int rowCount = 0;
+        for (int product : products) {
+            for (int material : bom.materials(product)) {
+                if (materialRows[material] < 0) {
+                    materialRows[material] = rowCount;
+                    rowMaterials[rowCount++] = material;
+                }
+            }
+        }
+        return Arrays.copyOf(rowMaterials, rowCount);
+    }
+
+    /**
+     * Production LP with one column per product, valued at its unit value, and the rows
+     * numbered by {@link #materialRows(BomMatrix, int[], int[])}.
+     */
+    static BoundedSimplex forProducts(BomMatrix bom, int[] products, int[] materialRows, int rowCount) {
+        int n = products.length;
+        double[] cost = new double[n];
+        int[][] columnRows = new int[n][];
+        double[][] columnValues = new double[n][];
+        for (int j = 0; j < n; j++) {
+            int[] materials = bom.materials(products[j]);
+            long[] quantities = bom.quantities(products[j]);
+            cost[j] = bom.productValue(products[j]);
+            columnRows[j] = new int[materials.length];
+            columnValues[j] = new double[materials.length];
+            for (int k = 0; k < materials.length; k++) {
+                columnRows[j][k] = materialRows[materials[k]];
+                columnValues[j][k] = quantities[k];
+            }
+        }
+        return new BoundedSimplex(rowCount, columnRows, columnValues, cost);
+    }
+
+    Result solve(double[] rhs, double[] upper, long deadlineNanos) {
+        int m = rows;
+        int n = columns;
+
+        double[][] basisInverse = new double[m][m];
+        int[] basis = new int[m];
+        int[] position = new int[n + m];
+        Arrays.fill(position, -1);
+        for (int i = 0; i < m; i++) {
+            basisInverse[i][i] = 1.0;
+            basis[i] = n + i;
+            position[n + i] = i;
+        }
+        boolean[] atUpper = new boolean[n];
+        double[] basicValues = rhs.clone();
+        double[] duals = new double[m];
+        double[] alpha = new double[m];
+        int degenerateSteps = 0;
+        int[] candidates = new int[PRICING_CANDIDATES];
+        int candidateCount = 0;
+
+        for (long iteration = 0; ; iteration++) {
+            if ((iteration & 31) == 0 && System.nanoTime() - deadlineNanos > 0) {
+                return result(Status.TIME_LIMIT, basicValues, position, atUpper, upper, duals);
+            }
+
+            if (iteration % DUAL_REFRESH_INTERVAL == 0) {
+                computeDuals(basisInverse, basis, duals);
+            }
+
+            boolean bland = degenerateSteps > DEGENERATE_STEPS_BEFORE_BLAND;
+            int entering;
+            if (bland) {
+                entering = firstImproving(duals, position, atUpper);
+            } else {
+                entering = bestCandidate(candidates, candidateCount, duals, position, atUpper);
+                if (entering < 0) {
+                    candidateCount = refillCandidates(candidates, duals, position, atUpper);
+                    entering = bestCandidate(candidates, candidateCount, duals, position, atUpper);
+                }
+            }
+            if (entering < 0) {
+                computeDuals(basisInverse, basis, duals);
+                return result(Status.OPTIMAL, basicValues, position, atUpper, upper, duals);
+            }
+            double enteringReducedCost = reducedCost(duals, entering);
+            boolean increase = !(entering < n && atUpper[entering]);
+
+            enteringColumn(basisInverse, entering, alpha);
+            double direction = increase ? 1.0 : -1.0;
+
+            double step = entering < n ? upper[entering] : Double.POSITIVE_INFINITY;
+            int leaving = -1;
+            boolean leavesAtUpper = false;
+            for (int i = 0; i < m; i++) {
+                double rate = direction * alpha[i];
+                double limit;
+                boolean toUpper;
+                if (rate > PIVOT_TOLERANCE) {
+                    limit = Math.max(basicValues[i], 0.0) / rate;
+                    toUpper = false;
+                } else if (rate < -PIVOT_TOLERANCE && basis[i] < n && upper[basis[i]] != Double.POSITIVE_INFINITY) {
+                    limit = Math.max(upper[basis[i]] - basicValues[i], 0.0) / -rate;
+                    toUpper = true;
+                } else {
+                    continue;
+                }
+                if (limit < step || (bland && leaving >= 0 && limit == step && basis[i] < basis[leaving])) {
+                    step = limit;
+                    leaving = i;
+                    leavesAtUpper = toUpper;
+                }
+            }
+            if (step == Double.POSITIVE_INFINITY) {
+                return result(Status.UNBOUNDED, basicValues, position, atUpper, upper, duals);
+            }
+
+            degenerateSteps = step <= PIVOT_TOLERANCE ? degenerateSteps + 1 : 0;
+            for (int i = 0; i < m; i++) {
+                basicValues[i] -= direction * alpha[i] * step;
+            }
+
+            if (leaving < 0) {
+                atUpper[entering] = !atUpper[entering];
+                continue;
+            }
+
+            int leavingVariable = basis[leaving];
+            position[leavingVariable] = -1;
+            if (leavingVariable < n) {
+                atUpper[leavingVariable] = leavesAtUpper;
+            }
+            basis[leaving] = entering;
+            position[entering] = leaving;
+            basicValues[leaving] = increase ? step : upper[entering] - step;
+            if (entering < n) {
+                atUpper[entering] = false;
+            }
+            pivot(basisInverse, alpha, leaving);
+
+            double[] pivotRow = basisInverse[leaving];
+            for (int k = 0; k < m; k++) {
+                duals[k] += enteringReducedCost * pivotRow[k];
+            }
+        }
+    }
+
+    private double reducedCost(double[] duals, int variable) {
+        return variable < columns ? cost[variable] - dot(duals, variable) : -duals[variable - columns];
+    }
+
+    /**
+     * How much the objective improves per unit moved away from the current bound, or a
+     * non-positive value when moving the nonbasic variable does not help.
+     */
+    private double score(double[] duals, boolean[] atUpper, int variable) {
+        double reducedCost = reducedCost(duals, variable);
+        return variable < columns && atUpper[variable] ? -reducedCost : reducedCost;
+    }
+
+    private int firstImproving(double[] duals, int[] position, boolean[] atUpper) {
+        for (int j = 0; j < columns + rows; j++) {
+            if (position[j] < 0 && score(duals, atUpper, j) > COST_TOLERANCE) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    private int bestCandidate(int[] candidates, int count, double[] duals, int[] position, boolean[] atUpper) {
+        int best = -1;
+        double bestScore = COST_TOLERANCE;
+        for (int c = 0; c < count; c++) {
+            int j = candidates[c];
+            if (position[j] >= 0) {
+                continue;
+            }
+            double score = score(duals, atUpper, j);
+            if (score > bestScore) {
+                bestScore = score;
+                best = j;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Full pricing pass that keeps the most improving nonbasic variables; the following
+     * iterations only re-price this short list until it runs dry.
+     */
+    private int refillCandidates(int[] candidates, double[] duals, int[] position, boolean[] atUpper) {
+        double[] scores = new double[candidates.length];
+        int count = 0;
+        int weakest = 0;
+        for (int j = 0; j < columns + rows; j++) {
+            if (position[j] >= 0) {
+                continue;
+            }
+            double score = score(duals, atUpper, j);
+            if (score <= COST_TOLERANCE) {
+                continue;
+            }
+            if (count < candidates.length) {
+                candidates[count] = j;
+                scores[count] = score;
+                if (score < scores[weakest]) {
+                    weakest = count;
+                }
+                count++;
+            } else if (score > scores[weakest]) {
+                candidates[weakest] = j;
+                scores[weakest] = score;
+                for (int c = 0; c < count; c++) {
+                    if (scores[c] < scores[weakest]) {
+                        weakest = c;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private void computeDuals(double[][] basisInverse, int[] basis, double[] duals) {
+        Arrays.fill(duals, 0.0);
+        for (int i = 0; i < rows; i++) {
+            if (basis[i] >= columns) {
+                continue;
+            }
+            double basicCost = cost[basis[i]];
+            if (basicCost == 0.0) {
+                continue;
+            }
+            double[] row = basisInverse[i];
+            for (int k = 0; k < rows; k++) {
+                duals[k] += basicCost * row[k];
+            }
+        }
+    }
+
+    private double dot(double[] duals, int column) {
+        int[] indexes = columnRows[column];
+        double[] values = columnValues[column];
+        double sum = 0.0;
+        for (int k = 0; k < indexes.length; k++) {
+            sum += duals[indexes[k]] * values[k];
+        }
+        return sum;
+    }
+
+    private void enteringColumn(double[][] basisInverse, int entering, double[] alpha) {
+        if (entering >= columns) {
+            for (int i = 0; i < rows; i++) {
+                alpha[i] = basisInverse[i][entering - columns];
+            }
+            return;
+        }
+        int[] indexes = columnRows[entering];
+        double[] values = columnValues[entering];
+        for (int i = 0; i < rows; i++) {
+            double[] row = basisInverse[i];
+            double sum = 0.0;
+            for (int k = 0; k < indexes.length; k++) {
+                sum += row[indexes[k]] * values[k];
+            }
+            alpha[i] = sum;
+        }
+    }
+
+    private void pivot(double[][] basisInverse, double[] alpha, int pivotRow) {
+        double[] row = basisInverse[pivotRow];
+        double pivot = alpha[pivotRow];
+        for (int k = 0; k < rows; k++) {
+            row[k] /= pivot;
+        }
+        for (int i = 0; i < rows; i++) {
+            double factor = alpha[i];
+            if (i == pivotRow || factor == 0.0) {
+                continue;
+            }
+            double[] target = basisInverse[i];
+            for (int k = 0; k < rows; k++) {
+                target[k] -= factor * row[k];
+            }
+        }
+    }
+
+    private Result result(Status status, double[] basicValues, int[] position, boolean[] atUpper,
+                          double[] upper, double[] duals) {
+        double[] values = new double[columns];
+        double objective = 0.0;
+        for (int j = 0; j < columns; j++) {
+            if (position[j] >= 0) {
+                values[j] = Math.min(Math.max(basicValues[position[j]], 0.0), upper[j]);
+            } else {
+                values[j] = atUpper[j] ? upper[j] : 0.0;
+            }
+            objective += cost[j] * values[j];
+        }
+        return new Result(status, objective, values, duals.clone());
+    }
+}
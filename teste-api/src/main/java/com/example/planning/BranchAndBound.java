@@ -0,0 +1,262 @@
+package com.example.planning;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.stream.IntStream;
+
+/**
+ * Depth-first branch and bound over the LP relaxation of
+ * {@code max sum(value * qty)} subject to {@code sum(quantityNeeded * qty) <= stock}. Every node rounds its LP
+ * solution down and fills the leftover stock greedily, so a good incumbent is available as
+ * soon as the first relaxation is solved and the search can stop at any time.
+ */
+final class BranchAndBound {
+
+    private static final double INTEGRALITY_TOLERANCE = 1e-6;
+
+    private record Node(Node parent, int column, long lower, long upper) {
+    }
+
+    private final BomMatrix bom;
+    private final long deadlineNanos;
+
+    private final int[] products;
+    private final int[] materialRows;
+    private final long[] capacities;
+    private final BoundedSimplex simplex;
+    private final double[] stock;
+    private final int[] byValue;
+
+    private long[] best;
+    private double bestValue;
+    private boolean exhausted;
+    private int nodes;
+
+    BranchAndBound(BomMatrix bom, long deadlineNanos) {
+        this.bom = bom;
+        this.deadlineNanos = deadlineNanos;
+
+        long[] allCapacities = ProductRanking.capacities(bom, bom.stockCopy());
+        products = IntStream.range(0, bom.productCount())
+                .filter(p -> allCapacities[p] > 0)
+                .toArray();
+
+        materialRows = new int[bom.materialCount()];
+        int[] usedMaterials = BoundedSimplex.materialRows(bom, products, materialRows);
+
+        int n = products.length;
+        capacities = new long[n];
+        for (int j = 0; j < n; j++) {
+            capacities[j] = allCapacities[products[j]];
+        }
+        simplex = BoundedSimplex.forProducts(bom, products, materialRows, usedMaterials.length);
+
+        stock = new double[usedMaterials.length];
+        for (int i = 0; i < stock.length; i++) {
+            stock[i] = bom.stock(usedMaterials[i]);
+        }
+
+        Integer[] order = new Integer[n];
+        Arrays.setAll(order, j -> j);
+        Arrays.sort(order, (a, b) -> {
+            int byUnitValue = Long.compare(bom.productValue(products[b]), bom.productValue(products[a]));
+            return byUnitValue != 0 ? byUnitValue : Long.compare(bom.productId(products[a]), bom.productId(products[b]));
+        });
+        byValue = Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+
+        best = new long[n];
+        bestValue = 0.0;
+    }
+
+    /**
+     * Seeds the incumbent with an already known feasible plan, typically the greedy one.
+     */
+    void offer(ProductionPlan plan) {
+        long[] quantities = new long[products.length];
+        int[] columnOf = new int[bom.productCount()];
+        Arrays.fill(columnOf, -1);
+        for (int j = 0; j < products.length; j++) {
+            columnOf[products[j]] = j;
+        }
+        for (int position = 0; position < plan.size(); position++) {
+            int column = columnOf[plan.product(position)];
+            if (column >= 0) {
+                quantities[column] = plan.quantity(position);
+            }
+        }
+        consider(quantities);
+    }
+
+    void run() {
+        int n = products.length;
+        long[] lower = new long[n];
+        long[] upper = new long[n];
+        double[] rhs = new double[stock.length];
+        double[] range = new double[n];
+
+        Deque<Node> open = new ArrayDeque<>();
+        open.push(new Node(null, -1, 0, 0));
+
+        while (!open.isEmpty()) {
+            if (System.nanoTime() - deadlineNanos > 0) {
+                return;
+            }
+            Node node = open.pop();
+            nodes++;
+
+            System.arraycopy(capacities, 0, upper, 0, n);
+            Arrays.fill(lower, 0);
+            applyBounds(node, lower, upper);
+
+            System.arraycopy(stock, 0, rhs, 0, stock.length);
+            double constant = 0.0;
+            boolean feasible = true;
+            for (int j = 0; j < n; j++) {
+                range[j] = upper[j] - lower[j];
+                if (lower[j] == 0) {
+                    continue;
+                }
+                constant += bom.productValue(products[j]) * (double) lower[j];
+                int[] materials = bom.materials(products[j]);
+                long[] quantities = bom.quantities(products[j]);
+                for (int k = 0; k < materials.length; k++) {
+                    rhs[materialRows[materials[k]]] -= quantities[k] * (double) lower[j];
+                }
+            }
+            for (int i = 0; i < rhs.length; i++) {
+                if (rhs[i] < -INTEGRALITY_TOLERANCE) {
+                    feasible = false;
+                    break;
+                }
+                rhs[i] = Math.max(rhs[i], 0.0);
+            }
+            if (!feasible) {
+                continue;
+            }
+
+            BoundedSimplex.Result relaxation = simplex.solve(rhs, range, deadlineNanos);
+            double bound = constant + relaxation.objective();
+            if (relaxation.status() == BoundedSimplex.Status.OPTIMAL
+                    && bound < bestValue + 1.0 - INTEGRALITY_TOLERANCE * Math.max(1.0, bound)) {
+                continue;
+            }
+
+            // Primal simplex iterates stay feasible, so even an interrupted relaxation is worth rounding
+            double[] values = relaxation.values();
+            long[] rounded = new long[n];
+            int branchColumn = -1;
+            double branchValue = 0.0;
+            double mostFractional = INTEGRALITY_TOLERANCE;
+            for (int j = 0; j < n; j++) {
+                double value = lower[j] + values[j];
+                rounded[j] = (long) Math.floor(value + INTEGRALITY_TOLERANCE);
+                double fraction = Math.abs(value - Math.rint(value));
+                if (fraction > mostFractional) {
+                    mostFractional = fraction;
+                    branchColumn = j;
+                    branchValue = value;
+                }
+            }
+            consider(rounded);
+
+            if (relaxation.status() != BoundedSimplex.Status.OPTIMAL) {
+                return;
+            }
+
+            if (branchColumn < 0) {
+                continue;
+            }
+            long floor = (long) Math.floor(branchValue);
+            open.push(new Node(node, branchColumn, lower[branchColumn], floor));
+            open.push(new Node(node, branchColumn, floor + 1, upper[branchColumn]));
+        }
+        exhausted = true;
+    }
+
+    boolean isExhausted() {
+        return exhausted;
+    }
+
+    int nodes() {
+        return nodes;
+    }
+
+    ProductionPlan toPlan() {
+        long[] remaining = bom.stockCopy();
+        long[] quantities = new long[bom.productCount()];
+        for (int j = 0; j < products.length; j++) {
+            quantities[products[j]] = best[j];
+            consume(remaining, products[j], best[j]);
+        }
+        return ProductionPlan.ofQuantities(bom, quantities, remaining, exhausted);
+    }
+
+    private static void applyBounds(Node node, long[] lower, long[] upper) {
+        Deque<Node> path = new ArrayDeque<>();
+        for (Node current = node; current != null && current.column() >= 0; current = current.parent()) {
+            path.push(current);
+        }
+        for (Node step : path) {
+            lower[step.column()] = step.lower();
+            upper[step.column()] = step.upper();
+        }
+    }
+
+    /**
+     * Repairs the candidate into an exactly feasible plan, tops it up greedily with the stock
+     * left over and keeps it when it beats the incumbent.
+     */
+    private void consider(long[] candidate) {
+        long[] quantities = candidate.clone();
+        long[] remaining = bom.stockCopy();
+        for (int j = 0; j < products.length; j++) {
+            consume(remaining, products[j], quantities[j]);
+        }
+        for (int j = 0; j < products.length; j++) {
+            if (quantities[j] == 0) {
+                continue;
+            }
+            long excess = 0;
+            int[] materials = bom.materials(products[j]);
+            long[] needed = bom.quantities(products[j]);
+            for (int k = 0; k < materials.length; k++) {
+                if (remaining[materials[k]] < 0) {
+                    excess = Math.max(excess, (-remaining[materials[k]] + needed[k] - 1) / needed[k]);
+                }
+            }
+            long reduction = Math.min(excess, quantities[j]);
+            if (reduction > 0) {
+                quantities[j] -= reduction;
+                consume(remaining, products[j], -reduction);
+            }
+        }
+        for (int j : byValue) {
+            long extra = ProductRanking.capacity(bom, products[j], remaining);
+            if (extra > 0) {
+                quantities[j] += extra;
+                consume(remaining, products[j], extra);
+            }
+        }
+
+        double value = 0.0;
+        for (int j = 0; j < products.length; j++) {
+            value += bom.productValue(products[j]) * (double) quantities[j];
+        }
+        if (value > bestValue) {
+            bestValue = value;
+            best = quantities;
+        }
+    }
+
+    private void consume(long[] remaining, int product, long quantity) {
+        if (quantity == 0) {
+            return;
+        }
+        int[] materials = bom.materials(product);
+        long[] needed = bom.quantities(product);
+        for (int k = 0; k < materials.length; k++) {
+            remaining[materials[k]] -= quantity * needed[k];
+        }
+    }
+}
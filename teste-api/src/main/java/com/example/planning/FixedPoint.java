@@ -0,0 +1,39 @@
+package com.example.planning;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Converts the DECIMAL(10, 2) columns used by products and raw materials to
+ * long units of 0.01 so planning can run on primitive arrays.
+ */
+public final class FixedPoint {
+
+    public static final int SCALE = 2;
+
+    private FixedPoint() {
+    }
+
+    public static long toUnits(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long units) {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    public static BigDecimal multiply(long units, long quantity) {
+        return BigDecimal.valueOf(units).multiply(BigDecimal.valueOf(quantity)).movePointLeft(SCALE);
+    }
+
+    /**
+     * Compares {@code a * b} with {@code c * d} without overflowing, for non-negative operands.
+     */
+    public static int compareProducts(long a, long b, long c, long d) {
+        int high = Long.compare(Math.multiplyHigh(a, b), Math.multiplyHigh(c, d));
+        if (high != 0) {
+            return high;
+        }
+        return Long.compareUnsigned(a * b, c * d);
+    }
+}
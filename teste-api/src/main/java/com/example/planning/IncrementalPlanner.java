@@ -0,0 +1,492 @@
+package com.example.planning;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the greedy plan of a catalog up to date as products, raw materials and bills of
+ * materials change. A dependency index from raw materials to the products consuming them
+ * limits every update to the products it actually touches: only their capacity and rank are
+ * recomputed, and the allocation is replayed from the stock checkpoint preceding the first
+ * rank that moved. The resulting plan is identical to {@link ProductionPlanner#plan(BomMatrix)}.
+ *
+ * <p>Instances are not thread-safe; callers serialize {@link #apply(Changes)} and publish
+ * the immutable {@link #plan()} to readers.
+ */
+public final class IncrementalPlanner {
+
+    private static final int CHECKPOINT_INTERVAL = 256;
+    private static final int[] NO_PRODUCTS = new int[0];
+    private static final int UNCHANGED = Integer.MAX_VALUE;
+
+    private BomMatrix bom;
+    private long[] capacities;
+    private int[] ranked;
+    private int[] positions;
+    private long[] allocations;
+    private long[][] checkpoints;
+    private long[] remaining;
+    private int[][] dependents;
+    private int[] dependentCounts;
+    private int settledFrom;
+    private ProductionPlan plan;
+
+    public IncrementalPlanner(BomMatrix bom) {
+        this(bom, null);
+    }
+
+    /**
+     * Takes the first allocation from the given planner, which plans the independent parts
+     * of a large catalog in parallel; only the stock checkpoints are then taken sequentially.
+     */
+    public IncrementalPlanner(BomMatrix bom, ProductionPlanner initialPlanner) {
+        this.bom = bom;
+        capacities = ProductRanking.capacities(bom, bom.stockCopy());
+        ranked = ProductRanking.rank(bom, capacities);
+        positions = new int[bom.productCount()];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < ranked.length; i++) {
+            positions[ranked[i]] = i;
+        }
+        dependents = new int[bom.materialCount()][];
+        dependentCounts = new int[bom.materialCount()];
+        Arrays.fill(dependents, NO_PRODUCTS);
+        for (int p = 0; p < bom.productCount(); p++) {
+            for (int material : bom.materials(p)) {
+                addDependent(material, p);
+            }
+        }
+        allocations = new long[0];
+        checkpoints = new long[0][];
+        if (initialPlanner == null) {
+            replay(0, NO_PRODUCTS);
+        } else {
+            seed(initialPlanner.allocate(bom, ranked, bom.stockCopy()));
+        }
+    }
+
+    public static Changes changes() {
+        return new Changes();
+    }
+
+    public BomMatrix bom() {
+        return bom;
+    }
+
+    public ProductionPlan plan() {
+        return plan;
+    }
+
+    /**
+     * Applies a batch of catalog changes and refreshes the plan.
+     */
+    public void apply(Changes changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        BomMatrix previous = bom;
+        BomMatrix.Editor editor = previous.edit();
+        List<Integer> affected = new ArrayList<>();
+        List<Integer> changedMaterials = new ArrayList<>();
+
+        for (MaterialChange change : changes.materials) {
+            int before = previous.materialIndexOf(change.id());
+            int material = change.stockQuantity() == null
+                    ? editor.removeMaterial(change.id())
+                    : editor.upsertMaterial(change.id(), change.name(), change.stockQuantity());
+            if (material < 0) {
+                continue;
+            }
+            growMaterials(material + 1);
+            long oldStock = before < 0 ? 0 : previous.stock(before);
+            long newStock = change.stockQuantity() == null ? 0 : FixedPoint.toUnits(change.stockQuantity());
+            if (oldStock != newStock) {
+                changedMaterials.add(material);
+                for (int i = 0; i < dependentCounts[material]; i++) {
+                    affected.add(dependents[material][i]);
+                }
+            }
+        }
+
+        for (ProductChange change : changes.products) {
+            int before = previous.productIndexOf(change.id());
+            if (change.value() == null) {
+                int product = editor.productIndexOf(change.id());
+                if (product >= 0) {
+                    replaceDependencies(editor.materials(product), product, NO_PRODUCTS);
+                    editor.removeProduct(change.id());
+                    affected.add(product);
+                }
+                continue;
+            }
+            int product = editor.upsertProduct(change.id(), change.name(), change.value());
+            growProducts(product + 1);
+            if (before >= 0 && previous.productValue(before) != FixedPoint.toUnits(change.value())) {
+                affected.add(product);
+            }
+        }
+
+        for (RequirementChange change : changes.requirements) {
+            int product = editor.productIndexOf(change.productId());
+            if (product < 0) {
+                continue;
+            }
+            List<BomLine> lines = change.lines().stream()
+                    .filter(line -> editor.materialIndexOf(line.rawMaterialId()) >= 0)
+                    .toList();
+            int[] materials = new int[lines.size()];
+            long[] quantities = new long[lines.size()];
+            for (int i = 0; i < lines.size(); i++) {
+                materials[i] = editor.materialIndexOf(lines.get(i).rawMaterialId());
+                quantities[i] = FixedPoint.toUnits(lines.get(i).quantityNeeded());
+            }
+            replaceDependencies(editor.materials(product), product, materials);
+            editor.setRequirements(product, materials, quantities);
+            affected.add(product);
+        }
+
+        bom = editor.build();
+        int from = rerank(affected);
+        replay(from, changedMaterials.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Recomputes capacity and rank of the affected products only and returns the first rank
+     * whose allocation may have changed, or {@link #UNCHANGED} when the ranking is untouched.
+     * Also records in {@link #settledFrom} the rank from which the order is the same as before.
+     */
+    private int rerank(List<Integer> affected) {
+        long[] stock = bom.stockCopy();
+        boolean[] marked = new boolean[bom.productCount()];
+        int earliest = ranked.length;
+        int latest = -1;
+        int[] moved = new int[affected.size()];
+        int movedCount = 0;
+
+        for (int product : affected) {
+            if (marked[product]) {
+                continue;
+            }
+            marked[product] = true;
+            if (positions[product] >= 0) {
+                earliest = Math.min(earliest, positions[product]);
+                latest = Math.max(latest, positions[product]);
+            }
+            capacities[product] = ProductRanking.capacity(bom, product, stock);
+            if (capacities[product] > 0) {
+                moved[movedCount++] = product;
+            }
+        }
+        if (earliest == ranked.length && movedCount == 0) {
+            return UNCHANGED;
+        }
+
+        int[] inserted = Arrays.copyOf(moved, movedCount);
+        ProductRanking.sort(inserted, (a, b) -> ProductRanking.compare(bom, capacities, a, b));
+
+        int[] merged = new int[ranked.length - countMarked(marked) + inserted.length];
+        int next = 0;
+        int insert = 0;
+        for (int product : ranked) {
+            if (marked[product]) {
+                continue;
+            }
+            while (insert < inserted.length && ProductRanking.compare(bom, capacities, inserted[insert], product) < 0) {
+                earliest = Math.min(earliest, next);
+                latest = Math.max(latest, next);
+                merged[next++] = inserted[insert++];
+            }
+            merged[next++] = product;
+        }
+        while (insert < inserted.length) {
+            earliest = Math.min(earliest, next);
+            latest = Math.max(latest, next);
+            merged[next++] = inserted[insert++];
+        }
+        settledFrom = merged.length == ranked.length ? latest + 1 : Integer.MAX_VALUE;
+
+        for (int product : affected) {
+            positions[product] = -1;
+        }
+        for (int i = earliest; i < merged.length; i++) {
+            positions[merged[i]] = i;
+        }
+        ranked = merged;
+        return earliest;
+    }
+
+    private int countMarked(boolean[] marked) {
+        int count = 0;
+        for (int product : ranked) {
+            if (marked[product]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Re-runs the greedy allocation from the checkpoint at or before {@code from}. No product
+     * ranked before {@code from} consumes a changed raw material, so in every checkpoint up to
+     * there the stock of those materials is simply their new stock.
+     */
+    private void replay(int from, int[] changedMaterials) {
+        int checkpoint = Math.min(from / CHECKPOINT_INTERVAL, checkpoints.length - 1);
+        for (int k = 0; k < checkpoints.length && (from == UNCHANGED || k < checkpoint); k++) {
+            for (int material : changedMaterials) {
+                if (material < checkpoints[k].length) {
+                    checkpoints[k][material] = bom.stock(material);
+                }
+            }
+        }
+        if (from == UNCHANGED) {
+            remaining = withCurrentStock(remaining, changedMaterials);
+            plan = toPlan(remaining);
+            return;
+        }
+
+        int start;
+        long[] stock;
+        if (checkpoint >= 0) {
+            start = checkpoint * CHECKPOINT_INTERVAL;
+            stock = withCurrentStock(checkpoints[checkpoint], changedMaterials);
+        } else {
+            start = 0;
+            stock = bom.stockCopy();
+        }
+
+        int previousCheckpoints = checkpoints.length;
+        allocations = Arrays.copyOf(allocations, ranked.length);
+        checkpoints = Arrays.copyOf(checkpoints, (ranked.length + CHECKPOINT_INTERVAL - 1) / CHECKPOINT_INTERVAL);
+        for (int i = start; i < ranked.length; i++) {
+            if (i % CHECKPOINT_INTERVAL == 0) {
+                int k = i / CHECKPOINT_INTERVAL;
+                if (i >= settledFrom && k < previousCheckpoints && settles(checkpoints[k], stock, changedMaterials)) {
+                    reuseTail(k, stock, changedMaterials);
+                    plan = toPlan(remaining);
+                    return;
+                }
+                checkpoints[k] = stock.clone();
+            }
+            int product = ranked[i];
+            long quantity = ProductRanking.capacity(bom, product, stock);
+            allocations[i] = quantity;
+            if (quantity > 0) {
+                int[] materials = bom.materials(product);
+                long[] needed = bom.quantities(product);
+                for (int k = 0; k < materials.length; k++) {
+                    stock[materials[k]] -= quantity * needed[k];
+                }
+            }
+        }
+        remaining = stock;
+        plan = toPlan(remaining);
+    }
+
+    /**
+     * Records a precomputed allocation by product, taking the checkpoints a replay would take.
+     */
+    private void seed(long[] quantities) {
+        long[] stock = bom.stockCopy();
+        allocations = new long[ranked.length];
+        checkpoints = new long[(ranked.length + CHECKPOINT_INTERVAL - 1) / CHECKPOINT_INTERVAL][];
+        for (int i = 0; i < ranked.length; i++) {
+            if (i % CHECKPOINT_INTERVAL == 0) {
+                checkpoints[i / CHECKPOINT_INTERVAL] = stock.clone();
+            }
+            int product = ranked[i];
+            long quantity = quantities[product];
+            allocations[i] = quantity;
+            if (quantity > 0) {
+                int[] materials = bom.materials(product);
+                long[] needed = bom.quantities(product);
+                for (int k = 0; k < materials.length; k++) {
+                    stock[materials[k]] -= quantity * needed[k];
+                }
+            }
+        }
+        remaining = stock;
+        plan = toPlan(remaining);
+    }
+
+    /**
+     * Whether the replayed stock matches the previous pass at a checkpoint past the last moved
+     * rank. Changed and new raw materials are only consumed by moved products, so they are
+     * ignored; if everything else matches, the rest of the previous allocation still holds.
+     */
+    private boolean settles(long[] previous, long[] stock, int[] changedMaterials) {
+        boolean[] ignored = new boolean[stock.length];
+        for (int material : changedMaterials) {
+            ignored[material] = true;
+        }
+        for (int m = 0; m < previous.length; m++) {
+            if (!ignored[m] && previous[m] != stock[m]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Keeps the allocation from checkpoint {@code k} onwards, carrying the replayed stock of
+     * changed and new raw materials, which nothing ranked after the checkpoint consumes.
+     */
+    private void reuseTail(int k, long[] stock, int[] changedMaterials) {
+        int known = checkpoints[k].length;
+        for (int c = k; c < checkpoints.length; c++) {
+            checkpoints[c] = carry(checkpoints[c], known, stock, changedMaterials);
+        }
+        remaining = carry(remaining, known, stock, changedMaterials);
+    }
+
+    private long[] carry(long[] target, int known, long[] stock, int[] changedMaterials) {
+        long[] carried = Arrays.copyOf(target, stock.length);
+        for (int m = known; m < stock.length; m++) {
+            carried[m] = stock[m];
+        }
+        for (int material : changedMaterials) {
+            carried[material] = stock[material];
+        }
+        return carried;
+    }
+
+    /**
+     * Copy of a stock vector taken before any changed or new raw material was consumed, with
+     * those materials reset to their current stock.
+     */
+    private long[] withCurrentStock(long[] stock, int[] changedMaterials) {
+        long[] current = Arrays.copyOf(stock, bom.materialCount());
+        for (int m = stock.length; m < current.length; m++) {
+            current[m] = bom.stock(m);
+        }
+        for (int material : changedMaterials) {
+            current[material] = bom.stock(material);
+        }
+        return current;
+    }
+
+    private ProductionPlan toPlan(long[] remaining) {
+        int planned = 0;
+        for (int i = 0; i < ranked.length; i++) {
+            if (allocations[i] > 0) {
+                planned++;
+            }
+        }
+        int[] products = new int[planned];
+        long[] quantities = new long[planned];
+        int next = 0;
+        for (int i = 0; i < ranked.length; i++) {
+            if (allocations[i] > 0) {
+                products[next] = ranked[i];
+                quantities[next] = allocations[i];
+                next++;
+            }
+        }
+        return new ProductionPlan(bom, products, quantities, remaining.clone(), false);
+    }
+
+    private void replaceDependencies(int[] previous, int product, int[] materials) {
+        for (int material : previous) {
+            removeDependent(material, product);
+        }
+        for (int material : materials) {
+            addDependent(material, product);
+        }
+    }
+
+    private void addDependent(int material, int product) {
+        int count = dependentCounts[material];
+        if (count == dependents[material].length) {
+            dependents[material] = Arrays.copyOf(dependents[material], Math.max(4, count * 2));
+        }
+        dependents[material][count] = product;
+        dependentCounts[material] = count + 1;
+    }
+
+    private void removeDependent(int material, int product) {
+        int[] products = dependents[material];
+        int count = dependentCounts[material];
+        for (int i = 0; i < count; i++) {
+            if (products[i] == product) {
+                products[i] = products[count - 1];
+                dependentCounts[material] = count - 1;
+                return;
+            }
+        }
+    }
+
+    private void growProducts(int count) {
+        if (count > capacities.length) {
+            int oldLength = positions.length;
+            capacities = Arrays.copyOf(capacities, count);
+            positions = Arrays.copyOf(positions, count);
+            Arrays.fill(positions, oldLength, count, -1);
+        }
+    }
+
+    private void growMaterials(int count) {
+        if (count > dependents.length) {
+            int oldLength = dependents.length;
+            dependents = Arrays.copyOf(dependents, count);
+            dependentCounts = Arrays.copyOf(dependentCounts, count);
+            Arrays.fill(dependents, oldLength, count, NO_PRODUCTS);
+        }
+    }
+
+    private record ProductChange(long id, String name, BigDecimal value) {
+    }
+
+    private record MaterialChange(long id, String name, BigDecimal stockQuantity) {
+    }
+
+    private record RequirementChange(long productId, List<BomLine> lines) {
+    }
+
+    /**
+     * Batch of catalog changes. Raw materials are applied first, then products and finally
+     * bills of materials, so a batch may introduce a product together with its requirements.
+     */
+    public static final class Changes {
+
+        private final List<MaterialChange> materials = new ArrayList<>();
+        private final List<ProductChange> products = new ArrayList<>();
+        private final List<RequirementChange> requirements = new ArrayList<>();
+
+        private Changes() {
+        }
+
+        public Changes putProduct(long id, String name, BigDecimal value) {
+            products.add(new ProductChange(id, name, value));
+            return this;
+        }
+
+        public Changes removeProduct(long id) {
+            products.add(new ProductChange(id, null, null));
+            return this;
+        }
+
+        public Changes putMaterial(long id, String name, BigDecimal stockQuantity) {
+            materials.add(new MaterialChange(id, name, stockQuantity));
+            return this;
+        }
+
+        public Changes removeMaterial(long id) {
+            materials.add(new MaterialChange(id, null, null));
+            return this;
+        }
+
+        /**
+         * Replaces the whole bill of materials of a product.
+         */
+        public Changes putRequirements(long productId, List<BomLine> lines) {
+            requirements.add(new RequirementChange(productId, lines));
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return materials.isEmpty() && products.isEmpty() && requirements.isEmpty();
+        }
+    }
+}
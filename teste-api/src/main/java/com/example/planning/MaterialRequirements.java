@@ -0,0 +1,81 @@
+package com.example.planning;
+
+import com.example.exception.InvalidRequestException;
+
+import java.util.stream.IntStream;
+
+/**
+ * Raw materials needed to produce a mix of products, accumulated in one pass over the
+ * flattened bills of materials of a {@link BomMatrix}, so sub-assemblies are included.
+ */
+public final class MaterialRequirements {
+
+    private final BomMatrix bom;
+    private final long[] required;
+    private final long[] addedStock;
+
+    public MaterialRequirements(BomMatrix bom) {
+        this.bom = bom;
+        this.required = new long[bom.materialCount()];
+        this.addedStock = new long[bom.materialCount()];
+    }
+
+    public BomMatrix bom() {
+        return bom;
+    }
+
+    /**
+     * Adds the raw materials needed for {@code quantity} units of the product.
+     */
+    public MaterialRequirements add(long productId, long quantity) {
+        int product = bom.productIndexOf(productId);
+        if (product < 0) {
+            throw new InvalidRequestException(String.format("Production target references unknown product %d", productId));
+        }
+        int[] materials = bom.materials(product);
+        long[] needed = bom.quantities(product);
+        try {
+            for (int i = 0; i < materials.length; i++) {
+                required[materials[i]] = Math.addExact(required[materials[i]], Math.multiplyExact(quantity, needed[i]));
+            }
+        } catch (ArithmeticException e) {
+            throw new InvalidRequestException("Production targets are too large");
+        }
+        return this;
+    }
+
+    /**
+     * Indexes of the raw materials the mix needs, ordered by raw material id.
+     */
+    public int[] materials() {
+        int[] materials = IntStream.range(0, required.length)
+                .filter(material -> required[material] > 0)
+                .toArray();
+        ProductRanking.sort(materials, (a, b) -> Long.compare(bom.materialId(a), bom.materialId(b)));
+        return materials;
+    }
+
+    public long required(int material) {
+        return required[material];
+    }
+
+    /**
+     * Counts stock the matrix does not hold yet, such as movements not written to the database.
+     */
+    public MaterialRequirements addStock(int material, long units) {
+        addedStock[material] += units;
+        return this;
+    }
+
+    public long stock(int material) {
+        return bom.stock(material) + addedStock[material];
+    }
+
+    public long shortfall(int material) {
+        return Math.max(0, required[material] - stock(material));
+    }
+
+    public boolean isFeasible() {
+        return IntStream.range(0, required.length).allMatch(material -> shortfall(material) == 0);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.planning;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+
+/**
+ * Value-maximizing planner. Starts from the greedy plan and improves it with branch and
+ * bound until the search space is exhausted or the configured time budget runs out, in
+ * which case the best plan found so far is returned.
+ */
+@ApplicationScoped
+public class OptimalProductionPlanner {
+
+    private static final Logger LOG = Logger.getLogger(OptimalProductionPlanner.class);
+
+    @Inject
+    ProductionPlanner productionPlanner;
+
+    @ConfigProperty(name = "production-suggestions.optimal.time-budget", defaultValue = "500ms")
+    Duration timeBudget;
+
+    public ProductionPlan plan(BomMatrix bom) {
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+
+        BranchAndBound search = new BranchAndBound(bom, deadline);
+        search.offer(productionPlanner.plan(bom));
+        search.run();
+
+        ProductionPlan plan = search.toPlan();
+        LOG.debugf("Optimal planning explored %d nodes, proven optimal: %s", search.nodes(), Boolean.valueOf(search.isExhausted()));
+        return plan;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.planning;
+
+/**
+ * Bottlenecks and shadow prices of a {@link ProductionPlan}: for every planned product, the
+ * raw material that stops it from making one more unit, and for every raw material, the
+ * marginal plan value of one more unit of stock.
+ */
+public final class PlanAnalysis {
+
+    private final ProductionPlan plan;
+    private final int[] limitingMaterials;
+    private final long[] shortfalls;
+    private final int[] limitedProducts;
+    private final double[] shadowPrices;
+    private final boolean shadowPricesOptimal;
+
+    PlanAnalysis(ProductionPlan plan, int[] limitingMaterials, long[] shortfalls, int[] limitedProducts,
+                 double[] shadowPrices, boolean shadowPricesOptimal) {
+        this.plan = plan;
+        this.limitingMaterials = limitingMaterials;
+        this.shortfalls = shortfalls;
+        this.limitedProducts = limitedProducts;
+        this.shadowPrices = shadowPrices;
+        this.shadowPricesOptimal = shadowPricesOptimal;
+    }
+
+    public ProductionPlan plan() {
+        return plan;
+    }
+
+    /**
+     * Material index limiting the product planned at the given position: the one with the
+     * least stock left relative to what a unit needs.
+     */
+    public int limitingMaterial(int position) {
+        return limitingMaterials[position];
+    }
+
+    /**
+     * Stock of the limiting material missing to make one more unit, in {@link FixedPoint} units.
+     * Other raw materials may run out before that unit can be made.
+     */
+    public long shortfall(int position) {
+        return shortfalls[position];
+    }
+
+    /**
+     * Number of planned products the raw material is limiting.
+     */
+    public int limitedProducts(int material) {
+        return limitedProducts[material];
+    }
+
+    /**
+     * Value the plan would gain per extra unit of the raw material, from the duals of the LP
+     * relaxation. Only meaningful when {@link #shadowPricesOptimal()}.
+     */
+    public double shadowPrice(int material) {
+        return shadowPrices[material];
+    }
+
+    /**
+     * Whether the LP relaxation was solved to optimality within the time budget.
+     */
+    public boolean shadowPricesOptimal() {
+        return shadowPricesOptimal;
+    }
+}
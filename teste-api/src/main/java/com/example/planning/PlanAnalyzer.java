@@ -0,0 +1,93 @@
+package com.example.planning;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Computes {@link PlanAnalysis} from the plan and its in-memory catalog: bottlenecks in one
+ * pass over the planned products' rows, shadow prices from a single LP solve over the whole
+ * matrix.
+ */
+@ApplicationScoped
+public class PlanAnalyzer {
+
+    private static final Logger LOG = Logger.getLogger(PlanAnalyzer.class);
+
+    @ConfigProperty(name = "production-suggestions.analysis.time-budget", defaultValue = "2s")
+    Duration timeBudget;
+
+    public PlanAnalysis analyze(ProductionPlan plan) {
+        BomMatrix bom = plan.bom();
+        int[] limitingMaterials = new int[plan.size()];
+        long[] shortfalls = new long[plan.size()];
+        int[] limitedProducts = new int[bom.materialCount()];
+
+        for (int position = 0; position < plan.size(); position++) {
+            int product = plan.product(position);
+            int[] materials = bom.materials(product);
+            long[] needed = bom.quantities(product);
+            int limiting = -1;
+            for (int k = 0; k < materials.length; k++) {
+                if (limiting < 0 || isTighter(bom, plan, materials[k], needed[k], materials[limiting], needed[limiting])) {
+                    limiting = k;
+                }
+            }
+            int material = materials[limiting];
+            limitingMaterials[position] = material;
+            shortfalls[position] = Math.max(0, needed[limiting] - plan.remainingStock(material));
+            limitedProducts[material]++;
+        }
+
+        double[] shadowPrices = new double[bom.materialCount()];
+        boolean optimal = solveShadowPrices(bom, shadowPrices);
+        return new PlanAnalysis(plan, limitingMaterials, shortfalls, limitedProducts, shadowPrices, optimal);
+    }
+
+    /**
+     * Whether {@code remaining(a) / neededA} is below {@code remaining(b) / neededB}, ties going
+     * to the lower raw material id.
+     */
+    private static boolean isTighter(BomMatrix bom, ProductionPlan plan, int a, long neededA, int b, long neededB) {
+        int comparison = FixedPoint.compareProducts(plan.remainingStock(a), neededB, plan.remainingStock(b), neededA);
+        return comparison < 0 || (comparison == 0 && bom.materialId(a) < bom.materialId(b));
+    }
+
+    /**
+     * Solves {@code max value.x} subject to {@code quantityNeeded.x <= stock}, without the
+     * per-product caps used while planning, so every dual prices exactly one raw material.
+     */
+    private boolean solveShadowPrices(BomMatrix bom, double[] shadowPrices) {
+        int[] products = IntStream.range(0, bom.productCount())
+                .filter(p -> bom.materials(p).length > 0 && bom.productValue(p) > 0)
+                .toArray();
+        int[] materialRows = new int[bom.materialCount()];
+        int[] rowMaterials = BoundedSimplex.materialRows(bom, products, materialRows);
+        if (rowMaterials.length == 0) {
+            return true;
+        }
+
+        double[] rhs = new double[rowMaterials.length];
+        for (int i = 0; i < rhs.length; i++) {
+            rhs[i] = bom.stock(rowMaterials[i]);
+        }
+        double[] upper = new double[products.length];
+        Arrays.fill(upper, Double.POSITIVE_INFINITY);
+
+        BoundedSimplex.Result result = BoundedSimplex.forProducts(bom, products, materialRows, rowMaterials.length)
+                .solve(rhs, upper, System.nanoTime() + timeBudget.toNanos());
+        if (result.status() != BoundedSimplex.Status.OPTIMAL) {
+            LOG.debugf("Shadow prices not proven optimal: %s", result.status());
+            return false;
+        }
+        // Value and stock share the same fixed-point scale, so a dual is already value per unit of stock
+        for (int i = 0; i < rowMaterials.length; i++) {
+            shadowPrices[rowMaterials[i]] = Math.max(0.0, result.duals()[i]);
+        }
+        return true;
+    }
+}
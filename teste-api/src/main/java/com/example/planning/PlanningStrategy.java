@@ -0,0 +1,21 @@
+package com.example.planning;
+
+import com.example.exception.InvalidRequestException;
+
+import java.util.Locale;
+
+public enum PlanningStrategy {
+    GREEDY,
+    OPTIMAL;
+
+    public static PlanningStrategy fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return GREEDY;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException(String.format("Unknown planning strategy '%s'", value));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.planning;
+
+/**
+ * Priority order shared by the planners: products are ranked by the total value they could
+ * produce on their own, then by unit value and finally by id, matching the original
+ * {@code production_suggestions} view.
+ */
+final class ProductRanking {
+
+    private ProductRanking() {
+    }
+
+    /**
+     * Maximum units of the product the given stock allows, or 0 when it has no raw materials.
+     */
+    static long capacity(BomMatrix bom, int product, long[] stock) {
+        int[] materials = bom.materials(product);
+        if (materials.length == 0) {
+            return 0;
+        }
+        long[] quantities = bom.quantities(product);
+        long capacity = Long.MAX_VALUE;
+        for (int i = 0; i < materials.length; i++) {
+            capacity = Math.min(capacity, stock[materials[i]] / quantities[i]);
+        }
+        return capacity;
+    }
+
+    static long[] capacities(BomMatrix bom, long[] stock) {
+        long[] capacities = new long[bom.productCount()];
+        for (int p = 0; p < capacities.length; p++) {
+            capacities[p] = capacity(bom, p, stock);
+        }
+        return capacities;
+    }
+
+    static int compare(BomMatrix bom, long[] capacities, int a, int b) {
+        int byTotal = FixedPoint.compareProducts(
+                bom.productValue(b), capacities[b], bom.productValue(a), capacities[a]);
+        return byTotal != 0 ? byTotal : compareTies(bom, a, b);
+    }
+
+    private static int compareTies(BomMatrix bom, int a, int b) {
+        int byValue = Long.compare(bom.productValue(b), bom.productValue(a));
+        if (byValue != 0) {
+            return byValue;
+        }
+        return Long.compare(bom.productId(a), bom.productId(b));
+    }
+
+    /**
+     * Indexes of the products with a positive capacity, in priority order.
+     */
+    static int[] rank(BomMatrix bom, long[] capacities) {
+        int count = 0;
+        for (long capacity : capacities) {
+            if (capacity > 0) {
+                count++;
+            }
+        }
+        int[] ranked = new int[count];
+        int next = 0;
+        for (int p = 0; p < capacities.length; p++) {
+            if (capacities[p] > 0) {
+                ranked[next++] = p;
+            }
+        }
+        long[] totalHigh = new long[capacities.length];
+        long[] totalLow = new long[capacities.length];
+        for (int p : ranked) {
+            totalHigh[p] = Math.multiplyHigh(bom.productValue(p), capacities[p]);
+            totalLow[p] = bom.productValue(p) * capacities[p];
+        }
+        sort(ranked, (a, b) -> {
+            int byTotal = Long.compare(totalHigh[b], totalHigh[a]);
+            if (byTotal == 0) {
+                byTotal = Long.compareUnsigned(totalLow[b], totalLow[a]);
+            }
+            return byTotal != 0 ? byTotal : compareTies(bom, a, b);
+        });
+        return ranked;
+    }
+
+    interface IndexComparator {
+        int compare(int a, int b);
+    }
+
+    /**
+     * Stable merge sort over primitive indexes, avoiding boxing on large catalogs.
+     */
+    static void sort(int[] indexes, IndexComparator comparator) {
+        if (indexes.length < 2) {
+            return;
+        }
+        int[] buffer = new int[indexes.length];
+        for (int width = 1; width < indexes.length; width *= 2) {
+            for (int low = 0; low < indexes.length - width; low += 2 * width) {
+                int mid = low + width;
+                int high = Math.min(low + 2 * width, indexes.length);
+                merge(indexes, buffer, low, mid, high, comparator);
+            }
+        }
+    }
+
+    private static void merge(int[] indexes, int[] buffer, int low, int mid, int high, IndexComparator comparator) {
+        if (comparator.compare(indexes[mid - 1], indexes[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(indexes, low, buffer, low, high - low);
+        int left = low;
+        int right = mid;
+        for (int i = low; i < high; i++) {
+            if (left < mid && (right >= high || comparator.compare(buffer[left], buffer[right]) <= 0)) {
+                indexes[i] = buffer[left++];
+            } else {
+                indexes[i] = buffer[right++];
+            }
+        }
+    }
+}
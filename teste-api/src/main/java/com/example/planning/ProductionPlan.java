@@ -0,0 +1,87 @@
+package com.example.planning;
+
+import java.math.BigDecimal;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable result of a planning run: the products to produce, in priority order, with the
+ * quantity allocated to each of them and the stock left once the plan is executed.
+ */
+public final class ProductionPlan {
+
+    private final BomMatrix bom;
+    private final int[] products;
+    private final long[] quantities;
+    private final long[] remainingStock;
+    private final boolean optimal;
+
+    ProductionPlan(BomMatrix bom, int[] products, long[] quantities, long[] remainingStock, boolean optimal) {
+        this.bom = bom;
+        this.products = products;
+        this.quantities = quantities;
+        this.remainingStock = remainingStock;
+        this.optimal = optimal;
+    }
+
+    /**
+     * Builds a plan from per-product quantities, ranking the produced products by total value.
+     */
+    static ProductionPlan ofQuantities(BomMatrix bom, long[] quantitiesByProduct, long[] remainingStock, boolean optimal) {
+        int[] products = IntStream.range(0, bom.productCount())
+                .filter(p -> quantitiesByProduct[p] > 0)
+                .toArray();
+        ProductRanking.sort(products, (a, b) -> ProductRanking.compare(bom, quantitiesByProduct, a, b));
+
+        long[] quantities = new long[products.length];
+        for (int i = 0; i < products.length; i++) {
+            quantities[i] = quantitiesByProduct[products[i]];
+        }
+        return new ProductionPlan(bom, products, quantities, remainingStock, optimal);
+    }
+
+    public BomMatrix bom() {
+        return bom;
+    }
+
+    public int size() {
+        return products.length;
+    }
+
+    /**
+     * Product index (in {@link #bom()}) planned at the given position.
+     */
+    public int product(int position) {
+        return products[position];
+    }
+
+    public long quantity(int position) {
+        return quantities[position];
+    }
+
+    public long priorityRank(int position) {
+        return position + 1L;
+    }
+
+    public BigDecimal totalValue(int position) {
+        return FixedPoint.multiply(bom.productValue(products[position]), quantities[position]);
+    }
+
+    public BigDecimal totalProductionValue() {
+        BigDecimal total = BigDecimal.ZERO.setScale(FixedPoint.SCALE);
+        for (int i = 0; i < products.length; i++) {
+            total = total.add(totalValue(i));
+        }
+        return total;
+    }
+
+    public long remainingStock(int material) {
+        return remainingStock[material];
+    }
+
+    /**
+     * Whether the plan is proven to maximize the total production value.
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+}
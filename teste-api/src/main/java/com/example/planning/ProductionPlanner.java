@@ -0,0 +1,130 @@
+package com.example.planning;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Greedy planner over shared stock: products are visited in priority order and each one
+ * gets as many units as the stock left by the products ranked before it allows.
+ *
+ * <p>A product's allocation only depends on the products ranked before it that share its raw
+ * materials, directly or through other products. On large catalogs every connected component
+ * of the bill of materials is therefore allocated on its own worker, each in the global
+ * priority order, and the result is the same as a single sequential pass.
+ */
+@ApplicationScoped
+public class ProductionPlanner {
+
+    private static final Logger LOG = Logger.getLogger(ProductionPlanner.class);
+
+    @ConfigProperty(name = "production-suggestions.planning.parallelism", defaultValue = "0")
+    int parallelism;
+
+    @ConfigProperty(name = "production-suggestions.planning.parallel-threshold", defaultValue = "5000")
+    int parallelThreshold;
+
+    private volatile ForkJoinPool pool;
+
+    public ProductionPlan plan(BomMatrix bom) {
+        long[] stock = bom.stockCopy();
+        int[] ranked = ProductRanking.rank(bom, ProductRanking.capacities(bom, stock));
+        long[] quantitiesByProduct = allocate(bom, ranked, stock);
+
+        int[] products = new int[ranked.length];
+        long[] quantities = new long[ranked.length];
+        int planned = 0;
+        for (int product : ranked) {
+            if (quantitiesByProduct[product] > 0) {
+                products[planned] = product;
+                quantities[planned] = quantitiesByProduct[product];
+                planned++;
+            }
+        }
+
+        return new ProductionPlan(bom,
+                Arrays.copyOf(products, planned),
+                Arrays.copyOf(quantities, planned),
+                stock,
+                false);
+    }
+
+    /**
+     * Allocates the ranked products, returning the quantity of every product by index and
+     * leaving the remaining stock in {@code stock}.
+     */
+    long[] allocate(BomMatrix bom, int[] ranked, long[] stock) {
+        long[] quantities = new long[bom.productCount()];
+        if (ranked.length < parallelThreshold) {
+            allocate(bom, ranked, stock, quantities);
+            return quantities;
+        }
+
+        int[][] components = BomComponents.partition(bom, ranked);
+        LOG.debugf("Planning %d products in %d independent groups", ranked.length, components.length);
+        if (components.length < 2) {
+            allocate(bom, ranked, stock, quantities);
+            return quantities;
+        }
+        // Components touch disjoint stock and products, so the workers never write the same slot
+        run(() -> Arrays.stream(components)
+                .parallel()
+                .forEach(component -> allocate(bom, component, stock, quantities)));
+        return quantities;
+    }
+
+    private static void allocate(BomMatrix bom, int[] ranked, long[] stock, long[] quantities) {
+        for (int product : ranked) {
+            long quantity = ProductRanking.capacity(bom, product, stock);
+            if (quantity <= 0) {
+                continue;
+            }
+            int[] materials = bom.materials(product);
+            long[] needed = bom.quantities(product);
+            for (int i = 0; i < materials.length; i++) {
+                stock[materials[i]] -= quantity * needed[i];
+            }
+            quantities[product] = quantity;
+        }
+    }
+
+    /**
+     * Runs on the calling pool when already inside one, such as a batch of simulated scenarios,
+     * so nested planning shares its workers instead of blocking them.
+     */
+    private void run(Runnable task) {
+        if (ForkJoinTask.inForkJoinPool()) {
+            task.run();
+        } else {
+            pool().submit(task).join();
+        }
+    }
+
+    private ForkJoinPool pool() {
+        ForkJoinPool current = pool;
+        if (current == null) {
+            synchronized (this) {
+                current = pool;
+                if (current == null) {
+                    int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+                    current = new ForkJoinPool(threads);
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ForkJoinPool current = pool;
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+}
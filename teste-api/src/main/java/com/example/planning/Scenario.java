@@ -0,0 +1,107 @@
+package com.example.planning;
+
+import com.example.exception.InvalidRequestException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hypothetical change to the catalog, planned without touching the database: stock deltas,
+ * bill of materials overrides and product value changes applied on top of a shared
+ * {@link BomMatrix}. Stock that a delta would take below zero is clamped to zero.
+ */
+public final class Scenario {
+
+    private record StockDelta(long materialId, long units) {
+    }
+
+    private record Requirement(long productId, long materialId, long units) {
+    }
+
+    private record Value(long productId, long units) {
+    }
+
+    private final String name;
+    private final List<StockDelta> stockDeltas = new ArrayList<>();
+    private final List<Requirement> requirements = new ArrayList<>();
+    private final List<Value> values = new ArrayList<>();
+
+    public Scenario(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Scenario adjustStock(long materialId, BigDecimal delta) {
+        stockDeltas.add(new StockDelta(materialId, toUnits(delta)));
+        return this;
+    }
+
+    /**
+     * Overrides the quantity of a raw material needed per unit of a product; zero removes it.
+     */
+    public Scenario setRequirement(long productId, long materialId, BigDecimal quantityNeeded) {
+        requirements.add(new Requirement(productId, materialId, toUnits(quantityNeeded)));
+        return this;
+    }
+
+    public Scenario setValue(long productId, BigDecimal value) {
+        values.add(new Value(productId, toUnits(value)));
+        return this;
+    }
+
+    /**
+     * Checks that every product and raw material the scenario references exists in the catalog.
+     */
+    void validate(BomMatrix bom) {
+        stockDeltas.forEach(delta -> requireMaterial(bom, delta.materialId()));
+        requirements.forEach(requirement -> {
+            requireProduct(bom, requirement.productId());
+            requireMaterial(bom, requirement.materialId());
+        });
+        values.forEach(value -> requireProduct(bom, value.productId()));
+    }
+
+    /**
+     * Returns the catalog with the scenario applied; only the arrays it changes are copied.
+     */
+    BomMatrix applyTo(BomMatrix bom) {
+        BomMatrix.Editor editor = bom.edit();
+        for (StockDelta delta : stockDeltas) {
+            int material = bom.materialIndexOf(delta.materialId());
+            editor.setStock(material, Math.max(0, editor.stock(material) + delta.units()));
+        }
+        for (Requirement requirement : requirements) {
+            editor.setRequirement(bom.productIndexOf(requirement.productId()),
+                    bom.materialIndexOf(requirement.materialId()), requirement.units());
+        }
+        for (Value value : values) {
+            editor.setValue(bom.productIndexOf(value.productId()), value.units());
+        }
+        return editor.build();
+    }
+
+    private static void requireProduct(BomMatrix bom, long productId) {
+        if (bom.productIndexOf(productId) < 0) {
+            throw new InvalidRequestException(String.format("Scenario references unknown product %d", productId));
+        }
+    }
+
+    private static void requireMaterial(BomMatrix bom, long materialId) {
+        if (bom.materialIndexOf(materialId) < 0) {
+            throw new InvalidRequestException(String.format("Scenario references unknown raw material %d", materialId));
+        }
+    }
+
+    private static long toUnits(BigDecimal value) {
+        try {
+            return FixedPoint.toUnits(value);
+        } catch (ArithmeticException e) {
+            throw new InvalidRequestException(String.format("Quantity %s has more than %d decimal places",
+                    value.toPlainString(), FixedPoint.SCALE));
+        }
+    }
+}
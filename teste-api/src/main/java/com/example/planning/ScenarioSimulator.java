@@ -0,0 +1,70 @@
+package com.example.planning;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Plans batches of what-if {@link Scenario}s in parallel. Every scenario is a copy-on-write
+ * edit of the same read-only {@link BomMatrix}, so the batch shares the catalog and only
+ * copies the arrays each scenario changes.
+ */
+@ApplicationScoped
+public class ScenarioSimulator {
+
+    @Inject
+    ProductionPlanner productionPlanner;
+
+    @Inject
+    OptimalProductionPlanner optimalProductionPlanner;
+
+    @ConfigProperty(name = "production-suggestions.simulation.parallelism", defaultValue = "0")
+    int parallelism;
+
+    private volatile ForkJoinPool pool;
+
+    /**
+     * Plans every scenario against the catalog, returning the plans in the order of the scenarios.
+     */
+    public List<ProductionPlan> simulate(BomMatrix bom, List<Scenario> scenarios, PlanningStrategy strategy) {
+        scenarios.forEach(scenario -> scenario.validate(bom));
+        return pool().submit(() -> scenarios.parallelStream()
+                        .map(scenario -> plan(scenario.applyTo(bom), strategy))
+                        .toList())
+                .join();
+    }
+
+    private ProductionPlan plan(BomMatrix bom, PlanningStrategy strategy) {
+        return switch (strategy) {
+            case GREEDY -> productionPlanner.plan(bom);
+            case OPTIMAL -> optimalProductionPlanner.plan(bom);
+        };
+    }
+
+    private ForkJoinPool pool() {
+        ForkJoinPool current = pool;
+        if (current == null) {
+            synchronized (this) {
+                current = pool;
+                if (current == null) {
+                    int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+                    current = new ForkJoinPool(threads);
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ForkJoinPool current = pool;
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+}
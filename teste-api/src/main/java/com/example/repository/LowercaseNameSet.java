@@ -0,0 +1,35 @@
+package com.example.repository;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Lowercase names known to be taken, so a name missing from the set can be reported as
+ * free without a query. Names are added before the write that takes them commits and never
+ * removed, so the set can only err on the side of "maybe taken", which the caller confirms
+ * against the database. Until it is warmed every name counts as maybe taken.
+ */
+final class LowercaseNameSet {
+
+    private final Set<String> names = ConcurrentHashMap.newKeySet();
+    private volatile boolean warmed;
+
+    static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    void warm(Stream<String> lowercaseNames) {
+        lowercaseNames.forEach(names::add);
+        warmed = true;
+    }
+
+    void add(String name) {
+        names.add(key(name));
+    }
+
+    boolean mayContain(String lowercaseName) {
+        return !warmed || names.contains(lowercaseName);
+    }
+}
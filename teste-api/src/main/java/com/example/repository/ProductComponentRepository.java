@@ -0,0 +1,54 @@
+package com.example.repository;
+
+import com.example.dto.productcomponent.ProductComponentResponseDTO;
+import com.example.entity.ProductComponent;
+import com.example.filter.OffsetFilter;
+import com.example.filter.PagedResult;
+import com.example.planning.ComponentLine;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@ApplicationScoped
+public class ProductComponentRepository implements PanacheRepository<ProductComponent> {
+
+    public PagedResult<ProductComponentResponseDTO> findPageByProductId(Long productId, int pageNumber,
+                                                                        int pageSize, boolean withTotal) {
+        return OffsetFilter.of(this, ProductComponent.class)
+                .where("e.product.id = :productId", "productId", productId)
+                .project(ProductComponentResponseDTO.class, pageNumber, pageSize, withTotal);
+    }
+
+    public Optional<ProductComponent> findByProductIdAndComponentId(Long productId, Long componentProductId) {
+        return find("from ProductComponent e join fetch e.product join fetch e.component "
+                + "where e.product.id = ?1 and e.component.id = ?2", productId, componentProductId).firstResultOptional();
+    }
+
+    public boolean existsByProductIdAndComponentId(Long productId, Long componentProductId) {
+        return count("product.id = ?1 and component.id = ?2", productId, componentProductId) > 0;
+    }
+
+    public void deleteByProductIdAndComponentId(Long productId, Long componentProductId) {
+        delete("product.id = ?1 and component.id = ?2", productId, componentProductId);
+    }
+
+    public boolean hasComponents(Long productId) {
+        return count("product.id", productId) > 0;
+    }
+
+    public boolean isUsedAsComponent(Long productId) {
+        return count("component.id", productId) > 0;
+    }
+
+    public List<ComponentLine> findAllComponentLines() {
+        return findAll(Sort.by("id")).project(ComponentLine.class).list();
+    }
+
+    public List<ComponentLine> findComponentLinesByProductIds(Collection<Long> productIds) {
+        return find("product.id in ?1", Sort.by("id"), productIds).project(ComponentLine.class).list();
+    }
+}
@@ -1,25 +1,36 @@
 package com.example.repository;
 
+import com.example.dto.productrawmaterial.ProductRawMaterialResponseDTO;
+import com.example.entity.Product;
 import com.example.entity.ProductRawMaterial;
+import com.example.entity.RawMaterial;
+import com.example.filter.OffsetFilter;
+import com.example.filter.PagedResult;
+import com.example.planning.BomLine;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @ApplicationScoped
 public class ProductRawMaterialRepository implements PanacheRepository<ProductRawMaterial> {
 
-    public io.quarkus.hibernate.orm.panache.PanacheQuery<ProductRawMaterial> findByProductId(Long productId) {
-        return find("product.id", productId);
-    }
+    private static final int UPSERT_CHUNK_SIZE = 500;
 
-    public long countByProductId(Long productId) {
-        return count("product.id", productId);
+    public PagedResult<ProductRawMaterialResponseDTO> findPageByProductId(Long productId, int pageNumber,
+                                                                          int pageSize, boolean withTotal) {
+        return OffsetFilter.of(this, ProductRawMaterial.class)
+                .where("e.product.id = :productId", "productId", productId)
+                .project(ProductRawMaterialResponseDTO.class, pageNumber, pageSize, withTotal);
     }
 
     public Optional<ProductRawMaterial> findByProductIdAndRawMaterialId(Long productId, Long rawMaterialId) {
-        return find("product.id = ?1 and rawMaterial.id = ?2", productId, rawMaterialId).firstResultOptional();
+        return find("from ProductRawMaterial e join fetch e.product join fetch e.rawMaterial "
+                + "where e.product.id = ?1 and e.rawMaterial.id = ?2", productId, rawMaterialId).firstResultOptional();
     }
 
     public boolean existsByProductIdAndRawMaterialId(Long productId, Long rawMaterialId) {
@@ -30,6 +41,41 @@ public class ProductRawMaterialRepository implements PanacheRepository<ProductRa
         delete("product.id = ?1 and rawMaterial.id = ?2", productId, rawMaterialId);
     }
 
+    /**
+     * Inserts the lines, or updates the quantity where the product already uses the raw
+     * material, with one statement per {@value #UPSERT_CHUNK_SIZE} lines. A raw material must
+     * appear at most once per product.
+     */
+    public void upsert(List<BomLine> lines) {
+        for (int from = 0; from < lines.size(); from += UPSERT_CHUNK_SIZE) {
+            List<BomLine> chunk = lines.subList(from, Math.min(lines.size(), from + UPSERT_CHUNK_SIZE));
+            StringBuilder hql = new StringBuilder("insert into ProductRawMaterial (product, rawMaterial, quantityNeeded) values ");
+            for (int i = 0; i < chunk.size(); i++) {
+                hql.append(i == 0 ? "" : ", ").append(String.format("(?%d, ?%d, ?%d)", 3 * i + 1, 3 * i + 2, 3 * i + 3));
+            }
+            hql.append(" on conflict (product, rawMaterial) do update set quantityNeeded = excluded.quantityNeeded");
+
+            Query query = getEntityManager().createQuery(hql.toString());
+            for (int i = 0; i < chunk.size(); i++) {
+                BomLine line = chunk.get(i);
+                query.setParameter(3 * i + 1, getEntityManager().getReference(Product.class, line.productId()));
+                query.setParameter(3 * i + 2, getEntityManager().getReference(RawMaterial.class, line.rawMaterialId()));
+                query.setParameter(3 * i + 3, line.quantityNeeded());
+            }
+            query.executeUpdate();
+        }
+    }
+
+    /**
+     * Removes the raw materials of the product other than the given ones, returning how many.
+     */
+    public long deleteByProductIdExcept(Long productId, Collection<Long> rawMaterialIds) {
+        if (rawMaterialIds.isEmpty()) {
+            return delete("product.id", productId);
+        }
+        return delete("product.id = ?1 and rawMaterial.id not in ?2", productId, rawMaterialIds);
+    }
+
     public boolean hasProductLinks(Long productId) {
         return count("product.id", productId) > 0;
     }
@@ -37,4 +83,12 @@ public class ProductRawMaterialRepository implements PanacheRepository<ProductRa
     public boolean hasRawMaterialLinks(Long rawMaterialId) {
         return count("rawMaterial.id", rawMaterialId) > 0;
     }
+
+    public List<BomLine> findAllBomLines() {
+        return findAll(Sort.by("id")).project(BomLine.class).list();
+    }
+
+    public List<BomLine> findBomLinesByProductIds(Collection<Long> productIds) {
+        return find("product.id in ?1", Sort.by("id"), productIds).project(BomLine.class).list();
+    }
 }
@@ -1,16 +1,77 @@
 package com.example.repository;
 
+import com.example.dto.product.ProductResponseDTO;
 import com.example.entity.Product;
+import com.example.event.CatalogChangedEvent;
+import com.example.filter.NgramIndex;
+import com.example.filter.OffsetFilter;
+import com.example.filter.PagedResult;
+import com.example.filter.SortSpec;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.panache.common.Sort;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @ApplicationScoped
 public class ProductRepository implements PanacheRepository<Product> {
 
+    @ConfigProperty(name = "quarkus.datasource.db-kind")
+    String dbKind;
+
+    private final LowercaseNameSet names = new LowercaseNameSet();
+
+    /**
+     * Name search index, only kept when the database has no {@code pg_trgm}.
+     */
+    private volatile NgramIndex nameIndex;
+
+    void onStart(@Observes StartupEvent event) {
+        QuarkusTransaction.requiringNew().run(() -> names.warm(getEntityManager()
+                .createQuery("select lower(p.name) from Product p", String.class)
+                .getResultStream()));
+        if (!"postgresql".equals(dbKind)) {
+            NgramIndex index = new NgramIndex();
+            QuarkusTransaction.requiringNew().run(() -> getEntityManager()
+                    .createQuery("select p.id, p.name from Product p", Object[].class)
+                    .getResultStream()
+                    .forEach(row -> index.put((Long) row[0], (String) row[1])));
+            nameIndex = index;
+        }
+    }
+
+    void onCatalogChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CatalogChangedEvent event) {
+        NgramIndex index = nameIndex;
+        if (index == null || event.type() != CatalogChangedEvent.Type.PRODUCT) {
+            return;
+        }
+        Set<Long> missing = new HashSet<>(event.ids());
+        QuarkusTransaction.requiringNew().run(() -> getEntityManager()
+                .createQuery("select p.id, p.name from Product p where p.id in :ids", Object[].class)
+                .setParameter("ids", event.ids())
+                .getResultList()
+                .forEach(row -> {
+                    index.put((Long) row[0], (String) row[1]);
+                    missing.remove((Long) row[0]);
+                }));
+        missing.forEach(index::remove);
+    }
+
+    /**
+     * Looks the entity up by id rather than by query, so it is served from the second-level
+     * cache when present.
+     */
     public Optional<Product> findByIdOptional(Long id) {
-        return find("id", id).firstResultOptional();
+        return Optional.ofNullable(findById(id));
     }
 
     public boolean existsById(Long id) {
@@ -18,10 +79,66 @@ public class ProductRepository implements PanacheRepository<Product> {
     }
 
     public boolean existsByName(String name) {
-        return count("LOWER(name)", name.toLowerCase()) > 0;
+        String key = LowercaseNameSet.key(name);
+        return names.mayContain(key) && count("LOWER(name)", key) > 0;
     }
 
     public boolean existsByNameAndIdNot(String name, Long id) {
-        return count("LOWER(name) = ?1 AND id != ?2", name.toLowerCase(), id) > 0;
+        String key = LowercaseNameSet.key(name);
+        return names.mayContain(key) && count("LOWER(name) = ?1 AND id != ?2", key, id) > 0;
+    }
+
+    /**
+     * Records a name about to be written, so later checks no longer report it as free.
+     */
+    public void registerName(String name) {
+        names.add(name);
+    }
+
+    /**
+     * Which of the given ids exist, checked in one query.
+     */
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        return new HashSet<>(getEntityManager()
+                .createQuery("select p.id from Product p where p.id in :ids", Long.class)
+                .setParameter("ids", ids)
+                .getResultList());
+    }
+
+    /**
+     * Which of the given lowercase names are already taken, checked in one query.
+     */
+    public Set<String> findExistingNames(Collection<String> lowercaseNames) {
+        List<String> candidates = lowercaseNames.stream().filter(names::mayContain).toList();
+        if (candidates.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(getEntityManager()
+                .createQuery("select lower(p.name) from Product p where lower(p.name) in :names", String.class)
+                .setParameter("names", candidates)
+                .getResultList());
+    }
+
+    /**
+     * A page of the rows matching {@code search}: in the given order, or best matches first
+     * when no sort is given.
+     */
+    public PagedResult<ProductResponseDTO> findPage(String search, SortSpec sort, int pageNumber, int pageSize,
+                                                    boolean withTotal) {
+        OffsetFilter<Product> filter = OffsetFilter.of(this, Product.class);
+        if (sort.isEmpty()) {
+            filter.rankedSearch("name", search, nameIndex);
+        } else {
+            filter.search("name", search).orderBy(sort);
+        }
+        return filter.project(ProductResponseDTO.class, pageNumber, pageSize, withTotal);
+    }
+
+    public List<ProductResponseDTO> findAllForPlanning() {
+        return findAll(Sort.by("id")).project(ProductResponseDTO.class).list();
+    }
+
+    public List<ProductResponseDTO> findForPlanning(Collection<Long> ids) {
+        return find("id in ?1", ids).project(ProductResponseDTO.class).list();
     }
 }
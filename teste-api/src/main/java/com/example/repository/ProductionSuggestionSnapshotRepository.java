@@ -0,0 +1,21 @@
+package com.example.repository;
+
+import com.example.entity.ProductionSuggestionSnapshotEntry;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Optional;
+
+@ApplicationScoped
+public class ProductionSuggestionSnapshotRepository implements PanacheRepository<ProductionSuggestionSnapshotEntry> {
+
+    public Optional<Long> findLatestVersion() {
+        return findAll(Sort.descending("snapshotVersion")).firstResultOptional()
+                .map(ProductionSuggestionSnapshotEntry::getSnapshotVersion);
+    }
+
+    public long deleteOlderThan(long snapshotVersion) {
+        return delete("snapshotVersion < ?1", snapshotVersion);
+    }
+}
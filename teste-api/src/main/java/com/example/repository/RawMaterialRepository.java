@@ -1,16 +1,79 @@
 package com.example.repository;
 
+import com.example.dto.rawmaterial.RawMaterialResponseDTO;
 import com.example.entity.RawMaterial;
+import com.example.event.CatalogChangedEvent;
+import com.example.filter.NgramIndex;
+import com.example.filter.OffsetFilter;
+import com.example.filter.PagedResult;
+import com.example.filter.SortSpec;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.panache.common.Sort;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.persistence.LockModeType;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @ApplicationScoped
 public class RawMaterialRepository implements PanacheRepository<RawMaterial> {
 
+    @ConfigProperty(name = "quarkus.datasource.db-kind")
+    String dbKind;
+
+    private final LowercaseNameSet names = new LowercaseNameSet();
+
+    /**
+     * Name search index, only kept when the database has no {@code pg_trgm}.
+     */
+    private volatile NgramIndex nameIndex;
+
+    void onStart(@Observes StartupEvent event) {
+        QuarkusTransaction.requiringNew().run(() -> names.warm(getEntityManager()
+                .createQuery("select lower(r.name) from RawMaterial r", String.class)
+                .getResultStream()));
+        if (!"postgresql".equals(dbKind)) {
+            NgramIndex index = new NgramIndex();
+            QuarkusTransaction.requiringNew().run(() -> getEntityManager()
+                    .createQuery("select r.id, r.name from RawMaterial r", Object[].class)
+                    .getResultStream()
+                    .forEach(row -> index.put((Long) row[0], (String) row[1])));
+            nameIndex = index;
+        }
+    }
+
+    void onCatalogChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CatalogChangedEvent event) {
+        NgramIndex index = nameIndex;
+        if (index == null || event.type() != CatalogChangedEvent.Type.RAW_MATERIAL) {
+            return;
+        }
+        Set<Long> missing = new HashSet<>(event.ids());
+        QuarkusTransaction.requiringNew().run(() -> getEntityManager()
+                .createQuery("select r.id, r.name from RawMaterial r where r.id in :ids", Object[].class)
+                .setParameter("ids", event.ids())
+                .getResultList()
+                .forEach(row -> {
+                    index.put((Long) row[0], (String) row[1]);
+                    missing.remove((Long) row[0]);
+                }));
+        missing.forEach(index::remove);
+    }
+
+    /**
+     * Looks the entity up by id rather than by query, so it is served from the second-level
+     * cache when present.
+     */
     public Optional<RawMaterial> findByIdOptional(Long id) {
-        return find("id", id).firstResultOptional();
+        return Optional.ofNullable(findById(id));
     }
 
     public boolean existsById(Long id) {
@@ -22,10 +85,94 @@ public class RawMaterialRepository implements PanacheRepository<RawMaterial> {
     }
 
     public boolean existsByName(String name) {
-        return count("LOWER(name)", name.toLowerCase()) > 0;
+        String key = LowercaseNameSet.key(name);
+        return names.mayContain(key) && count("LOWER(name)", key) > 0;
     }
 
     public boolean existsByNameAndIdNot(String name, Long id) {
-        return count("LOWER(name) = ?1 AND id != ?2", name.toLowerCase(), id) > 0;
+        String key = LowercaseNameSet.key(name);
+        return names.mayContain(key) && count("LOWER(name) = ?1 AND id != ?2", key, id) > 0;
+    }
+
+    /**
+     * Records a name about to be written, so later checks no longer report it as free.
+     */
+    public void registerName(String name) {
+        names.add(name);
+    }
+
+    /**
+     * Which of the given ids exist, checked in one query.
+     */
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        return new HashSet<>(getEntityManager()
+                .createQuery("select r.id from RawMaterial r where r.id in :ids", Long.class)
+                .setParameter("ids", ids)
+                .getResultList());
+    }
+
+    /**
+     * Which of the given lowercase names are already taken, checked in one query.
+     */
+    public Set<String> findExistingNames(Collection<String> lowercaseNames) {
+        List<String> candidates = lowercaseNames.stream().filter(names::mayContain).toList();
+        if (candidates.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(getEntityManager()
+                .createQuery("select lower(r.name) from RawMaterial r where lower(r.name) in :names", String.class)
+                .setParameter("names", candidates)
+                .getResultList());
+    }
+
+    /**
+     * Takes the quantity out of the stock in a single conditional update, which only matches
+     * while enough stock is left. Returns whether it was taken.
+     */
+    public boolean consumeStock(Long id, BigDecimal quantity) {
+        return update("stockQuantity = stockQuantity - ?1 where id = ?2 and stockQuantity >= ?1", quantity, id) == 1;
+    }
+
+    /**
+     * Adds the delta to the stock in place, unless it would take the stock below zero. Returns
+     * whether it was added, which is also false when the raw material no longer exists.
+     */
+    public boolean addStock(Long id, BigDecimal delta) {
+        return update("stockQuantity = stockQuantity + ?1 where id = ?2 and stockQuantity + ?1 >= 0", delta, id) == 1;
+    }
+
+    public List<RawMaterial> findByIds(Collection<Long> ids) {
+        return list("id in ?1", ids);
+    }
+
+    /**
+     * Loads the raw materials locked for update, in id order so concurrent callers lock them
+     * in the same order.
+     */
+    public List<RawMaterial> findByIdsForUpdate(Collection<Long> ids) {
+        return find("id in ?1", Sort.by("id"), ids).withLock(LockModeType.PESSIMISTIC_WRITE).list();
+    }
+
+    /**
+     * A page of the rows matching {@code search}: in the given order, or best matches first
+     * when no sort is given.
+     */
+    public PagedResult<RawMaterialResponseDTO> findPage(String search, SortSpec sort, int pageNumber, int pageSize,
+                                                        boolean withTotal) {
+        OffsetFilter<RawMaterial> filter = OffsetFilter.of(this, RawMaterial.class);
+        if (sort.isEmpty()) {
+            filter.rankedSearch("name", search, nameIndex);
+        } else {
+            filter.search("name", search).orderBy(sort);
+        }
+        return filter.project(RawMaterialResponseDTO.class, pageNumber, pageSize, withTotal);
+    }
+
+    public List<RawMaterialResponseDTO> findAllForPlanning() {
+        return findAll(Sort.by("id")).project(RawMaterialResponseDTO.class).list();
+    }
+
+    public List<RawMaterialResponseDTO> findForPlanning(Collection<Long> ids) {
+        return find("id in ?1", ids).project(RawMaterialResponseDTO.class).list();
     }
 }
@@ -0,0 +1,78 @@
+package com.example.repository;
+
+import com.example.entity.StockMovement;
+import com.example.filter.OffsetFilter;
+import com.example.filter.PagedResult;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+@ApplicationScoped
+public class StockMovementRepository implements PanacheRepository<StockMovement> {
+
+    public PagedResult<StockMovement> findPageByRawMaterialId(Long rawMaterialId, int pageNumber, int pageSize,
+                                                              boolean withTotal) {
+        return OffsetFilter.of(this, StockMovement.class)
+                .where("e.rawMaterialId = :rawMaterialId", "rawMaterialId", rawMaterialId)
+                .list(pageNumber, pageSize, withTotal);
+    }
+
+    /**
+     * Sum of the deltas of the raw material created up to {@code to}, inclusive, that no
+     * snapshot up to {@code snapshotId} folded.
+     */
+    public BigDecimal sumDeltasAfterSnapshot(Long rawMaterialId, Long snapshotId, Instant to) {
+        BigDecimal sum = getEntityManager()
+                .createQuery("select sum(m.delta) from StockMovement m where m.rawMaterialId = :rawMaterialId"
+                        + " and (m.snapshotId is null or m.snapshotId > :snapshotId) and m.createdAt <= :to",
+                        BigDecimal.class)
+                .setParameter("rawMaterialId", rawMaterialId)
+                .setParameter("snapshotId", snapshotId)
+                .setParameter("to", to)
+                .getSingleResult();
+        return sum == null ? BigDecimal.ZERO : sum;
+    }
+
+    /**
+     * Raw materials with committed movements created before {@code before} that no snapshot
+     * folded yet, however late they committed.
+     */
+    public List<Long> findUnfoldedRawMaterialIds(Instant before) {
+        return getEntityManager()
+                .createQuery("select distinct m.rawMaterialId from StockMovement m"
+                        + " where m.snapshotId is null and m.createdAt < :before order by m.rawMaterialId", Long.class)
+                .setParameter("before", before)
+                .getResultList();
+    }
+
+    /**
+     * Assigns the unfolded movements of the raw material created before {@code before} to the
+     * snapshot and returns their net delta. The sum reads back the rows this update marked, so
+     * a movement committing in between is left for the next snapshot rather than lost.
+     */
+    public BigDecimal fold(Long rawMaterialId, Instant before, Long snapshotId) {
+        update("snapshotId = ?1 where rawMaterialId = ?2 and snapshotId is null and createdAt < ?3",
+                snapshotId, rawMaterialId, before);
+        BigDecimal sum = getEntityManager()
+                .createQuery("select sum(m.delta) from StockMovement m where m.snapshotId = :snapshotId",
+                        BigDecimal.class)
+                .setParameter("snapshotId", snapshotId)
+                .getSingleResult();
+        return sum == null ? BigDecimal.ZERO : sum;
+    }
+
+    /**
+     * Removes the movements folded into snapshots taken before the horizon: any instant after
+     * the horizon is rebuilt from one of those snapshots or a later one.
+     */
+    public long deleteCoveredBefore(Instant horizon) {
+        return getEntityManager()
+                .createQuery("delete from StockMovement m where m.snapshotId in"
+                        + " (select s.id from StockSnapshot s where s.coveredUntil <= :horizon)")
+                .setParameter("horizon", horizon)
+                .executeUpdate();
+    }
+}
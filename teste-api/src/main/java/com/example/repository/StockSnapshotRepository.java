@@ -0,0 +1,51 @@
+package com.example.repository;
+
+import com.example.entity.StockSnapshot;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@ApplicationScoped
+public class StockSnapshotRepository implements PanacheRepository<StockSnapshot> {
+
+    /**
+     * Latest snapshot of the raw material covering no movement after the given instant.
+     */
+    public Optional<StockSnapshot> findLatestCoveringUntil(Long rawMaterialId, Instant at) {
+        return find("rawMaterialId = ?1 and coveredUntil <= ?2", Sort.descending("coveredUntil"), rawMaterialId, at)
+                .firstResultOptional();
+    }
+
+    public Map<Long, BigDecimal> findLatestQuantities(Collection<Long> rawMaterialIds) {
+        Map<Long, BigDecimal> quantities = new HashMap<>();
+        getEntityManager()
+                .createQuery("select s.rawMaterialId, s.stockQuantity from StockSnapshot s"
+                        + " where s.rawMaterialId in :ids and s.coveredUntil ="
+                        + " (select max(l.coveredUntil) from StockSnapshot l where l.rawMaterialId = s.rawMaterialId)",
+                        Object[].class)
+                .setParameter("ids", rawMaterialIds)
+                .getResultList()
+                .forEach(row -> quantities.put((Long) row[0], (BigDecimal) row[1]));
+        return quantities;
+    }
+
+    /**
+     * Removes the snapshots older than the horizon that a later snapshot, still before the
+     * horizon, supersedes.
+     */
+    public long deleteSupersededBefore(Instant horizon) {
+        return getEntityManager()
+                .createQuery("delete from StockSnapshot s where s.coveredUntil < :horizon and exists"
+                        + " (select 1 from StockSnapshot l where l.rawMaterialId = s.rawMaterialId"
+                        + " and l.coveredUntil > s.coveredUntil and l.coveredUntil <= :horizon)")
+                .setParameter("horizon", horizon)
+                .executeUpdate();
+    }
+}
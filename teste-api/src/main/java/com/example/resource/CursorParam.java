@@ -0,0 +1,21 @@
+package com.example.resource;
+
+import jakarta.ws.rs.core.UriInfo;
+
+/**
+ * Reads the {@code cursor} query parameter of keyset listings. A bare {@code cursor=} asks for
+ * the first page in cursor mode, but {@code @QueryParam} binds an empty value to {@code null},
+ * the same as an absent parameter, so the raw query is read instead.
+ */
+final class CursorParam {
+
+    private CursorParam() {
+    }
+
+    /**
+     * Returns the cursor as sent, {@code ""} when it is empty, or {@code null} when it is absent.
+     */
+    static String of(UriInfo uriInfo) {
+        return uriInfo.getQueryParameters().getFirst("cursor");
+    }
+}
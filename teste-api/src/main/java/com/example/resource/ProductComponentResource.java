@@ -0,0 +1,66 @@
+package com.example.resource;
+
+import com.example.dto.PageResponse;
+import com.example.dto.productcomponent.ProductComponentRequestDTO;
+import com.example.dto.productcomponent.ProductComponentResponseDTO;
+import com.example.service.ProductComponentService;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+
+@Path("/products/{productId}/components")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class ProductComponentResource {
+
+    @Inject
+    ProductComponentService productComponentService;
+
+    @GET
+    public PageResponse<ProductComponentResponseDTO> listByProduct(
+            @PathParam("productId") Long productId,
+            @QueryParam("page") @DefaultValue("0") int page,
+            @QueryParam("size") @DefaultValue("10") int size,
+            @Context UriInfo uriInfo,
+            @QueryParam("withTotal") @DefaultValue("true") boolean withTotal) {
+        return productComponentService.findByProductId(productId, page, size, CursorParam.of(uriInfo), withTotal);
+    }
+
+    @GET
+    @Path("/{componentProductId}")
+    public ProductComponentResponseDTO getByProductAndComponent(
+            @PathParam("productId") Long productId,
+            @PathParam("componentProductId") Long componentProductId) {
+        return productComponentService.findByProductIdAndComponentId(productId, componentProductId);
+    }
+
+    @POST
+    public Response addComponent(
+            @PathParam("productId") Long productId,
+            @Valid ProductComponentRequestDTO dto) {
+        ProductComponentResponseDTO created = productComponentService.addComponentToProduct(productId, dto);
+        return Response.status(Response.Status.CREATED).entity(created).build();
+    }
+
+    @PUT
+    @Path("/{componentProductId}")
+    public ProductComponentResponseDTO updateQuantity(
+            @PathParam("productId") Long productId,
+            @PathParam("componentProductId") Long componentProductId,
+            @Valid ProductComponentRequestDTO dto) {
+        return productComponentService.updateQuantity(productId, componentProductId, dto);
+    }
+
+    @DELETE
+    @Path("/{componentProductId}")
+    public Response removeComponent(
+            @PathParam("productId") Long productId,
+            @PathParam("componentProductId") Long componentProductId) {
+        productComponentService.removeComponentFromProduct(productId, componentProductId);
+        return Response.noContent().build();
+    }
+}
@@ -7,8 +7,10 @@ import com.example.service.ProductRawMaterialService;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
 
 @Path("/products/{productId}/raw-materials")
 @Produces(MediaType.APPLICATION_JSON)
@@ -22,8 +24,10 @@ public class ProductRawMaterialResource {
     public PageResponse<ProductRawMaterialResponseDTO> listByProduct(
             @PathParam("productId") Long productId,
             @QueryParam("page") @DefaultValue("0") int page,
-            @QueryParam("size") @DefaultValue("10") int size) {
-        return productRawMaterialService.findByProductId(productId, page, size);
+            @QueryParam("size") @DefaultValue("10") int size,
+            @Context UriInfo uriInfo,
+            @QueryParam("withTotal") @DefaultValue("true") boolean withTotal) {
+        return productRawMaterialService.findByProductId(productId, page, size, CursorParam.of(uriInfo), withTotal);
     }
 
     @GET
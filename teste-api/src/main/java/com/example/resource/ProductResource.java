@@ -1,14 +1,26 @@
 package com.example.resource;
 
 import com.example.dto.PageResponse;
+import com.example.dto.catalogimport.ImportResultDTO;
 import com.example.dto.product.ProductRequestDTO;
 import com.example.dto.product.ProductResponseDTO;
+import com.example.dto.productrawmaterial.BillOfMaterialsRequestDTO;
+import com.example.dto.productrawmaterial.BillOfMaterialsResultDTO;
+import com.example.dto.productrawmaterial.CatalogBillOfMaterialsRequestDTO;
+import com.example.service.CatalogImportService;
+import com.example.service.ImportFormat;
+import com.example.service.ProductRawMaterialService;
 import com.example.service.ProductService;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+
+import java.io.InputStream;
 
 @Path("/products")
 @Produces(MediaType.APPLICATION_JSON)
@@ -18,14 +30,22 @@ public class ProductResource {
     @Inject
     ProductService productService;
 
+    @Inject
+    CatalogImportService catalogImportService;
+
+    @Inject
+    ProductRawMaterialService productRawMaterialService;
+
     @GET
     public PageResponse<ProductResponseDTO> listAll(
             @QueryParam("page") @DefaultValue("0") int page,
             @QueryParam("size") @DefaultValue("10") int size,
             @QueryParam("search") String search,
             @QueryParam("sortBy") String sortBy,
-            @QueryParam("sortDirection") String sortDirection) {
-        return productService.findAll(page, size, search, sortBy, sortDirection);
+            @QueryParam("sortDirection") String sortDirection,
+            @Context UriInfo uriInfo,
+            @QueryParam("withTotal") @DefaultValue("true") boolean withTotal) {
+        return productService.findAll(page, size, search, sortBy, sortDirection, CursorParam.of(uriInfo), withTotal);
     }
 
     @GET
@@ -40,6 +60,30 @@ public class ProductResource {
         return Response.status(Response.Status.CREATED).entity(created).build();
     }
 
+    @POST
+    @Path("/import")
+    @Consumes({ImportFormat.TEXT_CSV, ImportFormat.APPLICATION_NDJSON})
+    public ImportResultDTO importAll(InputStream body, @Context HttpHeaders headers) {
+        return catalogImportService.importProducts(body, ImportFormat.fromMediaType(headers.getMediaType()));
+    }
+
+    @PUT
+    @Path("/bill-of-materials")
+    public BillOfMaterialsResultDTO upsertBillsOfMaterials(
+            @QueryParam("replace") @DefaultValue("false") boolean replace,
+            @Valid CatalogBillOfMaterialsRequestDTO dto) {
+        return productRawMaterialService.upsertCatalogBillsOfMaterials(dto, replace);
+    }
+
+    @PUT
+    @Path("/{id}/bill-of-materials")
+    public BillOfMaterialsResultDTO upsertBillOfMaterials(
+            @PathParam("id") Long id,
+            @QueryParam("replace") @DefaultValue("false") boolean replace,
+            @Valid BillOfMaterialsRequestDTO dto) {
+        return productRawMaterialService.upsertBillOfMaterials(id, dto, replace);
+    }
+
     @PUT
     @Path("/{id}")
     public ProductResponseDTO update(@PathParam("id") Long id, @Valid ProductRequestDTO dto) {
@@ -0,0 +1,24 @@
+package com.example.resource;
+
+import com.example.dto.productionplan.RequirementsRequestDTO;
+import com.example.dto.productionplan.RequirementsResponseDTO;
+import com.example.service.ProductionPlanService;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+
+@Path("/production-plans")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class ProductionPlanResource {
+
+    @Inject
+    ProductionPlanService productionPlanService;
+
+    @POST
+    @Path("/requirements")
+    public RequirementsResponseDTO getRequirements(@Valid RequirementsRequestDTO request) {
+        return productionPlanService.getRequirements(request);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.resource;
+
+import com.example.dto.productionrun.ProductionRunRequestDTO;
+import com.example.dto.productionrun.ProductionRunResponseDTO;
+import com.example.service.ProductionRunService;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+@Path("/production-runs")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class ProductionRunResource {
+
+    @Inject
+    ProductionRunService productionRunService;
+
+    @POST
+    public Response create(@Valid ProductionRunRequestDTO dto) {
+        ProductionRunResponseDTO created = productionRunService.create(dto);
+        return Response.status(Response.Status.CREATED).entity(created).build();
+    }
+}
@@ -1,26 +1,109 @@
 package com.example.resource;
 
-import com.example.dto.PageResponse;
+import com.example.dto.productionsuggestion.ProductionAnalysisDTO;
+import com.example.dto.productionsuggestion.ProductionSuggestionChangesDTO;
 import com.example.dto.productionsuggestion.ProductionSuggestionResponseDTO;
+import com.example.dto.productionsuggestion.ProductionSuggestionPageResponse;
+import com.example.dto.productionsuggestion.SimulationRequestDTO;
+import com.example.dto.productionsuggestion.SimulationResponseDTO;
+import com.example.service.ProductionSuggestionChangeFeed;
+import com.example.service.ProductionSuggestionExport;
 import com.example.service.ProductionSuggestionService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Multi;
 import jakarta.inject.Inject;
+import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+import org.jboss.resteasy.reactive.RestStreamElementType;
 
 @Path("/production-suggestions")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class ProductionSuggestionResource {
 
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
+    static final String SNAPSHOT_VERSION_HEADER = "X-Snapshot-Version";
+
     @Inject
     ProductionSuggestionService productionSuggestionService;
 
+    @Inject
+    ProductionSuggestionChangeFeed changeFeed;
+
+    @Inject
+    ObjectMapper objectMapper;
+
     @GET
-    public PageResponse<ProductionSuggestionResponseDTO> getProductionSuggestions(
+    public ProductionSuggestionPageResponse getProductionSuggestions(
             @QueryParam("page") @DefaultValue("0") int page,
             @QueryParam("size") @DefaultValue("10") int size,
             @QueryParam("searchName") String searchName,
-            @QueryParam("sortDirection") String sortDirection) {
-        return productionSuggestionService.getProductionSuggestions(page, size, searchName, sortDirection);
+            @QueryParam("sortDirection") String sortDirection,
+            @QueryParam("strategy") String strategy,
+            @QueryParam("snapshotVersion") Long snapshotVersion,
+            @Context UriInfo uriInfo) {
+        return productionSuggestionService.getProductionSuggestions(
+                page, size, searchName, sortDirection, strategy, snapshotVersion, CursorParam.of(uriInfo));
+    }
+
+    /**
+     * Streams the whole plan as newline-delimited JSON, one suggestion per line, so the
+     * response size does not depend on how many rows are buffered on the server. Errors
+     * raised before the first row are still answered as JSON.
+     */
+    @GET
+    @Path("/export")
+    @Produces({APPLICATION_NDJSON, MediaType.APPLICATION_JSON})
+    public Response export(
+            @QueryParam("strategy") String strategy,
+            @QueryParam("snapshotVersion") Long snapshotVersion) {
+        ProductionSuggestionExport export = productionSuggestionService.exportProductionSuggestions(strategy, snapshotVersion);
+        StreamingOutput body = output -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                generator.setRootValueSeparator(null);
+                for (ProductionSuggestionResponseDTO suggestion : export) {
+                    generator.writeObject(suggestion);
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return Response.ok(body, APPLICATION_NDJSON)
+                .header(SNAPSHOT_VERSION_HEADER, export.snapshotVersion())
+                .build();
+    }
+
+    /**
+     * Server-sent events with the rank, quantity and total value changes of the greedy plan.
+     * Each event names the snapshot versions it goes from and to, so a client that missed
+     * one can reload the page instead.
+     */
+    @GET
+    @Path("/changes")
+    @Blocking
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<ProductionSuggestionChangesDTO> changes() {
+        return changeFeed.changes();
+    }
+
+    @GET
+    @Path("/bottlenecks")
+    public ProductionAnalysisDTO getBottlenecks(
+            @QueryParam("strategy") String strategy,
+            @QueryParam("snapshotVersion") Long snapshotVersion) {
+        return productionSuggestionService.getProductionAnalysis(strategy, snapshotVersion);
+    }
+
+    @POST
+    @Path("/simulate")
+    public SimulationResponseDTO simulate(@Valid SimulationRequestDTO request) {
+        return productionSuggestionService.simulate(request);
     }
 }
@@ -1,14 +1,29 @@
 package com.example.resource;
 
 import com.example.dto.PageResponse;
+import com.example.dto.catalogimport.ImportResultDTO;
 import com.example.dto.rawmaterial.RawMaterialRequestDTO;
 import com.example.dto.rawmaterial.RawMaterialResponseDTO;
+import com.example.dto.stockledger.StockLedgerEntryDTO;
+import com.example.dto.stockledger.StockLevelDTO;
+import com.example.dto.stockmovement.StockMovementsRequestDTO;
+import com.example.dto.stockmovement.StockMovementsResponseDTO;
+import com.example.service.CatalogImportService;
+import com.example.service.ImportFormat;
 import com.example.service.RawMaterialService;
+import com.example.service.StockLedger;
+import com.example.service.StockMovementService;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+
+import java.io.InputStream;
+import java.time.Instant;
 
 @Path("/raw-materials")
 @Produces(MediaType.APPLICATION_JSON)
@@ -18,14 +33,25 @@ public class RawMaterialResource {
     @Inject
     RawMaterialService rawMaterialService;
 
+    @Inject
+    CatalogImportService catalogImportService;
+
+    @Inject
+    StockMovementService stockMovementService;
+
+    @Inject
+    StockLedger stockLedger;
+
     @GET
     public PageResponse<RawMaterialResponseDTO> listAll(
             @QueryParam("page") @DefaultValue("0") int page,
             @QueryParam("size") @DefaultValue("10") int size,
             @QueryParam("search") String search,
             @QueryParam("sortBy") String sortBy,
-            @QueryParam("sortDirection") String sortDirection) {
-        return rawMaterialService.findAll(page, size, search, sortBy, sortDirection);
+            @QueryParam("sortDirection") String sortDirection,
+            @Context UriInfo uriInfo,
+            @QueryParam("withTotal") @DefaultValue("true") boolean withTotal) {
+        return rawMaterialService.findAll(page, size, search, sortBy, sortDirection, CursorParam.of(uriInfo), withTotal);
     }
 
     @GET
@@ -40,6 +66,35 @@ public class RawMaterialResource {
         return Response.status(Response.Status.CREATED).entity(created).build();
     }
 
+    @POST
+    @Path("/import")
+    @Consumes({ImportFormat.TEXT_CSV, ImportFormat.APPLICATION_NDJSON})
+    public ImportResultDTO importAll(InputStream body, @Context HttpHeaders headers) {
+        return catalogImportService.importRawMaterials(body, ImportFormat.fromMediaType(headers.getMediaType()));
+    }
+
+    @POST
+    @Path("/stock-movements")
+    public StockMovementsResponseDTO applyStockMovements(@Valid StockMovementsRequestDTO dto) {
+        return stockMovementService.apply(dto);
+    }
+
+    @GET
+    @Path("/{id}/stock-movements")
+    public PageResponse<StockLedgerEntryDTO> listStockMovements(
+            @PathParam("id") Long id,
+            @QueryParam("page") @DefaultValue("0") int page,
+            @QueryParam("size") @DefaultValue("10") int size,
+            @QueryParam("withTotal") @DefaultValue("true") boolean withTotal) {
+        return stockLedger.findByRawMaterialId(id, page, size, withTotal);
+    }
+
+    @GET
+    @Path("/{id}/stock")
+    public StockLevelDTO getStock(@PathParam("id") Long id, @QueryParam("at") Instant at) {
+        return stockLedger.stockAt(id, at);
+    }
+
     @PUT
     @Path("/{id}")
     public RawMaterialResponseDTO update(@PathParam("id") Long id, @Valid RawMaterialRequestDTO dto) {
@@ -0,0 +1,227 @@
+package com.example.service;
+
+import com.example.dto.catalogimport.ImportErrorDTO;
+import com.example.dto.catalogimport.ImportResultDTO;
+import com.example.dto.product.ProductRequestDTO;
+import com.example.dto.rawmaterial.RawMaterialRequestDTO;
+import com.example.entity.Product;
+import com.example.entity.RawMaterial;
+import com.example.entity.StockMovement;
+import com.example.event.CatalogChangedEvent;
+import com.example.exception.InvalidRequestException;
+import com.example.mapper.ProductMapper;
+import com.example.mapper.RawMaterialMapper;
+import com.example.repository.ProductRepository;
+import com.example.repository.RawMaterialRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports products and raw materials from a stream. Lines are read, validated and written in
+ * chunks, each committed in its own transaction, so memory stays bounded by the chunk size and
+ * a bad line only rejects itself: when a chunk fails as a whole it is retried line by line to
+ * tell which lines caused it.
+ */
+@ApplicationScoped
+public class CatalogImportService {
+
+    private static final Logger LOG = Logger.getLogger(CatalogImportService.class);
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    RawMaterialRepository rawMaterialRepository;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    StockLedger stockLedger;
+
+    @Inject
+    Event<CatalogChangedEvent> catalogChanged;
+
+    @ConfigProperty(name = "catalog.import.batch-size", defaultValue = "1000")
+    int batchSize;
+
+    @ConfigProperty(name = "catalog.import.max-reported-errors", defaultValue = "1000")
+    int maxReportedErrors;
+
+    public ImportResultDTO importProducts(InputStream input, ImportFormat format) {
+        return importLines(input, format, new Target<>("Product", ProductRequestDTO.class, ProductRequestDTO::name,
+                ProductMapper::toEntity, Product::getId, productRepository, productRepository::findExistingNames,
+                productRepository::registerName,
+                product -> { }, CatalogChangedEvent::products));
+    }
+
+    public ImportResultDTO importRawMaterials(InputStream input, ImportFormat format) {
+        return importLines(input, format, new Target<>("Raw material", RawMaterialRequestDTO.class,
+                RawMaterialRequestDTO::name, RawMaterialMapper::toEntity, RawMaterial::getId, rawMaterialRepository,
+                rawMaterialRepository::findExistingNames, rawMaterialRepository::registerName,
+                rawMaterial -> stockLedger.record(rawMaterial.getId(), rawMaterial.getStockQuantity(),
+                        StockMovement.Reason.INITIAL),
+                CatalogChangedEvent::rawMaterials));
+    }
+
+    private <D, E> ImportResultDTO importLines(InputStream input, ImportFormat format, Target<D, E> target) {
+        Result result = new Result();
+        Set<String> names = new HashSet<>();
+        List<Row<D>> chunk = new ArrayList<>(batchSize);
+
+        try (ImportReader reader = new ImportReader(input, format, objectMapper)) {
+            ImportReader.Line line;
+            while ((line = reader.next()) != null) {
+                if (line.error() != null) {
+                    result.reject(line.number(), line.error());
+                    continue;
+                }
+                D dto;
+                try {
+                    dto = objectMapper.treeToValue(line.fields(), target.type());
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    result.reject(line.number(), "Invalid field format");
+                    continue;
+                }
+                Set<ConstraintViolation<D>> violations = validator.validate(dto);
+                if (!violations.isEmpty()) {
+                    result.reject(line.number(), violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .sorted()
+                            .collect(Collectors.joining("; ")));
+                    continue;
+                }
+                String name = target.name().apply(dto);
+                if (!names.add(name.toLowerCase(Locale.ROOT))) {
+                    result.reject(line.number(), String.format("Name '%s' appears more than once in the import", name));
+                    continue;
+                }
+                chunk.add(new Row<>(line.number(), dto));
+                if (chunk.size() >= batchSize) {
+                    write(target, chunk, result);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            LOG.warnf("Import stopped after %d lines: %s", result.imported + result.failed, e.getMessage());
+            throw new InvalidRequestException("Could not read the import");
+        }
+        if (!chunk.isEmpty()) {
+            write(target, chunk, result);
+        }
+
+        LOG.debugf("Imported %d and rejected %d lines", result.imported, result.failed);
+        result.errors.sort(Comparator.comparingLong(ImportErrorDTO::line));
+        return new ImportResultDTO(result.imported, result.failed, result.errors);
+    }
+
+    private <D, E> void write(Target<D, E> target, List<Row<D>> chunk, Result result) {
+        try {
+            List<ImportErrorDTO> rejected = QuarkusTransaction.requiringNew().call(() -> persist(target, chunk));
+            result.accept(chunk.size() - rejected.size(), rejected);
+        } catch (RuntimeException e) {
+            LOG.debugf("Chunk of %d lines failed, retrying line by line: %s", chunk.size(), e.getMessage());
+            for (Row<D> row : chunk) {
+                try {
+                    List<ImportErrorDTO> rejected = QuarkusTransaction.requiringNew().call(() -> persist(target, List.of(row)));
+                    result.accept(1 - rejected.size(), rejected);
+                } catch (RuntimeException rowFailure) {
+                    result.reject(row.line(), String.format("%s could not be saved", target.resource()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Persists the rows whose names are not taken yet, all flushed as JDBC batches, and
+     * returns the rejected ones.
+     */
+    private <D, E> List<ImportErrorDTO> persist(Target<D, E> target, List<Row<D>> rows) {
+        Set<String> existing = target.existingNames().apply(rows.stream()
+                .map(row -> target.name().apply(row.dto()).toLowerCase(Locale.ROOT))
+                .toList());
+
+        List<ImportErrorDTO> rejected = new ArrayList<>();
+        List<E> entities = new ArrayList<>(rows.size());
+        for (Row<D> row : rows) {
+            String name = target.name().apply(row.dto());
+            if (existing.contains(name.toLowerCase(Locale.ROOT))) {
+                rejected.add(new ImportErrorDTO(row.line(),
+                        String.format("%s with name '%s' already exists", target.resource(), name)));
+            } else {
+                target.registerName().accept(name);
+                entities.add(target.toEntity().apply(row.dto()));
+            }
+        }
+        if (entities.isEmpty()) {
+            return rejected;
+        }
+
+        target.repository().persist(entities);
+        entities.forEach(target.persisted());
+        target.repository().flush();
+        List<Long> ids = entities.stream().map(target.id()).toList();
+        // Nothing is read back, so the chunk does not need to stay in the persistence context
+        target.repository().getEntityManager().clear();
+        catalogChanged.fire(target.changed().apply(ids));
+        return rejected;
+    }
+
+    private record Target<D, E>(String resource,
+                                Class<D> type,
+                                Function<D, String> name,
+                                Function<D, E> toEntity,
+                                Function<E, Long> id,
+                                PanacheRepository<E> repository,
+                                Function<Collection<String>, Set<String>> existingNames,
+                                Consumer<String> registerName,
+                                Consumer<E> persisted,
+                                Function<Collection<Long>, CatalogChangedEvent> changed) {
+    }
+
+    private record Row<D>(long line, D dto) {
+    }
+
+    private final class Result {
+        private long imported;
+        private long failed;
+        private final List<ImportErrorDTO> errors = new ArrayList<>();
+
+        void accept(int persisted, List<ImportErrorDTO> rejected) {
+            imported += persisted;
+            rejected.forEach(error -> reject(error.line(), error.error()));
+        }
+
+        void reject(long line, String error) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportErrorDTO(line, error));
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.service;
+
+import com.example.exception.InvalidRequestException;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Formats accepted by the bulk imports: CSV with a header row naming the fields, or one
+ * JSON object per line.
+ */
+public enum ImportFormat {
+    CSV,
+    NDJSON;
+
+    public static final String TEXT_CSV = "text/csv";
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    public static ImportFormat fromMediaType(MediaType mediaType) {
+        if (mediaType != null && mediaType.isCompatible(MediaType.valueOf(TEXT_CSV))) {
+            return CSV;
+        }
+        if (mediaType != null && mediaType.isCompatible(MediaType.valueOf(APPLICATION_NDJSON))) {
+            return NDJSON;
+        }
+        throw new InvalidRequestException(String.format("Imports must be sent as %s or %s", TEXT_CSV, APPLICATION_NDJSON));
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a bulk import one line at a time, turning every CSV row or NDJSON line into a JSON
+ * object so both formats are bound to the request DTOs the same way. Blank lines are
+ * skipped; quoted CSV fields may contain commas and doubled quotes but not line breaks.
+ */
+public final class ImportReader implements Closeable {
+
+    /**
+     * A line of the import: its fields, or why they could not be read.
+     */
+    public record Line(long number, ObjectNode fields, String error) {
+    }
+
+    private final BufferedReader reader;
+    private final ImportFormat format;
+    private final ObjectMapper objectMapper;
+    private List<String> header;
+    private long number;
+
+    public ImportReader(InputStream input, ImportFormat format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Number of the last line read.
+     */
+    public long lineNumber() {
+        return number;
+    }
+
+    /**
+     * Next record, or {@code null} at the end of the input.
+     */
+    public Line next() throws IOException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            number++;
+            if (number == 1 && text.startsWith("\uFEFF")) {
+                text = text.substring(1);
+            }
+            if (text.isBlank()) {
+                continue;
+            }
+            if (format == ImportFormat.NDJSON) {
+                return readJson(text);
+            }
+            List<String> values;
+            try {
+                values = splitCsv(text);
+            } catch (IllegalArgumentException e) {
+                return new Line(number, null, e.getMessage());
+            }
+            if (header == null) {
+                header = values.stream().map(String::trim).toList();
+                continue;
+            }
+            if (values.size() != header.size()) {
+                return new Line(number, null,
+                        String.format("Expected %d fields but found %d", header.size(), values.size()));
+            }
+            ObjectNode fields = objectMapper.createObjectNode();
+            for (int i = 0; i < values.size(); i++) {
+                String value = values.get(i).trim();
+                if (value.isEmpty()) {
+                    fields.putNull(header.get(i));
+                } else {
+                    fields.put(header.get(i), value);
+                }
+            }
+            return new Line(number, fields, null);
+        }
+        return null;
+    }
+
+    private Line readJson(String text) {
+        try {
+            JsonNode node = objectMapper.readTree(text);
+            if (node instanceof ObjectNode fields) {
+                return new Line(number, fields, null);
+            }
+            return new Line(number, null, "Expected a JSON object");
+        } catch (JsonProcessingException e) {
+            return new Line(number, null, "Invalid JSON format");
+        }
+    }
+
+    private static List<String> splitCsv(String text) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
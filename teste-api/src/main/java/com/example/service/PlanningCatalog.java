@@ -0,0 +1,194 @@
+package com.example.service;
+
+import com.example.dto.product.ProductResponseDTO;
+import com.example.dto.rawmaterial.RawMaterialResponseDTO;
+import com.example.event.CatalogChangedEvent;
+import com.example.planning.BomExplosion;
+import com.example.planning.BomLine;
+import com.example.planning.BomMatrix;
+import com.example.planning.ComponentLine;
+import com.example.planning.IncrementalPlanner;
+import com.example.planning.ProductionPlan;
+import com.example.planning.ProductionPlanner;
+import com.example.repository.ProductComponentRepository;
+import com.example.repository.ProductRawMaterialRepository;
+import com.example.repository.ProductRepository;
+import com.example.repository.RawMaterialRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory catalog the production suggestions are planned from. It is loaded on first use
+ * and then kept current from the post-commit {@link CatalogChangedEvent}s: only the changed
+ * rows are reloaded and {@link IncrementalPlanner} updates the greedy plan for the products
+ * they affect. Sub-assemblies are flattened by {@link BomExplosion}, so a bill of materials
+ * change also re-plans every product built from the changed one.
+ */
+@ApplicationScoped
+public class PlanningCatalog {
+
+    /**
+     * Above this many pending rows, such as after a bulk import, reloading the whole catalog
+     * is cheaper than fetching the changed rows by id.
+     */
+    private static final int FULL_RELOAD_THRESHOLD = 5_000;
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    RawMaterialRepository rawMaterialRepository;
+
+    @Inject
+    ProductRawMaterialRepository productRawMaterialRepository;
+
+    @Inject
+    ProductComponentRepository productComponentRepository;
+
+    @Inject
+    ProductionPlanner productionPlanner;
+
+    private final Set<Long> pendingProducts = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pendingRawMaterials = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pendingBillsOfMaterials = ConcurrentHashMap.newKeySet();
+
+    private BomExplosion explosion;
+    private IncrementalPlanner planner;
+    private volatile ProductionPlan plan;
+
+    /**
+     * Current greedy plan, including every change committed before this call.
+     */
+    public ProductionPlan greedyPlan() {
+        ProductionPlan current = plan;
+        if (current != null && !hasPendingChanges()) {
+            return current;
+        }
+        return refresh();
+    }
+
+    public BomMatrix bom() {
+        return greedyPlan().bom();
+    }
+
+    /**
+     * Drops the in-memory catalog so the next read loads it again from the database.
+     */
+    public synchronized void invalidate() {
+        explosion = null;
+        planner = null;
+        plan = null;
+    }
+
+    void onCatalogChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CatalogChangedEvent event) {
+        switch (event.type()) {
+            case PRODUCT -> pendingProducts.addAll(event.ids());
+            case RAW_MATERIAL -> pendingRawMaterials.addAll(event.ids());
+            case BILL_OF_MATERIALS -> pendingBillsOfMaterials.addAll(event.ids());
+        }
+    }
+
+    private int pendingCount() {
+        return pendingProducts.size() + pendingRawMaterials.size() + pendingBillsOfMaterials.size();
+    }
+
+    private boolean hasPendingChanges() {
+        return !pendingProducts.isEmpty() || !pendingRawMaterials.isEmpty() || !pendingBillsOfMaterials.isEmpty();
+    }
+
+    private synchronized ProductionPlan refresh() {
+        try {
+            if (planner == null || pendingCount() > FULL_RELOAD_THRESHOLD) {
+                pendingProducts.clear();
+                pendingRawMaterials.clear();
+                pendingBillsOfMaterials.clear();
+                planner = new IncrementalPlanner(loadBom(), productionPlanner);
+            } else {
+                planner.apply(loadChanges());
+            }
+        } catch (RuntimeException e) {
+            invalidate();
+            throw e;
+        }
+        plan = planner.plan();
+        return plan;
+    }
+
+    private BomMatrix loadBom() {
+        explosion = BomExplosion.of(
+                productRawMaterialRepository.findAllBomLines(),
+                productComponentRepository.findAllComponentLines());
+
+        BomMatrix.Builder builder = BomMatrix.builder();
+        List<ProductResponseDTO> products = productRepository.findAllForPlanning();
+        products.forEach(product -> builder.addProduct(product.id(), product.name(), product.value()));
+        rawMaterialRepository.findAllForPlanning()
+                .forEach(material -> builder.addMaterial(material.id(), material.name(), material.stockQuantity()));
+        for (ProductResponseDTO product : products) {
+            explosion.explode(product.id())
+                    .forEach(line -> builder.addRequirement(line.productId(), line.rawMaterialId(), line.quantityNeeded()));
+        }
+        return builder.build();
+    }
+
+    private IncrementalPlanner.Changes loadChanges() {
+        IncrementalPlanner.Changes changes = IncrementalPlanner.changes();
+
+        Set<Long> rawMaterialIds = drain(pendingRawMaterials);
+        if (!rawMaterialIds.isEmpty()) {
+            for (RawMaterialResponseDTO material : rawMaterialRepository.findForPlanning(rawMaterialIds)) {
+                changes.putMaterial(material.id(), material.name(), material.stockQuantity());
+                rawMaterialIds.remove(material.id());
+            }
+            rawMaterialIds.forEach(changes::removeMaterial);
+        }
+
+        Set<Long> explodedProductIds = new HashSet<>();
+        Set<Long> productIds = drain(pendingProducts);
+        if (!productIds.isEmpty()) {
+            for (ProductResponseDTO product : productRepository.findForPlanning(productIds)) {
+                changes.putProduct(product.id(), product.name(), product.value());
+                productIds.remove(product.id());
+            }
+            productIds.forEach(changes::removeProduct);
+            productIds.forEach(productId -> explodedProductIds.addAll(explosion.removeProduct(productId)));
+        }
+
+        Set<Long> billOfMaterialsIds = drain(pendingBillsOfMaterials);
+        if (!billOfMaterialsIds.isEmpty()) {
+            Map<Long, List<BomLine>> linesByProduct = productRawMaterialRepository
+                    .findBomLinesByProductIds(billOfMaterialsIds).stream()
+                    .collect(Collectors.groupingBy(BomLine::productId));
+            Map<Long, List<ComponentLine>> componentsByProduct = productComponentRepository
+                    .findComponentLinesByProductIds(billOfMaterialsIds).stream()
+                    .collect(Collectors.groupingBy(ComponentLine::productId));
+            for (Long productId : billOfMaterialsIds) {
+                explodedProductIds.addAll(explosion.setRawMaterials(productId, linesByProduct.getOrDefault(productId, List.of())));
+                explodedProductIds.addAll(explosion.setComponents(productId, componentsByProduct.getOrDefault(productId, List.of())));
+            }
+        }
+
+        explodedProductIds.forEach(productId -> changes.putRequirements(productId, explosion.explode(productId)));
+
+        return changes;
+    }
+
+    private static Set<Long> drain(Set<Long> pending) {
+        Set<Long> drained = new HashSet<>();
+        for (Long id : pending) {
+            if (pending.remove(id)) {
+                drained.add(id);
+            }
+        }
+        return drained;
+    }
+}
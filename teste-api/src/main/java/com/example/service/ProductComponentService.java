@@ -0,0 +1,149 @@
+package com.example.service;
+
+import com.example.dto.PageResponse;
+import com.example.dto.productcomponent.ProductComponentRequestDTO;
+import com.example.dto.productcomponent.ProductComponentResponseDTO;
+import com.example.entity.Product;
+import com.example.entity.ProductComponent;
+import com.example.event.CatalogChangedEvent;
+import com.example.exception.DuplicateResourceException;
+import com.example.exception.InvalidRequestException;
+import com.example.exception.ResourceNotFoundException;
+import com.example.filter.KeysetFilter;
+import com.example.filter.PagedResult;
+import com.example.mapper.ProductComponentMapper;
+import com.example.planning.ComponentLine;
+import com.example.repository.ProductComponentRepository;
+import com.example.repository.ProductRepository;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.validation.Valid;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@ApplicationScoped
+public class ProductComponentService {
+
+    @Inject
+    ProductComponentRepository productComponentRepository;
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    Event<CatalogChangedEvent> catalogChanged;
+
+    public PageResponse<ProductComponentResponseDTO> findByProductId(Long productId, int pageNumber, int pageSize, String cursor,
+                                                                     boolean withTotal) {
+        PageResponse<ProductComponentResponseDTO> page;
+        if (cursor != null) {
+            KeysetFilter<ProductComponentResponseDTO> keysetFilter = KeysetFilter
+                    .byId(productComponentRepository, ProductComponentResponseDTO.class,
+                            "product-components:" + productId, ProductComponentResponseDTO::id,
+                            Sort.Direction.Ascending)
+                    .where("product.id = :productId", "productId", productId);
+            Long totalElements = withTotal ? keysetFilter.count() : null;
+            List<ProductComponentResponseDTO> content = keysetFilter.list(cursor, pageSize);
+            page = new PageResponse<>(content, 0, pageSize, totalElements, keysetFilter.nextCursor());
+        } else {
+            PagedResult<ProductComponentResponseDTO> result = productComponentRepository
+                    .findPageByProductId(productId, pageNumber, pageSize, withTotal);
+            page = new PageResponse<>(result.content(), pageNumber, pageSize, result.totalElements());
+        }
+
+        // Rows name their product, so it only needs looking up when the page is empty
+        if (page.getContent().isEmpty()) {
+            productRepository.findByIdOptional(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", productId));
+        }
+        return page;
+    }
+
+    public ProductComponentResponseDTO findByProductIdAndComponentId(Long productId, Long componentProductId) {
+        ProductComponent entity = productComponentRepository
+                .findByProductIdAndComponentId(productId, componentProductId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        String.format("Component %d of Product %d not found", componentProductId, productId)));
+
+        return ProductComponentMapper.toResponseDTO(entity);
+    }
+
+    @Transactional
+    public ProductComponentResponseDTO addComponentToProduct(Long productId, @Valid ProductComponentRequestDTO dto) {
+        // Verify both products exist
+        Product product = productRepository.findByIdOptional(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", productId));
+        Product component = productRepository.findByIdOptional(dto.componentProductId())
+                .orElseThrow(() -> new ResourceNotFoundException("Product", dto.componentProductId()));
+
+        // Check if association already exists
+        if (productComponentRepository.existsByProductIdAndComponentId(productId, dto.componentProductId())) {
+            throw new DuplicateResourceException(
+                    String.format("Product '%s' is already a component of Product '%s'",
+                            component.getName(), product.getName()));
+        }
+        checkNoCycle(product, component);
+
+        ProductComponent entity = new ProductComponent(product, component, dto.quantityNeeded());
+        productComponentRepository.persist(entity);
+        catalogChanged.fire(CatalogChangedEvent.billOfMaterials(productId));
+
+        return ProductComponentMapper.toResponseDTO(entity);
+    }
+
+    @Transactional
+    public ProductComponentResponseDTO updateQuantity(Long productId, Long componentProductId, @Valid ProductComponentRequestDTO dto) {
+        ProductComponent entity = productComponentRepository
+                .findByProductIdAndComponentId(productId, componentProductId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        String.format("Component %d of Product %d not found", componentProductId, productId)));
+
+        entity.setQuantityNeeded(dto.quantityNeeded());
+        catalogChanged.fire(CatalogChangedEvent.billOfMaterials(productId));
+
+        return ProductComponentMapper.toResponseDTO(entity);
+    }
+
+    @Transactional
+    public void removeComponentFromProduct(Long productId, Long componentProductId) {
+        // Verify association exists
+        if (!productComponentRepository.existsByProductIdAndComponentId(productId, componentProductId)) {
+            throw new ResourceNotFoundException(
+                    String.format("Component %d of Product %d not found", componentProductId, productId));
+        }
+
+        productComponentRepository.deleteByProductIdAndComponentId(productId, componentProductId);
+        catalogChanged.fire(CatalogChangedEvent.billOfMaterials(productId));
+    }
+
+    /**
+     * Walks down from the new component, one query per level, and rejects the link when it
+     * reaches the product, since the bill of materials must stay acyclic.
+     */
+    private void checkNoCycle(Product product, Product component) {
+        if (product.getId().equals(component.getId())) {
+            throw new InvalidRequestException("A product cannot be a component of itself");
+        }
+        Set<Long> visited = new HashSet<>();
+        Set<Long> level = Set.of(component.getId());
+        while (!level.isEmpty()) {
+            Set<Long> next = new HashSet<>();
+            for (ComponentLine line : productComponentRepository.findComponentLinesByProductIds(level)) {
+                if (line.componentProductId().equals(product.getId())) {
+                    throw new InvalidRequestException(String.format(
+                            "Product '%s' cannot be a component of Product '%s' because it is built from it",
+                            component.getName(), product.getName()));
+                }
+                if (visited.add(line.componentProductId())) {
+                    next.add(line.componentProductId());
+                }
+            }
+            level = next;
+        }
+    }
+}
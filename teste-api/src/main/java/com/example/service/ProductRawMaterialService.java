@@ -1,24 +1,38 @@
 package com.example.service;
 
 import com.example.dto.PageResponse;
+import com.example.dto.productrawmaterial.BillOfMaterialsErrorDTO;
+import com.example.dto.productrawmaterial.BillOfMaterialsRequestDTO;
+import com.example.dto.productrawmaterial.BillOfMaterialsResultDTO;
+import com.example.dto.productrawmaterial.CatalogBillOfMaterialsRequestDTO;
+import com.example.dto.productrawmaterial.ProductBillOfMaterialsDTO;
 import com.example.dto.productrawmaterial.ProductRawMaterialRequestDTO;
 import com.example.dto.productrawmaterial.ProductRawMaterialResponseDTO;
 import com.example.entity.Product;
 import com.example.entity.ProductRawMaterial;
 import com.example.entity.RawMaterial;
+import com.example.event.CatalogChangedEvent;
 import com.example.exception.DuplicateResourceException;
 import com.example.exception.ResourceNotFoundException;
+import com.example.filter.KeysetFilter;
+import com.example.filter.PagedResult;
 import com.example.mapper.ProductRawMaterialMapper;
+import com.example.planning.BomLine;
 import com.example.repository.ProductRawMaterialRepository;
 import com.example.repository.ProductRepository;
 import com.example.repository.RawMaterialRepository;
-import io.quarkus.panache.common.Page;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
@@ -33,19 +47,33 @@ public class ProductRawMaterialService {
     @Inject
     RawMaterialRepository rawMaterialRepository;
 
-    public PageResponse<ProductRawMaterialResponseDTO> findByProductId(Long productId, int pageNumber, int pageSize) {
-        // Verify product exists
-        productRepository.findByIdOptional(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", productId));
-
-        long totalElements = productRawMaterialRepository.countByProductId(productId);
-        List<ProductRawMaterialResponseDTO> content = productRawMaterialRepository.findByProductId(productId)
-                .page(Page.of(pageNumber, pageSize))
-                .stream()
-                .map(ProductRawMaterialMapper::toResponseDTO)
-                .collect(Collectors.toList());
+    @Inject
+    Event<CatalogChangedEvent> catalogChanged;
+
+    public PageResponse<ProductRawMaterialResponseDTO> findByProductId(Long productId, int pageNumber, int pageSize, String cursor,
+                                                                       boolean withTotal) {
+        PageResponse<ProductRawMaterialResponseDTO> page;
+        if (cursor != null) {
+            KeysetFilter<ProductRawMaterialResponseDTO> keysetFilter = KeysetFilter
+                    .byId(productRawMaterialRepository, ProductRawMaterialResponseDTO.class,
+                            "product-raw-materials:" + productId, ProductRawMaterialResponseDTO::id,
+                            Sort.Direction.Ascending)
+                    .where("product.id = :productId", "productId", productId);
+            Long totalElements = withTotal ? keysetFilter.count() : null;
+            List<ProductRawMaterialResponseDTO> content = keysetFilter.list(cursor, pageSize);
+            page = new PageResponse<>(content, 0, pageSize, totalElements, keysetFilter.nextCursor());
+        } else {
+            PagedResult<ProductRawMaterialResponseDTO> result = productRawMaterialRepository
+                    .findPageByProductId(productId, pageNumber, pageSize, withTotal);
+            page = new PageResponse<>(result.content(), pageNumber, pageSize, result.totalElements());
+        }
 
-        return new PageResponse<>(content, pageNumber, pageSize, totalElements);
+        // Rows name their product, so it only needs looking up when the page is empty
+        if (page.getContent().isEmpty()) {
+            productRepository.findByIdOptional(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", productId));
+        }
+        return page;
     }
 
     public ProductRawMaterialResponseDTO findByProductIdAndRawMaterialId(Long productId, Long rawMaterialId) {
@@ -77,6 +105,7 @@ public class ProductRawMaterialService {
         // Create association
         ProductRawMaterial entity = new ProductRawMaterial(product, rawMaterial, dto.quantityNeeded());
         productRawMaterialRepository.persist(entity);
+        catalogChanged.fire(CatalogChangedEvent.billOfMaterials(productId));
 
         return ProductRawMaterialMapper.toResponseDTO(entity);
     }
@@ -89,6 +118,7 @@ public class ProductRawMaterialService {
                         String.format("Association between Product %d and Raw Material %d not found", productId, rawMaterialId)));
 
         entity.setQuantityNeeded(dto.quantityNeeded());
+        catalogChanged.fire(CatalogChangedEvent.billOfMaterials(productId));
 
         return ProductRawMaterialMapper.toResponseDTO(entity);
     }
@@ -102,5 +132,84 @@ public class ProductRawMaterialService {
         }
 
         productRawMaterialRepository.deleteByProductIdAndRawMaterialId(productId, rawMaterialId);
+        catalogChanged.fire(CatalogChangedEvent.billOfMaterials(productId));
+    }
+
+    /**
+     * Sets the given raw materials on the product in one transaction, updating the quantity
+     * of those it already uses. With {@code replace} the product also stops using any raw
+     * material not listed. Unknown or repeated raw materials are reported per item and the
+     * rest of the list is still applied.
+     */
+    @Transactional
+    public BillOfMaterialsResultDTO upsertBillOfMaterials(Long productId, @Valid BillOfMaterialsRequestDTO dto, boolean replace) {
+        productRepository.findByIdOptional(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", productId));
+
+        return upsert(List.of(new ProductBillOfMaterialsDTO(productId, dto.rawMaterials())), replace);
+    }
+
+    /**
+     * Same as {@link #upsertBillOfMaterials} for several products at once; unknown products are
+     * reported per item as well.
+     */
+    @Transactional
+    public BillOfMaterialsResultDTO upsertCatalogBillsOfMaterials(@Valid CatalogBillOfMaterialsRequestDTO dto, boolean replace) {
+        return upsert(dto.products(), replace);
+    }
+
+    private BillOfMaterialsResultDTO upsert(List<ProductBillOfMaterialsDTO> billsOfMaterials, boolean replace) {
+        // Foreign keys are checked up front with one query per table: a violation inside the
+        // upsert would abort the whole transaction instead of rejecting a single item
+        Set<Long> existingProducts = productRepository.findExistingIds(billsOfMaterials.stream()
+                .map(ProductBillOfMaterialsDTO::productId)
+                .collect(Collectors.toSet()));
+        Set<Long> requestedRawMaterials = billsOfMaterials.stream()
+                .flatMap(bom -> bom.rawMaterials().stream())
+                .map(ProductRawMaterialRequestDTO::rawMaterialId)
+                .collect(Collectors.toSet());
+        Set<Long> existingRawMaterials = requestedRawMaterials.isEmpty()
+                ? Set.of()
+                : rawMaterialRepository.findExistingIds(requestedRawMaterials);
+
+        List<BomLine> lines = new ArrayList<>();
+        List<BillOfMaterialsErrorDTO> errors = new ArrayList<>();
+        Set<Long> changedProducts = new LinkedHashSet<>();
+        long removed = 0;
+        for (ProductBillOfMaterialsDTO bom : billsOfMaterials) {
+            Long productId = bom.productId();
+            if (!existingProducts.contains(productId)) {
+                errors.add(new BillOfMaterialsErrorDTO(productId, null,
+                        new ResourceNotFoundException("Product", productId).getMessage()));
+                continue;
+            }
+            if (!changedProducts.add(productId)) {
+                errors.add(new BillOfMaterialsErrorDTO(productId, null, "Product appears more than once in the request"));
+                continue;
+            }
+
+            Set<Long> kept = new HashSet<>();
+            for (ProductRawMaterialRequestDTO line : bom.rawMaterials()) {
+                Long rawMaterialId = line.rawMaterialId();
+                if (!existingRawMaterials.contains(rawMaterialId)) {
+                    errors.add(new BillOfMaterialsErrorDTO(productId, rawMaterialId,
+                            new ResourceNotFoundException("Raw Material", rawMaterialId).getMessage()));
+                } else if (!kept.add(rawMaterialId)) {
+                    errors.add(new BillOfMaterialsErrorDTO(productId, rawMaterialId,
+                            "Raw material appears more than once for this product"));
+                } else {
+                    lines.add(new BomLine(productId, rawMaterialId, line.quantityNeeded()));
+                }
+            }
+            if (replace) {
+                removed += productRawMaterialRepository.deleteByProductIdExcept(productId, kept);
+            }
+        }
+
+        productRawMaterialRepository.upsert(lines);
+        if (!changedProducts.isEmpty()) {
+            catalogChanged.fire(CatalogChangedEvent.billsOfMaterials(changedProducts));
+        }
+        return new BillOfMaterialsResultDTO(lines.size(), removed, errors);
     }
 }
@@ -4,60 +4,95 @@ import com.example.dto.PageResponse;
 import com.example.dto.product.ProductRequestDTO;
 import com.example.dto.product.ProductResponseDTO;
 import com.example.entity.Product;
+import com.example.event.CatalogChangedEvent;
 import com.example.exception.DuplicateResourceException;
+import com.example.exception.InvalidRequestException;
 import com.example.exception.ReferentialIntegrityException;
 import com.example.exception.ResourceNotFoundException;
-import com.example.filter.PaginationFilter;
-import com.example.filter.SearchFilter;
-import com.example.filter.SortFilter;
+import com.example.filter.KeysetFilter;
+import com.example.filter.PagedResult;
+import com.example.filter.SortSpec;
 import com.example.mapper.ProductMapper;
+import com.example.repository.ProductComponentRepository;
 import com.example.repository.ProductRepository;
-import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 
+import java.math.BigDecimal;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Function;
 
 @ApplicationScoped
 public class ProductService {
 
+    private static final Set<String> SORT_FIELDS = Set.of("name", "value", "id");
+
     @Inject
     ProductRepository productRepository;
 
     @Inject
     com.example.repository.ProductRawMaterialRepository productRawMaterialRepository;
 
-    public PageResponse<ProductResponseDTO> findAll(int pageNumber, int pageSize, String search, String sortBy, String sortDirection) {
-        PanacheQuery<Product> query = productRepository.findAll();
-
-        SearchFilter<Product> searchFilter = SearchFilter.byField(productRepository, "name", search);
-        query = searchFilter.apply(query);
-
-        long totalElements = query.count();
-
-        PaginationFilter<Product> paginationFilter = PaginationFilter.of(pageNumber, pageSize);
-        query = paginationFilter.apply(query);
+    @Inject
+    ProductComponentRepository productComponentRepository;
 
-        List<Product> products = query.list();
+    @Inject
+    Event<CatalogChangedEvent> catalogChanged;
 
-        if ("value".equals(sortBy) && sortDirection != null && !sortDirection.isEmpty()) {
-            SortFilter.by(Product::getValue, sortDirection).apply(products);
+    @Inject
+    @CacheName("product-responses")
+    Cache productResponses;
+
+    public PageResponse<ProductResponseDTO> findAll(int pageNumber, int pageSize, String search, String sortBy,
+                                                    String sortDirection, String cursor, boolean withTotal) {
+        SortSpec sort = SortSpec.parse(sortBy, sortDirection, SORT_FIELDS);
+        if (cursor != null) {
+            return findAllByCursor(pageSize, search, sort, sortDirection, cursor, withTotal);
         }
 
-        List<ProductResponseDTO> content = products.stream()
-                .map(ProductMapper::toResponseDTO)
-                .collect(Collectors.toList());
+        PagedResult<ProductResponseDTO> page = productRepository.findPage(search, sort, pageNumber, pageSize,
+                withTotal);
+        return new PageResponse<>(page.content(), pageNumber, pageSize, page.totalElements());
+    }
 
-        return new PageResponse<>(content, pageNumber, pageSize, totalElements);
+    private PageResponse<ProductResponseDTO> findAllByCursor(int pageSize, String search, SortSpec sort,
+                                                             String sortDirection, String cursor, boolean withTotal) {
+        if (sort.fields().size() > 1) {
+            throw new InvalidRequestException("Cursor pagination supports a single sort field");
+        }
+        SortSpec.Field field = sort.isEmpty()
+                ? new SortSpec.Field("id", SortSpec.direction(sortDirection))
+                : sort.fields().get(0);
+        KeysetFilter<ProductResponseDTO> keysetFilter = switch (field.name()) {
+            case "name" -> KeysetFilter.byField(productRepository, ProductResponseDTO.class, "products", "name",
+                    ProductResponseDTO::name, Function.identity(), ProductResponseDTO::id, field.direction());
+            case "value" -> KeysetFilter.byField(productRepository, ProductResponseDTO.class, "products", "value",
+                    ProductResponseDTO::value, BigDecimal::new, ProductResponseDTO::id, field.direction());
+            default -> KeysetFilter.byId(productRepository, ProductResponseDTO.class, "products",
+                    ProductResponseDTO::id, field.direction());
+        };
+        keysetFilter.search("name", search);
+
+        Long totalElements = withTotal ? keysetFilter.count() : null;
+        List<ProductResponseDTO> content = keysetFilter.list(cursor, pageSize);
+
+        return new PageResponse<>(content, 0, pageSize, totalElements, keysetFilter.nextCursor());
     }
 
     public ProductResponseDTO findById(Long id) {
-        Product product = productRepository.findByIdOptional(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", id));
-        return ProductMapper.toResponseDTO(product);
+        return productResponses.<Long, ProductResponseDTO>get(id, key -> {
+            Product product = productRepository.findByIdOptional(key)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", key));
+            return ProductMapper.toResponseDTO(product);
+        }).await().indefinitely();
     }
 
     @Transactional
@@ -66,7 +101,9 @@ public class ProductService {
             throw new DuplicateResourceException("Product", "name", dto.name());
         }
         Product product = ProductMapper.toEntity(dto);
+        productRepository.registerName(product.getName());
         productRepository.persist(product);
+        catalogChanged.fire(CatalogChangedEvent.product(product.getId()));
         return ProductMapper.toResponseDTO(product);
     }
 
@@ -79,7 +116,9 @@ public class ProductService {
             throw new DuplicateResourceException("Product", "name", dto.name());
         }
 
+        productRepository.registerName(dto.name());
         ProductMapper.updateEntityFromDTO(product, dto);
+        catalogChanged.fire(CatalogChangedEvent.product(id));
         return ProductMapper.toResponseDTO(product);
     }
 
@@ -92,6 +131,25 @@ public class ProductService {
             throw new ReferentialIntegrityException("Cannot delete product because it has linked raw materials");
         }
 
+        if (productComponentRepository.hasComponents(id)) {
+            throw new ReferentialIntegrityException("Cannot delete product because it has linked components");
+        }
+
+        if (productComponentRepository.isUsedAsComponent(id)) {
+            throw new ReferentialIntegrityException("Cannot delete product because it is a component of other products");
+        }
+
         productRepository.delete(product);
+        catalogChanged.fire(CatalogChangedEvent.product(id));
+    }
+
+    /**
+     * Evicts the cached responses once a write is committed, so a read that started before
+     * the commit cannot put the old version back.
+     */
+    void onCatalogChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CatalogChangedEvent event) {
+        if (event.type() == CatalogChangedEvent.Type.PRODUCT) {
+            event.ids().forEach(id -> productResponses.invalidate(id).await().indefinitely());
+        }
     }
 }
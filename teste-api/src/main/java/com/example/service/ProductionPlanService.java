@@ -0,0 +1,44 @@
+package com.example.service;
+
+import com.example.dto.productionplan.RawMaterialRequirementDTO;
+import com.example.dto.productionplan.RequirementsRequestDTO;
+import com.example.dto.productionplan.RequirementsResponseDTO;
+import com.example.mapper.ProductionPlanMapper;
+import com.example.planning.BomMatrix;
+import com.example.planning.FixedPoint;
+import com.example.planning.MaterialRequirements;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@ApplicationScoped
+public class ProductionPlanService {
+
+    @Inject
+    PlanningCatalog planningCatalog;
+
+    @Inject
+    StockWriteBehind stockWriteBehind;
+
+    /**
+     * Raw materials needed for a production mix, against the current stock, unflushed
+     * write-behind movements included.
+     */
+    public RequirementsResponseDTO getRequirements(RequirementsRequestDTO request) {
+        BomMatrix bom = planningCatalog.bom();
+        MaterialRequirements requirements = new MaterialRequirements(bom);
+        request.targets().forEach(target -> requirements.add(target.productId(), target.quantity()));
+        int[] materials = requirements.materials();
+        for (int material : materials) {
+            requirements.addStock(material, FixedPoint.toUnits(stockWriteBehind.unflushed(bom.materialId(material))));
+        }
+
+        List<RawMaterialRequirementDTO> rawMaterials = Arrays.stream(materials)
+                .mapToObj(material -> ProductionPlanMapper.toRequirementDTO(requirements, material))
+                .collect(Collectors.toList());
+        return new RequirementsResponseDTO(requirements.isFeasible(), rawMaterials);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.service;
+
+import com.example.dto.productionrun.ConsumedRawMaterialDTO;
+import com.example.dto.productionrun.ProductionRunRequestDTO;
+import com.example.dto.productionrun.ProductionRunResponseDTO;
+import com.example.entity.StockMovement;
+import com.example.event.CatalogChangedEvent;
+import com.example.exception.InsufficientStockException;
+import com.example.exception.InvalidRequestException;
+import com.example.exception.ResourceNotFoundException;
+import com.example.dto.rawmaterial.RawMaterialResponseDTO;
+import com.example.entity.Product;
+import com.example.planning.BomExplosion;
+import com.example.planning.BomLine;
+import com.example.planning.ComponentLine;
+import com.example.repository.ProductComponentRepository;
+import com.example.repository.ProductRawMaterialRepository;
+import com.example.repository.ProductRepository;
+import com.example.repository.RawMaterialRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.validation.Valid;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Commits production runs by consuming the raw materials of their flattened bill of
+ * materials. Every raw material is decremented with one conditional update, so concurrent
+ * runs never overdraw stock and no row is read before it is written. The bill of materials
+ * is loaded for the requested product only, in the run's transaction, rather than taken
+ * from the planner's in-memory catalog.
+ */
+@ApplicationScoped
+public class ProductionRunService {
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    ProductRawMaterialRepository productRawMaterialRepository;
+
+    @Inject
+    ProductComponentRepository productComponentRepository;
+
+    @Inject
+    RawMaterialRepository rawMaterialRepository;
+
+    @Inject
+    StockLedger stockLedger;
+
+    @Inject
+    StockWriteBehind stockWriteBehind;
+
+    @Inject
+    Event<CatalogChangedEvent> catalogChanged;
+
+    @Transactional
+    public ProductionRunResponseDTO create(@Valid ProductionRunRequestDTO dto) {
+        Product product = productRepository.findByIdOptional(dto.productId())
+                .orElseThrow(() -> new ResourceNotFoundException("Product", dto.productId()));
+        List<BomLine> lines = explode(dto.productId());
+        if (lines.isEmpty()) {
+            throw new InvalidRequestException(String.format("Product with id %d has no raw materials to consume", dto.productId()));
+        }
+        Map<Long, String> names = rawMaterialRepository.findForPlanning(
+                        lines.stream().map(BomLine::rawMaterialId).toList()).stream()
+                .collect(Collectors.toMap(RawMaterialResponseDTO::id, RawMaterialResponseDTO::name));
+
+        // Lines are sorted by raw material id, so concurrent runs lock their rows in the same order
+        List<ConsumedRawMaterialDTO> consumed = new ArrayList<>(lines.size());
+        List<Long> rawMaterialIds = new ArrayList<>(lines.size());
+        for (BomLine line : lines) {
+            Long rawMaterialId = line.rawMaterialId();
+            BigDecimal quantity = line.quantityNeeded().multiply(BigDecimal.valueOf(dto.quantity()));
+            // No stored stock can cover more than the column's maximum
+            if (quantity.compareTo(StockMovementService.MAX_STOCK) > 0) {
+                throw new InsufficientStockException(rawMaterialId, quantity);
+            }
+            if (stockWriteBehind.isWriteBehind(rawMaterialId)
+                    && !stockWriteBehind.reserveStored(rawMaterialId, quantity.negate())) {
+                throw new InsufficientStockException(rawMaterialId, quantity);
+            }
+            // Unflushed write-behind movements are applied first, so the stock check counts them
+            BigDecimal unflushed = stockWriteBehind.drain(rawMaterialId);
+            if (unflushed.signum() != 0) {
+                if (!rawMaterialRepository.addStock(rawMaterialId, unflushed)) {
+                    throw new InsufficientStockException(rawMaterialId, quantity);
+                }
+                stockLedger.record(rawMaterialId, unflushed, StockMovement.Reason.MOVEMENT);
+            }
+            if (!rawMaterialRepository.consumeStock(rawMaterialId, quantity)) {
+                throw new InsufficientStockException(rawMaterialId, quantity);
+            }
+            stockLedger.record(rawMaterialId, quantity.negate(), StockMovement.Reason.PRODUCTION_RUN);
+            consumed.add(new ConsumedRawMaterialDTO(rawMaterialId, names.get(rawMaterialId), quantity));
+            rawMaterialIds.add(rawMaterialId);
+        }
+
+        catalogChanged.fire(CatalogChangedEvent.rawMaterials(rawMaterialIds));
+        return new ProductionRunResponseDTO(dto.productId(), product.getName(), dto.quantity(), consumed);
+    }
+
+    /**
+     * Raw materials per unit of the product, sub-assemblies included, loading the component
+     * tree one level per query.
+     */
+    private List<BomLine> explode(Long productId) {
+        Set<Long> productIds = new HashSet<>(Set.of(productId));
+        List<ComponentLine> componentLines = new ArrayList<>();
+        Set<Long> level = Set.of(productId);
+        while (!level.isEmpty()) {
+            List<ComponentLine> found = productComponentRepository.findComponentLinesByProductIds(level);
+            componentLines.addAll(found);
+            level = found.stream()
+                    .map(ComponentLine::componentProductId)
+                    .filter(productIds::add)
+                    .collect(Collectors.toSet());
+        }
+        return BomExplosion.of(productRawMaterialRepository.findBomLinesByProductIds(productIds), componentLines)
+                .explode(productId);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.service;
+
+import com.example.dto.productionsuggestion.ProductionSuggestionChangeDTO;
+import com.example.dto.productionsuggestion.ProductionSuggestionChangesDTO;
+import com.example.event.CatalogChangedEvent;
+import com.example.mapper.ProductionSuggestionMapper;
+import com.example.planning.BomMatrix;
+import com.example.planning.ProductionPlan;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.operators.multi.processors.BroadcastProcessor;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes production suggestion changes to subscribed clients. Committed catalog changes are
+ * coalesced over the publish interval: at most one snapshot refresh and one diff per
+ * interval, shared by every subscriber, and nothing at all while the catalog is idle.
+ */
+@ApplicationScoped
+public class ProductionSuggestionChangeFeed {
+
+    @Inject
+    ProductionSuggestionSnapshots snapshots;
+
+    private final BroadcastProcessor<ProductionSuggestionChangesDTO> processor = BroadcastProcessor.create();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private volatile boolean changed;
+    private ProductionSuggestionSnapshot published;
+
+    /**
+     * Changes of the greedy plan from now on, each relative to the previous one sent.
+     */
+    public Multi<ProductionSuggestionChangesDTO> changes() {
+        synchronized (this) {
+            if (published == null || subscribers.get() == 0) {
+                published = snapshots.current();
+            }
+        }
+        return processor
+                .onSubscription().invoke(subscription -> subscribers.incrementAndGet())
+                .onTermination().invoke(subscribers::decrementAndGet);
+    }
+
+    @Scheduled(every = "${production-suggestions.stream.publish-interval:500ms}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @ActivateRequestContext
+    void publishChanges() {
+        if (!changed) {
+            return;
+        }
+        if (subscribers.get() == 0) {
+            // The next subscriber starts from whatever is current then
+            synchronized (this) {
+                published = null;
+            }
+            changed = false;
+            return;
+        }
+        changed = false;
+
+        ProductionSuggestionSnapshot latest = snapshots.refresh();
+        ProductionSuggestionChangesDTO changes;
+        synchronized (this) {
+            ProductionSuggestionSnapshot previous = published;
+            published = latest;
+            if (previous == null || previous.version() == latest.version()) {
+                return;
+            }
+            changes = diff(previous, latest);
+        }
+        if (!changes.changed().isEmpty() || !changes.removedProductIds().isEmpty()) {
+            processor.onNext(changes);
+        }
+    }
+
+    void onCatalogChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CatalogChangedEvent event) {
+        changed = true;
+    }
+
+    private static ProductionSuggestionChangesDTO diff(ProductionSuggestionSnapshot from, ProductionSuggestionSnapshot to) {
+        ProductionPlan before = from.greedyPlan();
+        ProductionPlan after = to.greedyPlan();
+        BomMatrix bomBefore = before.bom();
+        BomMatrix bomAfter = after.bom();
+
+        Map<Long, Integer> positionsBefore = new HashMap<>(before.size() * 2);
+        for (int position = 0; position < before.size(); position++) {
+            positionsBefore.put(bomBefore.productId(before.product(position)), position);
+        }
+
+        List<ProductionSuggestionChangeDTO> changed = new ArrayList<>();
+        for (int position = 0; position < after.size(); position++) {
+            Integer previous = positionsBefore.remove(bomAfter.productId(after.product(position)));
+            if (previous == null
+                    || previous != position
+                    || before.quantity(previous) != after.quantity(position)
+                    || before.totalValue(previous).compareTo(after.totalValue(position)) != 0) {
+                changed.add(ProductionSuggestionMapper.toChangeDTO(after, position));
+            }
+        }
+
+        return new ProductionSuggestionChangesDTO(
+                from.version(),
+                to.version(),
+                (long) after.size(),
+                changed,
+                new ArrayList<>(positionsBefore.keySet()));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.service;
+
+import com.example.dto.productionsuggestion.ProductionSuggestionResponseDTO;
+import com.example.mapper.ProductionSuggestionMapper;
+import com.example.planning.ProductionPlan;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Every suggestion of one snapshot plan, in priority order. Rows are mapped one at a time
+ * while iterating, so exporting the whole plan never holds more than the current row.
+ */
+public final class ProductionSuggestionExport implements Iterable<ProductionSuggestionResponseDTO> {
+
+    private final long snapshotVersion;
+    private final ProductionPlan plan;
+
+    ProductionSuggestionExport(long snapshotVersion, ProductionPlan plan) {
+        this.snapshotVersion = snapshotVersion;
+        this.plan = plan;
+    }
+
+    public long snapshotVersion() {
+        return snapshotVersion;
+    }
+
+    public int size() {
+        return plan.size();
+    }
+
+    @Override
+    public Iterator<ProductionSuggestionResponseDTO> iterator() {
+        return new Iterator<>() {
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return position < plan.size();
+            }
+
+            @Override
+            public ProductionSuggestionResponseDTO next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return ProductionSuggestionMapper.toResponseDTO(plan, position++);
+            }
+        };
+    }
+}
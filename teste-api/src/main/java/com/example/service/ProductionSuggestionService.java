@@ -1,43 +1,264 @@
 package com.example.service;
 
-import com.example.dto.PageResponse;
+import com.example.dto.productionsuggestion.ProductionAnalysisDTO;
+import com.example.dto.productionsuggestion.ProductionSuggestionPageResponse;
 import com.example.dto.productionsuggestion.ProductionSuggestionResponseDTO;
-import com.example.entity.ProductionSuggestion;
+import com.example.dto.productionsuggestion.RawMaterialShadowPriceDTO;
+import com.example.dto.productionsuggestion.SimulationRequestDTO;
+import com.example.dto.productionsuggestion.SimulationResponseDTO;
+import com.example.dto.productionsuggestion.SimulationResultDTO;
+import com.example.dto.productionsuggestion.SimulationScenarioDTO;
+import com.example.exception.InvalidRequestException;
+import com.example.filter.Cursor;
 import com.example.mapper.ProductionSuggestionMapper;
-import com.example.repository.ProductionSuggestionRepository;
-import io.quarkus.panache.common.Page;
+import com.example.planning.BomMatrix;
+import com.example.planning.OptimalProductionPlanner;
+import com.example.planning.PlanAnalysis;
+import com.example.planning.PlanAnalyzer;
+import com.example.planning.PlanningStrategy;
+import com.example.planning.ProductionPlan;
+import com.example.planning.Scenario;
+import com.example.planning.ScenarioSimulator;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @ApplicationScoped
 public class ProductionSuggestionService {
 
+    private static final String CURSOR_LISTING = "production-suggestions";
+    private static final Comparator<Integer> RANK_ORDER = Comparator.naturalOrder();
+
+    @Inject
+    ProductionSuggestionSnapshots snapshots;
+
+    @Inject
+    OptimalProductionPlanner optimalProductionPlanner;
+
     @Inject
-    ProductionSuggestionRepository productionSuggestionRepository;
+    ScenarioSimulator scenarioSimulator;
 
-    public PageResponse<ProductionSuggestionResponseDTO> getProductionSuggestions(
+    @Inject
+    PlanAnalyzer planAnalyzer;
+
+    public ProductionSuggestionPageResponse getProductionSuggestions(
             int pageNumber,
             int pageSize,
             String searchName,
-            String sortDirection) {
+            String sortDirection,
+            String strategy,
+            Long snapshotVersion,
+            String cursor) {
+
+        PlanningStrategy planningStrategy = PlanningStrategy.fromParameter(strategy);
+        String term = searchName == null || searchName.trim().isEmpty() ? "" : searchName.toLowerCase(Locale.ROOT);
+        String order = "asc".equalsIgnoreCase(sortDirection) || "desc".equalsIgnoreCase(sortDirection)
+                ? sortDirection.toLowerCase(Locale.ROOT)
+                : "rank";
 
-        long count = productionSuggestionRepository.count(searchName);
+        // A cursor pins the snapshot it was issued from and the position it stopped at
+        List<String> cursorParts = cursor == null || cursor.isEmpty()
+                ? null
+                : Cursor.decode(cursor, 6, CURSOR_LISTING, planningStrategy.name(), order, term);
+        Long version = cursorParts != null ? Long.valueOf(parseCursorNumber(cursorParts.get(4))) : snapshotVersion;
 
-        List<ProductionSuggestion> suggestions = productionSuggestionRepository
-                .findAllOrderedByPriority(Page.of(pageNumber, pageSize), searchName, sortDirection);
+        ProductionSuggestionSnapshot snapshot = version != null
+                ? snapshots.get(version)
+                : snapshots.current();
+        ProductionPlan plan = plan(snapshot, planningStrategy);
+        Comparator<Integer> comparator = positionOrder(plan, order);
+        List<Integer> positions = selectPositions(snapshot, plan, term, comparator);
 
-        List<ProductionSuggestionResponseDTO> suggestionDTOs = suggestions.stream()
-                .map(ProductionSuggestionMapper::toResponseDTO)
+        int from;
+        if (cursor == null) {
+            from = (int) Math.min((long) pageNumber * pageSize, positions.size());
+        } else if (cursorParts == null) {
+            from = 0;
+        } else {
+            int found = Collections.binarySearch(positions, (int) parseCursorNumber(cursorParts.get(5)), comparator);
+            from = found >= 0 ? found + 1 : -found - 1;
+        }
+        int to = Math.min(from + pageSize, positions.size());
+
+        List<ProductionSuggestionResponseDTO> suggestionDTOs = positions.subList(from, to).stream()
+                .map(position -> ProductionSuggestionMapper.toResponseDTO(plan, position))
                 .collect(Collectors.toList());
 
-        return new PageResponse<>(
+        String nextCursor = cursor != null && to < positions.size()
+                ? Cursor.encode(CURSOR_LISTING, planningStrategy.name(), order, term, snapshot.version(), positions.get(to - 1))
+                : null;
+
+        return new ProductionSuggestionPageResponse(
                 suggestionDTOs,
-                pageNumber,
+                cursor == null ? pageNumber : 0,
                 pageSize,
-                count
+                positions.size(),
+                nextCursor,
+                snapshot.version(),
+                snapshot.refreshedAt(),
+                snapshots.age(snapshot).toMillis()
+        );
+    }
+
+    /**
+     * Plans every scenario against the current snapshot without writing anything, reporting
+     * each plan next to how its total value compares with the snapshot's own plan.
+     */
+    public SimulationResponseDTO simulate(SimulationRequestDTO request) {
+        PlanningStrategy planningStrategy = PlanningStrategy.fromParameter(request.strategy());
+        ProductionSuggestionSnapshot snapshot = snapshots.current();
+        ProductionPlan baseline = plan(snapshot, planningStrategy);
+        BigDecimal baselineValue = baseline.totalProductionValue();
+
+        List<SimulationScenarioDTO> scenarioDTOs = request.scenarios();
+        List<Scenario> scenarios = IntStream.range(0, scenarioDTOs.size())
+                .mapToObj(i -> ProductionSuggestionMapper.toScenario(scenarioDTOs.get(i), i))
+                .collect(Collectors.toList());
+        List<ProductionPlan> plans = scenarioSimulator.simulate(baseline.bom(), scenarios, planningStrategy);
+
+        int limit = request.suggestionLimit() != null ? request.suggestionLimit() : Integer.MAX_VALUE;
+        List<SimulationResultDTO> results = new ArrayList<>(plans.size());
+        for (int i = 0; i < plans.size(); i++) {
+            ProductionPlan plan = plans.get(i);
+            BigDecimal totalValue = plan.totalProductionValue();
+            List<ProductionSuggestionResponseDTO> suggestions = IntStream.range(0, Math.min(limit, plan.size()))
+                    .mapToObj(position -> ProductionSuggestionMapper.toResponseDTO(plan, position))
+                    .collect(Collectors.toList());
+            results.add(new SimulationResultDTO(
+                    scenarios.get(i).name(),
+                    suggestions,
+                    totalValue,
+                    totalValue.subtract(baselineValue)));
+        }
+
+        return new SimulationResponseDTO(snapshot.version(), baselineValue, results);
+    }
+
+    /**
+     * Whole plan of a snapshot for streaming exports, without paging.
+     */
+    public ProductionSuggestionExport exportProductionSuggestions(String strategy, Long snapshotVersion) {
+        PlanningStrategy planningStrategy = PlanningStrategy.fromParameter(strategy);
+        ProductionSuggestionSnapshot snapshot = snapshotVersion != null
+                ? snapshots.get(snapshotVersion)
+                : snapshots.current();
+        return new ProductionSuggestionExport(snapshot.version(), plan(snapshot, planningStrategy));
+    }
+
+    /**
+     * Limiting raw material of every suggested product and shadow price of every raw material,
+     * with the raw materials worth restocking first.
+     */
+    public ProductionAnalysisDTO getProductionAnalysis(String strategy, Long snapshotVersion) {
+        PlanningStrategy planningStrategy = PlanningStrategy.fromParameter(strategy);
+        ProductionSuggestionSnapshot snapshot = snapshotVersion != null
+                ? snapshots.get(snapshotVersion)
+                : snapshots.current();
+        PlanAnalysis analysis = snapshot.analysis(plan(snapshot, planningStrategy), planAnalyzer::analyze);
+        BomMatrix bom = analysis.plan().bom();
+
+        List<RawMaterialShadowPriceDTO> rawMaterials = IntStream.range(0, bom.materialCount())
+                .filter(material -> bom.materialIndexOf(bom.materialId(material)) == material)
+                .boxed()
+                .sorted(restockOrder(analysis))
+                .map(material -> ProductionSuggestionMapper.toShadowPriceDTO(analysis, material))
+                .collect(Collectors.toList());
+
+        return new ProductionAnalysisDTO(
+                snapshot.version(),
+                analysis.shadowPricesOptimal(),
+                IntStream.range(0, analysis.plan().size())
+                        .mapToObj(position -> ProductionSuggestionMapper.toBottleneckDTO(analysis, position))
+                        .collect(Collectors.toList()),
+                rawMaterials
         );
     }
+
+    ProductionPlan plan(ProductionSuggestionSnapshot snapshot, PlanningStrategy strategy) {
+        return switch (strategy) {
+            case GREEDY -> snapshot.greedyPlan();
+            case OPTIMAL -> snapshot.optimalPlan(optimalProductionPlanner::plan);
+        };
+    }
+
+    /**
+     * Plan positions matching the search, in the requested order. Names are matched through
+     * the snapshot's trigram index, like the product and raw material searches, but matches
+     * keep the plan order, which cursors seek by. Without search or sorting the positions are
+     * served from a view over the plan, so a page never touches the rest.
+     */
+    private List<Integer> selectPositions(ProductionSuggestionSnapshot snapshot, ProductionPlan plan, String term,
+                                          Comparator<Integer> comparator) {
+        List<Integer> positions;
+
+        if (!term.isEmpty()) {
+            Set<Long> matching = new HashSet<>(snapshot.productNames().search(term));
+            positions = IntStream.range(0, plan.size())
+                    .filter(position -> matching.contains((long) plan.product(position)))
+                    .boxed()
+                    .collect(Collectors.toCollection(ArrayList::new));
+        } else {
+            positions = new AbstractList<>() {
+                @Override
+                public Integer get(int index) {
+                    return index;
+                }
+
+                @Override
+                public int size() {
+                    return plan.size();
+                }
+            };
+        }
+
+        if (comparator != RANK_ORDER) {
+            positions = new ArrayList<>(positions);
+            positions.sort(comparator);
+        }
+
+        return positions;
+    }
+
+    private static Comparator<Integer> positionOrder(ProductionPlan plan, String order) {
+        if ("rank".equals(order)) {
+            return RANK_ORDER;
+        }
+        BomMatrix bom = plan.bom();
+        Comparator<Integer> byValue = Comparator.comparingLong(position -> bom.productValue(plan.product(position)));
+        if ("desc".equals(order)) {
+            byValue = byValue.reversed();
+        }
+        return byValue.thenComparing(RANK_ORDER);
+    }
+
+    /**
+     * Highest shadow price first, then the raw materials limiting the most products.
+     */
+    private static Comparator<Integer> restockOrder(PlanAnalysis analysis) {
+        BomMatrix bom = analysis.plan().bom();
+        Comparator<Integer> byShadowPrice = Comparator.comparingDouble(analysis::shadowPrice);
+        Comparator<Integer> byLimitedProducts = Comparator.comparingInt(analysis::limitedProducts);
+        return byShadowPrice.reversed()
+                .thenComparing(byLimitedProducts.reversed())
+                .thenComparingLong(bom::materialId);
+    }
+
+    private static long parseCursorNumber(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+    }
 }
@@ -0,0 +1,114 @@
+package com.example.service;
+
+import com.example.filter.NgramIndex;
+import com.example.planning.BomMatrix;
+import com.example.planning.PlanAnalysis;
+import com.example.planning.ProductionPlan;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Immutable, versioned view of the production suggestions. Every page, count and search of
+ * a request is answered from one snapshot, so paging stays consistent while stock changes.
+ */
+public final class ProductionSuggestionSnapshot {
+
+    private final long version;
+    private final Instant refreshedAt;
+    private final ProductionPlan greedyPlan;
+    private final AtomicReference<ProductionPlan> optimalPlan;
+    private final Map<ProductionPlan, PlanAnalysis> analyses;
+    private final AtomicReference<NgramIndex> productNames;
+
+    ProductionSuggestionSnapshot(long version, Instant refreshedAt, ProductionPlan greedyPlan) {
+        this(version, refreshedAt, greedyPlan, new AtomicReference<>(), new ConcurrentHashMap<>(),
+                new AtomicReference<>());
+    }
+
+    private ProductionSuggestionSnapshot(long version, Instant refreshedAt, ProductionPlan greedyPlan,
+                                         AtomicReference<ProductionPlan> optimalPlan,
+                                         Map<ProductionPlan, PlanAnalysis> analyses,
+                                         AtomicReference<NgramIndex> productNames) {
+        this.version = version;
+        this.refreshedAt = refreshedAt;
+        this.greedyPlan = greedyPlan;
+        this.optimalPlan = optimalPlan;
+        this.analyses = analyses;
+        this.productNames = productNames;
+    }
+
+    /**
+     * Same snapshot, confirmed to still match the catalog at the given instant.
+     */
+    ProductionSuggestionSnapshot confirmedAt(Instant instant) {
+        return new ProductionSuggestionSnapshot(version, instant, greedyPlan, optimalPlan, analyses, productNames);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * When the snapshot was last known to match the catalog.
+     */
+    public Instant refreshedAt() {
+        return refreshedAt;
+    }
+
+    public ProductionPlan greedyPlan() {
+        return greedyPlan;
+    }
+
+    /**
+     * Optimal plan for this snapshot, computed once on first use so that every page of it
+     * comes from the same search.
+     */
+    public ProductionPlan optimalPlan(Function<BomMatrix, ProductionPlan> planner) {
+        ProductionPlan plan = optimalPlan.get();
+        if (plan != null) {
+            return plan;
+        }
+        synchronized (optimalPlan) {
+            plan = optimalPlan.get();
+            if (plan == null) {
+                plan = planner.apply(greedyPlan.bom());
+                optimalPlan.set(plan);
+            }
+            return plan;
+        }
+    }
+
+    /**
+     * Bottleneck analysis of one of this snapshot's plans, computed once per plan.
+     */
+    public PlanAnalysis analysis(ProductionPlan plan, Function<ProductionPlan, PlanAnalysis> analyzer) {
+        return analyses.computeIfAbsent(plan, analyzer);
+    }
+
+    /**
+     * Trigram index over the names of this snapshot's products, keyed by product index,
+     * built once on the first search.
+     */
+    public NgramIndex productNames() {
+        NgramIndex index = productNames.get();
+        if (index != null) {
+            return index;
+        }
+        synchronized (productNames) {
+            index = productNames.get();
+            if (index == null) {
+                BomMatrix bom = greedyPlan.bom();
+                index = new NgramIndex();
+                for (int product = 0; product < bom.productCount(); product++) {
+                    index.put((long) product, bom.productName(product));
+                }
+                productNames.set(index);
+            }
+            return index;
+        }
+    }
+}
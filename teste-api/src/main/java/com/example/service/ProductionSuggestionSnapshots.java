@@ -0,0 +1,137 @@
+package com.example.service;
+
+import com.example.event.CatalogChangedEvent;
+import com.example.exception.ResourceNotFoundException;
+import com.example.exception.SnapshotExpiredException;
+import com.example.mapper.ProductionSuggestionMapper;
+import com.example.planning.ProductionPlan;
+import com.example.repository.ProductionSuggestionSnapshotRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.IntStream;
+
+/**
+ * Holds the recent production suggestion snapshots. In snapshot mode reads are served from
+ * the current snapshot, which a background job refreshes after catalog writes and which is
+ * never older than the configured staleness bound; otherwise every read refreshes it first.
+ */
+@ApplicationScoped
+public class ProductionSuggestionSnapshots {
+
+    private static final Logger LOG = Logger.getLogger(ProductionSuggestionSnapshots.class);
+
+    @Inject
+    PlanningCatalog planningCatalog;
+
+    @Inject
+    ProductionSuggestionSnapshotRepository snapshotRepository;
+
+    @ConfigProperty(name = "production-suggestions.snapshot.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "production-suggestions.snapshot.max-staleness", defaultValue = "30s")
+    Duration maxStaleness;
+
+    @ConfigProperty(name = "production-suggestions.snapshot.history-size", defaultValue = "16")
+    int historySize;
+
+    @ConfigProperty(name = "production-suggestions.snapshot.persist", defaultValue = "false")
+    boolean persist;
+
+    private final ConcurrentSkipListMap<Long, ProductionSuggestionSnapshot> history = new ConcurrentSkipListMap<>();
+    private volatile ProductionSuggestionSnapshot current;
+    private volatile boolean stale = true;
+    private volatile long lastVersion = -1;
+
+    public ProductionSuggestionSnapshot current() {
+        ProductionSuggestionSnapshot snapshot = current;
+        if (enabled && snapshot != null && age(snapshot).compareTo(maxStaleness) <= 0) {
+            return snapshot;
+        }
+        return refresh();
+    }
+
+    /**
+     * Returns a previous snapshot so a client can keep paging through the same ranking.
+     */
+    public ProductionSuggestionSnapshot get(long version) {
+        ProductionSuggestionSnapshot snapshot = history.get(version);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        if (version < 1 || version > lastVersion) {
+            throw new ResourceNotFoundException("Snapshot", version);
+        }
+        throw new SnapshotExpiredException(version);
+    }
+
+    public Duration age(ProductionSuggestionSnapshot snapshot) {
+        return Duration.between(snapshot.refreshedAt(), Instant.now());
+    }
+
+    @Scheduled(every = "${production-suggestions.snapshot.refresh-interval:5s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @ActivateRequestContext
+    void refreshInBackground() {
+        if (enabled && stale) {
+            refresh();
+        }
+    }
+
+    void onCatalogChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CatalogChangedEvent event) {
+        stale = true;
+    }
+
+    synchronized ProductionSuggestionSnapshot refresh() {
+        stale = false;
+        ProductionPlan plan = planningCatalog.greedyPlan();
+        Instant now = Instant.now();
+        ProductionSuggestionSnapshot previous = current;
+        if (previous != null && previous.greedyPlan() == plan) {
+            current = previous.confirmedAt(now);
+            history.put(current.version(), current);
+            return current;
+        }
+
+        ProductionSuggestionSnapshot snapshot = new ProductionSuggestionSnapshot(nextVersion(), now, plan);
+        history.put(snapshot.version(), snapshot);
+        while (history.size() > historySize) {
+            history.pollFirstEntry();
+        }
+        current = snapshot;
+        if (persist) {
+            store(snapshot, history.firstKey());
+        }
+        LOG.debugf("Production suggestion snapshot %d taken with %d suggestions", snapshot.version(), plan.size());
+        return snapshot;
+    }
+
+    private long nextVersion() {
+        if (lastVersion < 0) {
+            lastVersion = persist
+                    ? QuarkusTransaction.requiringNew().call(() -> snapshotRepository.findLatestVersion().orElse(0L))
+                    : 0L;
+        }
+        return ++lastVersion;
+    }
+
+    private void store(ProductionSuggestionSnapshot snapshot, long oldestRetained) {
+        ProductionPlan plan = snapshot.greedyPlan();
+        QuarkusTransaction.requiringNew().run(() -> {
+            snapshotRepository.deleteOlderThan(oldestRetained);
+            snapshotRepository.persist(IntStream.range(0, plan.size())
+                    .mapToObj(position -> ProductionSuggestionMapper.toSnapshotEntry(snapshot, position)));
+        });
+    }
+}
@@ -4,60 +4,105 @@ import com.example.dto.PageResponse;
 import com.example.dto.rawmaterial.RawMaterialRequestDTO;
 import com.example.dto.rawmaterial.RawMaterialResponseDTO;
 import com.example.entity.RawMaterial;
+import com.example.entity.StockMovement;
+import com.example.event.CatalogChangedEvent;
 import com.example.exception.DuplicateResourceException;
+import com.example.exception.InvalidRequestException;
 import com.example.exception.ReferentialIntegrityException;
 import com.example.exception.ResourceNotFoundException;
-import com.example.filter.PaginationFilter;
-import com.example.filter.SearchFilter;
-import com.example.filter.SortFilter;
+import com.example.filter.KeysetFilter;
+import com.example.filter.PagedResult;
+import com.example.filter.SortSpec;
 import com.example.mapper.RawMaterialMapper;
 import com.example.repository.RawMaterialRepository;
-import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 
+import java.math.BigDecimal;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Function;
 
 @ApplicationScoped
 public class RawMaterialService {
 
+    private static final Set<String> SORT_FIELDS = Set.of("name", "stockQuantity", "id");
+
     @Inject
     RawMaterialRepository rawMaterialRepository;
 
     @Inject
     com.example.repository.ProductRawMaterialRepository productRawMaterialRepository;
 
-    public PageResponse<RawMaterialResponseDTO> findAll(int pageNumber, int pageSize, String search, String sortBy, String sortDirection) {
-        PanacheQuery<RawMaterial> query = rawMaterialRepository.findAll();
-
-        SearchFilter<RawMaterial> searchFilter = SearchFilter.byField(rawMaterialRepository, "name", search);
-        query = searchFilter.apply(query);
-
-        long totalElements = query.count();
+    @Inject
+    StockLedger stockLedger;
 
-        PaginationFilter<RawMaterial> paginationFilter = PaginationFilter.of(pageNumber, pageSize);
-        query = paginationFilter.apply(query);
+    @Inject
+    StockWriteBehind stockWriteBehind;
 
-        List<RawMaterial> rawMaterials = query.list();
+    @Inject
+    Event<CatalogChangedEvent> catalogChanged;
 
-        if ("stockQuantity".equals(sortBy) && sortDirection != null && !sortDirection.isEmpty()) {
-            SortFilter.by(RawMaterial::getStockQuantity, sortDirection).apply(rawMaterials);
+    @Inject
+    @CacheName("raw-material-responses")
+    Cache rawMaterialResponses;
+
+    public PageResponse<RawMaterialResponseDTO> findAll(int pageNumber, int pageSize, String search, String sortBy,
+                                                        String sortDirection, String cursor, boolean withTotal) {
+        SortSpec sort = SortSpec.parse(sortBy, sortDirection, SORT_FIELDS);
+        if (cursor != null) {
+            return findAllByCursor(pageSize, search, sort, sortDirection, cursor, withTotal);
         }
 
-        List<RawMaterialResponseDTO> content = rawMaterials.stream()
-                .map(RawMaterialMapper::toResponseDTO)
-                .collect(Collectors.toList());
+        PagedResult<RawMaterialResponseDTO> page = rawMaterialRepository.findPage(search, sort, pageNumber, pageSize,
+                withTotal);
+        return new PageResponse<>(page.content(), pageNumber, pageSize, page.totalElements());
+    }
 
-        return new PageResponse<>(content, pageNumber, pageSize, totalElements);
+    private PageResponse<RawMaterialResponseDTO> findAllByCursor(int pageSize, String search, SortSpec sort,
+                                                                 String sortDirection, String cursor, boolean withTotal) {
+        if (sort.fields().size() > 1) {
+            throw new InvalidRequestException("Cursor pagination supports a single sort field");
+        }
+        SortSpec.Field field = sort.isEmpty()
+                ? new SortSpec.Field("id", SortSpec.direction(sortDirection))
+                : sort.fields().get(0);
+        KeysetFilter<RawMaterialResponseDTO> keysetFilter = switch (field.name()) {
+            case "name" -> KeysetFilter.byField(rawMaterialRepository, RawMaterialResponseDTO.class, "raw-materials",
+                    "name", RawMaterialResponseDTO::name, Function.identity(), RawMaterialResponseDTO::id,
+                    field.direction());
+            case "stockQuantity" -> KeysetFilter.byField(rawMaterialRepository, RawMaterialResponseDTO.class,
+                    "raw-materials", "stockQuantity", RawMaterialResponseDTO::stockQuantity, BigDecimal::new,
+                    RawMaterialResponseDTO::id, field.direction());
+            default -> KeysetFilter.byId(rawMaterialRepository, RawMaterialResponseDTO.class, "raw-materials",
+                    RawMaterialResponseDTO::id, field.direction());
+        };
+        keysetFilter.search("name", search);
+
+        Long totalElements = withTotal ? keysetFilter.count() : null;
+        List<RawMaterialResponseDTO> content = keysetFilter.list(cursor, pageSize);
+
+        return new PageResponse<>(content, 0, pageSize, totalElements, keysetFilter.nextCursor());
     }
 
     public RawMaterialResponseDTO findById(Long id) {
-        RawMaterial rawMaterial = rawMaterialRepository.findByIdOptional(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Raw Material", id));
-        return RawMaterialMapper.toResponseDTO(rawMaterial);
+        RawMaterialResponseDTO response = rawMaterialResponses.<Long, RawMaterialResponseDTO>get(id, key -> {
+            RawMaterial rawMaterial = rawMaterialRepository.findByIdOptional(key)
+                    .orElseThrow(() -> new ResourceNotFoundException("Raw Material", key));
+            return RawMaterialMapper.toResponseDTO(rawMaterial);
+        }).await().indefinitely();
+        if (!stockWriteBehind.isWriteBehind(id)) {
+            return response;
+        }
+        return new RawMaterialResponseDTO(response.id(), response.name(),
+                response.stockQuantity().add(stockWriteBehind.unflushed(id)));
     }
 
     @Transactional
@@ -67,7 +112,10 @@ public class RawMaterialService {
         }
         
         RawMaterial rawMaterial = RawMaterialMapper.toEntity(dto);
+        rawMaterialRepository.registerName(rawMaterial.getName());
         rawMaterialRepository.persist(rawMaterial);
+        stockLedger.record(rawMaterial.getId(), rawMaterial.getStockQuantity(), StockMovement.Reason.INITIAL);
+        catalogChanged.fire(CatalogChangedEvent.rawMaterial(rawMaterial.getId()));
         return RawMaterialMapper.toResponseDTO(rawMaterial);
     }
 
@@ -80,7 +128,19 @@ public class RawMaterialService {
             throw new DuplicateResourceException("Raw Material", "name", dto.name());
         }
         
+        // The new quantity replaces the unflushed movements, so they are applied first
+        BigDecimal unflushed = stockWriteBehind.drain(id);
+        if (unflushed.signum() != 0) {
+            rawMaterial.setStockQuantity(rawMaterial.getStockQuantity().add(unflushed));
+            stockLedger.record(id, unflushed, StockMovement.Reason.MOVEMENT);
+        }
+
+        BigDecimal delta = dto.stockQuantity().subtract(rawMaterial.getStockQuantity());
+        rawMaterialRepository.registerName(dto.name());
         RawMaterialMapper.updateEntityFromDTO(rawMaterial, dto);
+        stockLedger.record(id, delta, StockMovement.Reason.ADJUSTMENT);
+        stockWriteBehind.adjusted(id, delta);
+        catalogChanged.fire(CatalogChangedEvent.rawMaterial(id));
         return RawMaterialMapper.toResponseDTO(rawMaterial);
     }
 
@@ -94,5 +154,16 @@ public class RawMaterialService {
         }
 
         rawMaterialRepository.delete(rawMaterial);
+        catalogChanged.fire(CatalogChangedEvent.rawMaterial(id));
+    }
+
+    /**
+     * Evicts the cached responses once a write is committed, so a read that started before
+     * the commit cannot put the old version back.
+     */
+    void onCatalogChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CatalogChangedEvent event) {
+        if (event.type() == CatalogChangedEvent.Type.RAW_MATERIAL) {
+            event.ids().forEach(id -> rawMaterialResponses.invalidate(id).await().indefinitely());
+        }
     }
 }
@@ -0,0 +1,111 @@
+package com.example.service;
+
+import com.example.dto.PageResponse;
+import com.example.dto.stockledger.StockLedgerEntryDTO;
+import com.example.dto.stockledger.StockLevelDTO;
+import com.example.entity.StockMovement;
+import com.example.entity.StockSnapshot;
+import com.example.exception.InvalidRequestException;
+import com.example.exception.ResourceNotFoundException;
+import com.example.filter.PagedResult;
+import com.example.mapper.StockLedgerMapper;
+import com.example.repository.RawMaterialRepository;
+import com.example.repository.StockMovementRepository;
+import com.example.repository.StockSnapshotRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only history of the stock of every raw material. Each write that changes a stock
+ * quantity records its delta here in the same transaction, and {@link StockLedgerCompactor}
+ * folds older movements into per-material snapshots, so the stock at any instant within the
+ * retention window is the latest snapshot before it plus the movements it did not fold.
+ *
+ * <p>The ledger is history, not the source of the current stock: {@code stock_quantity} is
+ * still updated in place next to each entry, because the conditional updates that keep stock
+ * from going negative check that row. Every movement therefore still writes the raw
+ * material's row as well as appending here, so the ledger adds an audit trail but does not
+ * take contention off popular raw materials; {@link StockWriteBehind} is what batches those.
+ * The movements table is not partitioned either; the retention window bounds its size instead.
+ */
+@ApplicationScoped
+public class StockLedger {
+
+    @Inject
+    StockMovementRepository stockMovementRepository;
+
+    @Inject
+    StockSnapshotRepository stockSnapshotRepository;
+
+    @Inject
+    RawMaterialRepository rawMaterialRepository;
+
+    @ConfigProperty(name = "stock-ledger.retention", defaultValue = "P90D")
+    Duration retention;
+
+    /**
+     * Appends a movement; must be called in the transaction that changes the stock.
+     */
+    public void record(Long rawMaterialId, BigDecimal delta, StockMovement.Reason reason) {
+        if (delta.signum() != 0) {
+            stockMovementRepository.persist(new StockMovement(rawMaterialId, delta, reason, now()));
+        }
+    }
+
+    public PageResponse<StockLedgerEntryDTO> findByRawMaterialId(Long rawMaterialId, int pageNumber, int pageSize,
+                                                                 boolean withTotal) {
+        requireRawMaterial(rawMaterialId);
+
+        PagedResult<StockMovement> page = stockMovementRepository.findPageByRawMaterialId(rawMaterialId, pageNumber,
+                pageSize, withTotal);
+        List<StockLedgerEntryDTO> content = page.content().stream()
+                .map(StockLedgerMapper::toEntryDTO)
+                .collect(Collectors.toList());
+
+        return new PageResponse<>(content, pageNumber, pageSize, page.totalElements());
+    }
+
+    /**
+     * Stock of the raw material at the given instant, or now when it is {@code null}.
+     */
+    public StockLevelDTO stockAt(Long rawMaterialId, Instant at) {
+        requireRawMaterial(rawMaterialId);
+
+        Instant now = now();
+        Instant instant = at == null || at.isAfter(now) ? now : at.truncatedTo(ChronoUnit.MICROS);
+        if (instant.isBefore(now.minus(retention))) {
+            throw new InvalidRequestException(String.format("Stock history is only kept for %s", retention));
+        }
+
+        Optional<StockSnapshot> snapshot = stockSnapshotRepository.findLatestCoveringUntil(rawMaterialId, instant);
+        BigDecimal base = snapshot.map(StockSnapshot::getStockQuantity).orElse(BigDecimal.ZERO);
+        // Movements folded by later snapshots, e.g. committed after this one, still count
+        Long snapshotId = snapshot.map(StockSnapshot::getId).orElse(0L);
+        BigDecimal tail = stockMovementRepository.sumDeltasAfterSnapshot(rawMaterialId, snapshotId, instant);
+
+        return new StockLevelDTO(rawMaterialId, instant, base.add(tail));
+    }
+
+    /**
+     * Current instant at the microsecond precision of the ledger's timestamp columns, so a
+     * stored timestamp never rounds past the instant it was compared with.
+     */
+    static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private void requireRawMaterial(Long rawMaterialId) {
+        if (!rawMaterialRepository.existsById(rawMaterialId)) {
+            throw new ResourceNotFoundException("Raw Material", rawMaterialId);
+        }
+    }
+}
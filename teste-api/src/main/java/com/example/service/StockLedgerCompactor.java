@@ -0,0 +1,77 @@
+package com.example.service;
+
+import com.example.entity.StockSnapshot;
+import com.example.repository.StockMovementRepository;
+import com.example.repository.StockSnapshotRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Folds the stock ledger into snapshots in the background. Each run snapshots every raw
+ * material with movements no snapshot folded yet, created up to a short lag behind the clock,
+ * and marks those movements with the snapshot. Movements are picked by that mark rather than
+ * by their timestamp, which is taken before commit, so a transaction committing after a run
+ * is folded by the next one. Movements and snapshots that fell out of the retention window
+ * are then dropped.
+ */
+@ApplicationScoped
+public class StockLedgerCompactor {
+
+    private static final Logger LOG = Logger.getLogger(StockLedgerCompactor.class);
+
+    @Inject
+    StockMovementRepository stockMovementRepository;
+
+    @Inject
+    StockSnapshotRepository stockSnapshotRepository;
+
+    @ConfigProperty(name = "stock-ledger.compaction.lag", defaultValue = "1m")
+    Duration lag;
+
+    @ConfigProperty(name = "stock-ledger.retention", defaultValue = "P90D")
+    Duration retention;
+
+    @Scheduled(every = "${stock-ledger.compaction.interval:1h}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void compactInBackground() {
+        compact();
+    }
+
+    /**
+     * Runs one compaction and returns how many snapshots it took.
+     */
+    public int compact() {
+        Instant now = StockLedger.now();
+        Instant cutoff = now.minus(lag);
+        Instant horizon = now.minus(retention);
+        return QuarkusTransaction.requiringNew().call(() -> {
+            List<Long> rawMaterialIds = stockMovementRepository.findUnfoldedRawMaterialIds(cutoff);
+            Map<Long, BigDecimal> latest = rawMaterialIds.isEmpty()
+                    ? Map.of()
+                    : stockSnapshotRepository.findLatestQuantities(rawMaterialIds);
+            for (Long rawMaterialId : rawMaterialIds) {
+                StockSnapshot snapshot = new StockSnapshot(rawMaterialId,
+                        latest.getOrDefault(rawMaterialId, BigDecimal.ZERO), cutoff);
+                stockSnapshotRepository.persist(snapshot);
+                BigDecimal folded = stockMovementRepository.fold(rawMaterialId, cutoff, snapshot.getId());
+                snapshot.setStockQuantity(snapshot.getStockQuantity().add(folded));
+            }
+            int taken = rawMaterialIds.size();
+            long movements = stockMovementRepository.deleteCoveredBefore(horizon);
+            long snapshots = stockSnapshotRepository.deleteSupersededBefore(horizon);
+            LOG.debugf("Stock ledger compacted: %d snapshots taken, %d movements and %d snapshots dropped",
+                    taken, movements, snapshots);
+            return taken;
+        });
+    }
+}
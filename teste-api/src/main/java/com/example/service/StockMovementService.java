@@ -0,0 +1,130 @@
+package com.example.service;
+
+import com.example.dto.stockmovement.StockMovementDTO;
+import com.example.dto.stockmovement.StockMovementResultDTO;
+import com.example.dto.stockmovement.StockMovementsRequestDTO;
+import com.example.dto.stockmovement.StockMovementsResponseDTO;
+import com.example.entity.RawMaterial;
+import com.example.entity.StockMovement;
+import com.example.event.CatalogChangedEvent;
+import com.example.exception.ResourceNotFoundException;
+import com.example.repository.RawMaterialRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.validation.Valid;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies signed stock movements, such as the ones sent by warehouse scanners, without the
+ * caller reading the stock first.
+ */
+@ApplicationScoped
+public class StockMovementService {
+
+    static final BigDecimal MAX_STOCK = new BigDecimal("99999999.99");
+
+    @Inject
+    RawMaterialRepository rawMaterialRepository;
+
+    @Inject
+    StockLedger stockLedger;
+
+    @Inject
+    StockWriteBehind stockWriteBehind;
+
+    @Inject
+    Event<CatalogChangedEvent> catalogChanged;
+
+    /**
+     * Applies the movements in the order given. A movement that would take the stock below
+     * zero, or above what the column holds, is rejected on its own and the others still apply.
+     *
+     * <p>The raw materials are read once, locked for update so no concurrent write is lost,
+     * and the new quantities and their ledger entries are flushed as JDBC batches when the
+     * transaction commits. Write-behind raw materials are neither locked nor written: their
+     * movements are reserved atomically against the available stock kept by
+     * {@link StockWriteBehind} and reach its unflushed counter once the transaction commits.
+     */
+    @Transactional
+    public StockMovementsResponseDTO apply(@Valid StockMovementsRequestDTO dto) {
+        Map<Boolean, Set<Long>> idsByWriteBehind = dto.movements().stream()
+                .map(StockMovementDTO::rawMaterialId)
+                .distinct()
+                .collect(Collectors.partitioningBy(stockWriteBehind::isWriteBehind, Collectors.toSet()));
+        Map<Long, RawMaterial> rawMaterials = new HashMap<>();
+        if (!idsByWriteBehind.get(false).isEmpty()) {
+            rawMaterialRepository.findByIdsForUpdate(idsByWriteBehind.get(false))
+                    .forEach(rawMaterial -> rawMaterials.put(rawMaterial.getId(), rawMaterial));
+        }
+        Set<Long> writeBehindIds = new HashSet<>();
+        if (!idsByWriteBehind.get(true).isEmpty()) {
+            rawMaterialRepository.findByIds(idsByWriteBehind.get(true))
+                    .forEach(rawMaterial -> writeBehindIds.add(rawMaterial.getId()));
+        }
+
+        List<StockMovementResultDTO> results = new ArrayList<>(dto.movements().size());
+        Set<Long> changed = new LinkedHashSet<>();
+        int applied = 0;
+        for (StockMovementDTO movement : dto.movements()) {
+            Long rawMaterialId = movement.rawMaterialId();
+            RawMaterial rawMaterial = rawMaterials.get(rawMaterialId);
+            if (rawMaterial == null && !writeBehindIds.contains(rawMaterialId)) {
+                results.add(rejected(movement, null,
+                        new ResourceNotFoundException("Raw Material", rawMaterialId).getMessage()));
+                continue;
+            }
+            if (rawMaterial == null) {
+                StockMovementResultDTO result = reserve(movement);
+                applied += result.applied() ? 1 : 0;
+                results.add(result);
+                continue;
+            }
+
+            BigDecimal current = rawMaterial.getStockQuantity();
+            BigDecimal stock = current.add(movement.delta());
+            if (stock.signum() < 0) {
+                results.add(rejected(movement, current, "Stock would become negative"));
+            } else if (stock.compareTo(MAX_STOCK) > 0) {
+                results.add(rejected(movement, current, "Stock would exceed " + MAX_STOCK));
+            } else {
+                rawMaterial.setStockQuantity(stock);
+                stockLedger.record(rawMaterialId, movement.delta(), StockMovement.Reason.MOVEMENT);
+                changed.add(rawMaterialId);
+                applied++;
+                results.add(new StockMovementResultDTO(rawMaterialId, movement.delta(), true, stock, null));
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            catalogChanged.fire(CatalogChangedEvent.rawMaterials(changed));
+        }
+        return new StockMovementsResponseDTO(applied, results.size() - applied, results);
+    }
+
+    private StockMovementResultDTO reserve(StockMovementDTO movement) {
+        Long rawMaterialId = movement.rawMaterialId();
+        Optional<BigDecimal> stock = stockWriteBehind.reserve(rawMaterialId, movement.delta());
+        if (stock.isPresent()) {
+            return new StockMovementResultDTO(rawMaterialId, movement.delta(), true, stock.get(), null);
+        }
+        return rejected(movement, stockWriteBehind.available(rawMaterialId), movement.delta().signum() < 0
+                ? "Stock would become negative"
+                : "Stock would exceed " + MAX_STOCK);
+    }
+
+    private static StockMovementResultDTO rejected(StockMovementDTO movement, BigDecimal stockQuantity, String error) {
+        return new StockMovementResultDTO(movement.rawMaterialId(), movement.delta(), false, stockQuantity, error);
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.service;
+
+import com.example.entity.StockMovement;
+import com.example.event.CatalogChangedEvent;
+import com.example.planning.FixedPoint;
+import com.example.repository.RawMaterialRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind stock for the hot raw materials listed in
+ * {@code stock.write-behind.raw-material-ids}. Their stock movements are added to striped
+ * in-memory counters of 0.01 units, so concurrent writers never wait on the database row,
+ * and the counters are flushed every flush interval and on shutdown.
+ * Movements accepted within the last interval are lost if the process dies, which makes the
+ * interval the durability bound.
+ *
+ * <p>Each raw material also keeps its available stock in memory, loaded at startup: the
+ * stored stock plus every delta reserved since, committed or not. A movement is accepted by
+ * a compare-and-set on that value that keeps it within bounds, so concurrent movements can
+ * never overdraw the stock between them, and it reaches the unflushed counter only once its
+ * transaction commits.
+ */
+@ApplicationScoped
+public class StockWriteBehind {
+
+    private static final Logger LOG = Logger.getLogger(StockWriteBehind.class);
+
+    private static final long MAX_STOCK_UNITS = FixedPoint.toUnits(StockMovementService.MAX_STOCK);
+
+    @Inject
+    RawMaterialRepository rawMaterialRepository;
+
+    @Inject
+    StockLedger stockLedger;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    @Inject
+    Event<CatalogChangedEvent> catalogChanged;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "stock.write-behind.raw-material-ids")
+    Optional<List<Long>> rawMaterialIds;
+
+    private final Map<Long, Tracked> tracked = new ConcurrentHashMap<>();
+    private Counter dropped;
+
+    @PostConstruct
+    void init() {
+        dropped = meterRegistry.counter("stock.write-behind.dropped");
+    }
+
+    @ActivateRequestContext
+    void onStart(@Observes StartupEvent event) {
+        rawMaterialIds.filter(ids -> !ids.isEmpty()).ifPresent(ids -> QuarkusTransaction.requiringNew().run(() ->
+                rawMaterialRepository.findByIds(Set.copyOf(ids)).forEach(rawMaterial -> tracked.put(rawMaterial.getId(),
+                        new Tracked(FixedPoint.toUnits(rawMaterial.getStockQuantity()))))));
+    }
+
+    /**
+     * Whether the raw material is in write-behind mode: listed in the configuration and
+     * existing when the application started.
+     */
+    public boolean isWriteBehind(Long rawMaterialId) {
+        return tracked.containsKey(rawMaterialId);
+    }
+
+    /**
+     * Reserves the delta against the available stock of a write-behind raw material, without
+     * touching the database. Returns the available stock after it, or empty when it would go
+     * below zero or above the column's maximum. The delta is added to the unflushed counter
+     * when the current transaction commits and released if it rolls back.
+     */
+    public Optional<BigDecimal> reserve(Long rawMaterialId, BigDecimal delta) {
+        return reserve(rawMaterialId, delta, true);
+    }
+
+    /**
+     * Reserves a delta that the current transaction writes to the stored stock itself, such
+     * as a production run consuming the raw material, so it cannot take stock already
+     * reserved by accepted movements. Released if the transaction rolls back.
+     */
+    public boolean reserveStored(Long rawMaterialId, BigDecimal delta) {
+        return reserve(rawMaterialId, delta, false).isPresent();
+    }
+
+    private Optional<BigDecimal> reserve(Long rawMaterialId, BigDecimal delta, boolean unflushedOnCommit) {
+        Tracked state = tracked.get(rawMaterialId);
+        long units = FixedPoint.toUnits(delta);
+        long current;
+        long next;
+        do {
+            current = state.available.get();
+            next = current + units;
+            if (next < 0 || next > MAX_STOCK_UNITS) {
+                return Optional.empty();
+            }
+        } while (!state.available.compareAndSet(current, next));
+
+        afterCompletion(() -> {
+            if (unflushedOnCommit) {
+                state.unflushed.add(units);
+            }
+        }, () -> state.available.addAndGet(-units));
+        return Optional.of(FixedPoint.toDecimal(next));
+    }
+
+    /**
+     * Available stock of a write-behind raw material: the stored stock plus every delta
+     * reserved since, committed or not.
+     */
+    public BigDecimal available(Long rawMaterialId) {
+        return FixedPoint.toDecimal(tracked.get(rawMaterialId).available.get());
+    }
+
+    /**
+     * Records that the current transaction sets the stored stock of the raw material by
+     * {@code delta} outside of a reservation, e.g. an adjustment; the available stock follows
+     * once it commits. Does nothing for raw materials not in write-behind mode.
+     */
+    public void adjusted(Long rawMaterialId, BigDecimal delta) {
+        Tracked state = tracked.get(rawMaterialId);
+        if (state != null && delta.signum() != 0) {
+            long units = FixedPoint.toUnits(delta);
+            afterCompletion(() -> state.available.addAndGet(units), () -> {
+            });
+        }
+    }
+
+    /**
+     * Deltas committed but not flushed yet; zero for raw materials not in write-behind mode.
+     */
+    public BigDecimal unflushed(Long rawMaterialId) {
+        Tracked state = tracked.get(rawMaterialId);
+        return state == null ? BigDecimal.ZERO : FixedPoint.toDecimal(state.unflushed.sum());
+    }
+
+    /**
+     * Takes the unflushed deltas of the raw material into the current transaction, which must
+     * apply them; they are put back if it rolls back.
+     */
+    public BigDecimal drain(Long rawMaterialId) {
+        Tracked state = tracked.get(rawMaterialId);
+        if (state == null) {
+            return BigDecimal.ZERO;
+        }
+        long units = state.unflushed.sumThenReset();
+        if (units != 0) {
+            afterCompletion(() -> {
+            }, () -> state.unflushed.add(units));
+        }
+        return FixedPoint.toDecimal(units);
+    }
+
+    @Scheduled(every = "${stock.write-behind.flush-interval:200ms}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @ActivateRequestContext
+    void flushInBackground() {
+        flush();
+    }
+
+    @ActivateRequestContext
+    void onShutdown(@Observes ShutdownEvent event) {
+        flush();
+    }
+
+    /**
+     * Writes the unflushed deltas as in-place increments, each raw material in its own
+     * transaction and in id order, so one failing row does not hold back the others. Deltas
+     * whose transaction fails are kept for the next flush. Deltas of raw materials deleted in
+     * the meantime, or that the stored stock can no longer take because it was adjusted
+     * since, are dropped, logged and counted in {@code stock.write-behind.dropped}.
+     */
+    public synchronized void flush() {
+        List<Long> flushed = new ArrayList<>();
+        for (Long rawMaterialId : new TreeSet<>(tracked.keySet())) {
+            Tracked state = tracked.get(rawMaterialId);
+            long units = state.unflushed.sumThenReset();
+            if (units == 0) {
+                continue;
+            }
+            BigDecimal delta = FixedPoint.toDecimal(units);
+            Outcome outcome;
+            try {
+                outcome = QuarkusTransaction.requiringNew().call(() -> {
+                    if (rawMaterialRepository.addStock(rawMaterialId, delta)) {
+                        stockLedger.record(rawMaterialId, delta, StockMovement.Reason.MOVEMENT);
+                        return Outcome.FLUSHED;
+                    }
+                    return rawMaterialRepository.count("id", rawMaterialId) == 0 ? Outcome.DELETED : Outcome.NEGATIVE;
+                });
+            } catch (RuntimeException e) {
+                state.unflushed.add(units);
+                LOG.warnf("Write-behind stock flush of raw material %d failed, retrying on the next run: %s",
+                        rawMaterialId, e.getMessage());
+                continue;
+            }
+            switch (outcome) {
+                case FLUSHED -> flushed.add(rawMaterialId);
+                case DELETED -> {
+                    tracked.remove(rawMaterialId);
+                    dropped.increment();
+                    LOG.warnf("Dropped unflushed stock delta %s of deleted raw material %d", delta, rawMaterialId);
+                }
+                case NEGATIVE -> {
+                    state.available.addAndGet(-units);
+                    dropped.increment();
+                    LOG.errorf("Dropped unflushed stock delta %s of raw material %d, which would take the stored "
+                            + "stock below zero", delta, rawMaterialId);
+                }
+            }
+        }
+        if (!flushed.isEmpty()) {
+            catalogChanged.fire(CatalogChangedEvent.rawMaterials(flushed));
+            LOG.debugf("Flushed write-behind stock of %d raw materials", flushed.size());
+        }
+    }
+
+    private void afterCompletion(Runnable onCommit, Runnable onRollback) {
+        transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    onCommit.run();
+                } else {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    private enum Outcome {
+        FLUSHED, DELETED, NEGATIVE
+    }
+
+    /**
+     * Write-behind state of one raw material, in units of 0.01.
+     */
+    private static final class Tracked {
+        private final LongAdder unflushed = new LongAdder();
+        private final AtomicLong available;
+
+        private Tracked(long storedStock) {
+            this.available = new AtomicLong(storedStock);
+        }
+    }
+}
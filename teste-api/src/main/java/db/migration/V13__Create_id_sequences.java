@@ -0,0 +1,34 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Cria as sequences usadas pelo Hibernate para gerar IDs de produtos e matérias-primas em
+ * blocos de 50 (otimizador pooled), o que permite agrupar os INSERTs em lotes JDBC.
+ * Cada sequence começa acima do maior ID existente; como o valor depende dos dados, a
+ * migração é feita em Java em vez de SQL.
+ */
+public class V13__Create_id_sequences extends BaseJavaMigration {
+
+    static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String table : new String[] {"products", "raw_materials"}) {
+                long maxId;
+                try (ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+                    result.next();
+                    maxId = result.getLong(1);
+                }
+                // O otimizador pooled usa o bloco (valor - 50, valor]; o primeiro bloco começa após o maior ID
+                statement.execute(String.format("CREATE SEQUENCE %s_seq START WITH %d INCREMENT BY %d",
+                        table, maxId + ALLOCATION_SIZE, ALLOCATION_SIZE));
+            }
+        }
+    }
+}
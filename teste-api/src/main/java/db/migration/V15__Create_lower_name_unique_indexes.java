@@ -0,0 +1,27 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+/**
+ * Cria índices únicos em LOWER(name) para produtos e matérias-primas, usados pelas
+ * verificações de nome duplicado (sem diferenciar maiúsculas) e que passam a impedir
+ * duplicatas no próprio banco. O H2 dos testes não tem índices por expressão, então a
+ * migração só cria os índices no PostgreSQL.
+ */
+public class V15__Create_lower_name_unique_indexes extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        String database = context.getConnection().getMetaData().getDatabaseProductName();
+        if (!"PostgreSQL".equalsIgnoreCase(database)) {
+            return;
+        }
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("CREATE UNIQUE INDEX uk_products_lower_name ON products (LOWER(name))");
+            statement.execute("CREATE UNIQUE INDEX uk_raw_materials_lower_name ON raw_materials (LOWER(name))");
+        }
+    }
+}
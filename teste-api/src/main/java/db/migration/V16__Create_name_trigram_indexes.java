@@ -0,0 +1,29 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+/**
+ * Habilita o pg_trgm e cria índices GIN de trigramas em LOWER(name) para produtos e
+ * matérias-primas, usados pela busca por trecho do nome (LIKE '%termo%') e pela ordenação
+ * por similaridade. No H2 dos testes a busca usa um índice em memória, então a migração só
+ * roda no PostgreSQL.
+ */
+public class V16__Create_name_trigram_indexes extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        String database = context.getConnection().getMetaData().getDatabaseProductName();
+        if (!"PostgreSQL".equalsIgnoreCase(database)) {
+            return;
+        }
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            statement.execute("CREATE INDEX idx_products_name_trgm ON products USING gin (LOWER(name) gin_trgm_ops)");
+            statement.execute("CREATE INDEX idx_raw_materials_name_trgm ON raw_materials "
+                    + "USING gin (LOWER(name) gin_trgm_ops)");
+        }
+    }
+}
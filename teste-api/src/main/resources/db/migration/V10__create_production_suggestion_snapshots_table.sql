@@ -0,0 +1,14 @@
+-- Snapshots materializados das sugestões de produção (opcional, ver
+-- production-suggestions.snapshot.persist). Cada versão guarda o ranking completo.
+CREATE TABLE production_suggestion_snapshots (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    snapshot_version BIGINT NOT NULL,
+    refreshed_at TIMESTAMP NOT NULL,
+    priority_rank BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    product_value DECIMAL(10, 2) NOT NULL,
+    suggested_quantity BIGINT NOT NULL,
+    total_value DECIMAL(19, 2) NOT NULL,
+    CONSTRAINT uk_snapshot_rank UNIQUE (snapshot_version, priority_rank)
+);
@@ -0,0 +1,5 @@
+-- Índices para paginação por cursor (keyset): cada listagem ordena pela coluna de
+-- ordenação com o id como desempate, e a próxima página busca a partir da última linha.
+CREATE INDEX idx_products_value_id ON products (product_value, id);
+CREATE INDEX idx_raw_materials_stock_id ON raw_materials (stock_quantity, id);
+CREATE INDEX idx_product_raw_materials_product_id ON product_raw_materials (product_id, id);
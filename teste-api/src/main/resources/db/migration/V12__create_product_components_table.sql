@@ -0,0 +1,15 @@
+-- Subconjuntos: um produto pode consumir outros produtos (ex.: um módulo de gaveta usado
+-- por vários armários). O planejamento expande essa estrutura em matérias-primas.
+CREATE TABLE product_components (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    component_product_id BIGINT NOT NULL,
+    quantity_needed DECIMAL(10, 2) NOT NULL,
+    CONSTRAINT fk_component_parent FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE,
+    CONSTRAINT fk_component_product FOREIGN KEY (component_product_id) REFERENCES products(id) ON DELETE CASCADE,
+    CONSTRAINT uk_product_component UNIQUE (product_id, component_product_id),
+    CONSTRAINT ck_product_component_not_self CHECK (product_id <> component_product_id)
+);
+
+CREATE INDEX idx_product_components_product_id ON product_components (product_id, id);
+CREATE INDEX idx_product_components_component ON product_components (component_product_id);
@@ -0,0 +1,31 @@
+-- Livro de movimentações de estoque, somente inserção: toda alteração de
+-- raw_materials.stock_quantity grava aqui o delta correspondente, na mesma transação.
+CREATE SEQUENCE stock_movements_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE stock_movements (
+    id BIGINT PRIMARY KEY,
+    raw_material_id BIGINT NOT NULL,
+    delta DECIMAL(12, 2) NOT NULL,
+    reason VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_stock_movement_raw_material FOREIGN KEY (raw_material_id) REFERENCES raw_materials(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_stock_movements_material_created ON stock_movements (raw_material_id, created_at);
+CREATE INDEX idx_stock_movements_created ON stock_movements (created_at);
+
+-- Snapshots periódicos por matéria-prima: o compactador soma as movimentações anteriores a
+-- covered_until. O estoque num instante é o último snapshot antes dele mais as movimentações
+-- posteriores ao snapshot.
+CREATE TABLE stock_snapshots (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    raw_material_id BIGINT NOT NULL,
+    stock_quantity DECIMAL(12, 2) NOT NULL,
+    covered_until TIMESTAMP NOT NULL,
+    CONSTRAINT fk_stock_snapshot_raw_material FOREIGN KEY (raw_material_id) REFERENCES raw_materials(id) ON DELETE CASCADE,
+    CONSTRAINT uk_stock_snapshot UNIQUE (raw_material_id, covered_until)
+);
+
+-- O estoque atual vira o snapshot inicial; não há movimentações anteriores a ele
+INSERT INTO stock_snapshots (raw_material_id, stock_quantity, covered_until)
+SELECT id, stock_quantity, TIMESTAMP '1970-01-01 00:00:00' FROM raw_materials;
@@ -0,0 +1,5 @@
+-- Índices para a ordenação feita no banco: cada ordenação termina no id como desempate,
+-- então a listagem por nome usa (name, id). As ordenações por valor e por estoque já são
+-- atendidas pelos índices (coluna, id) da V11.
+CREATE INDEX idx_products_name_id ON products (name, id);
+CREATE INDEX idx_raw_materials_name_id ON raw_materials (name, id);
@@ -0,0 +1,12 @@
+-- Snapshot que incorporou cada movimentação (NULL enquanto nenhum incorporou). O compactador
+-- escolhe as movimentações por essa marca, e não por created_at, que é gravado antes do commit:
+-- assim uma transação que confirma depois de uma compactação entra na seguinte.
+ALTER TABLE stock_movements ADD COLUMN snapshot_id BIGINT;
+
+-- Movimentações já compactadas pertencem ao primeiro snapshot posterior a elas
+UPDATE stock_movements SET snapshot_id = (
+    SELECT MIN(s.id) FROM stock_snapshots s
+    WHERE s.raw_material_id = stock_movements.raw_material_id AND s.covered_until > stock_movements.created_at
+);
+
+CREATE INDEX idx_stock_movements_snapshot ON stock_movements (snapshot_id);
@@ -0,0 +1,3 @@
+-- Sugestões de produção agora são calculadas pelo ProductionPlanner, que desconta o estoque
+-- compartilhado entre produtos. A view calculava cada produto de forma isolada.
+DROP VIEW IF EXISTS production_suggestions;
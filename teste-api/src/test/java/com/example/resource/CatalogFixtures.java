@@ -0,0 +1,43 @@
+package com.example.resource;
+
+import io.restassured.http.ContentType;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Creates catalog fixtures through the API for the resource tests, returning the new ids.
+ */
+final class CatalogFixtures {
+
+    private CatalogFixtures() {
+    }
+
+    static Integer createProduct(String name, String value) {
+        return given()
+            .contentType(ContentType.JSON)
+            .body("{\"name\": \"" + name + "\", \"value\": " + value + "}")
+            .when().post("/products")
+            .then()
+            .statusCode(201)
+            .extract().path("id");
+    }
+
+    static Integer createRawMaterial(String name, String stockQuantity) {
+        return given()
+            .contentType(ContentType.JSON)
+            .body("{\"name\": \"" + name + "\", \"stockQuantity\": " + stockQuantity + "}")
+            .when().post("/raw-materials")
+            .then()
+            .statusCode(201)
+            .extract().path("id");
+    }
+
+    static void linkRawMaterial(Integer productId, Integer rawMaterialId, String quantityNeeded) {
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"rawMaterialId\": " + rawMaterialId + ", \"quantityNeeded\": " + quantityNeeded + "}")
+            .when().post("/products/" + productId + "/raw-materials")
+            .then()
+            .statusCode(201);
+    }
+}
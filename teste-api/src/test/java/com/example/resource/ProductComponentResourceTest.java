@@ -0,0 +1,68 @@
+package com.example.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import static com.example.resource.CatalogFixtures.createProduct;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.*;
+
+@QuarkusTest
+class ProductComponentResourceTest {
+
+    @Test
+    void testAddComponent() {
+        Integer cabinetId = createProduct("Cabinet With Drawer", "900.00");
+        Integer drawerId = createProduct("Drawer Module", "150.00");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"componentProductId\": " + drawerId + ", \"quantityNeeded\": 2.00}")
+            .when().post("/products/" + cabinetId + "/components")
+            .then()
+            .statusCode(201)
+            .body("productId", is(cabinetId))
+            .body("componentProductId", is(drawerId))
+            .body("quantityNeeded", is(2.00f));
+
+        given()
+            .when().get("/products/" + cabinetId + "/components")
+            .then()
+            .statusCode(200)
+            .body("totalElements", is(1))
+            .body("content[0].componentProductName", is("Drawer Module"));
+    }
+
+    @Test
+    void testAddComponentCreatingCycle() {
+        Integer wardrobeId = createProduct("Wardrobe", "1200.00");
+        Integer doorId = createProduct("Wardrobe Door", "200.00");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"componentProductId\": " + doorId + ", \"quantityNeeded\": 2.00}")
+            .when().post("/products/" + wardrobeId + "/components")
+            .then()
+            .statusCode(201);
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"componentProductId\": " + wardrobeId + ", \"quantityNeeded\": 1.00}")
+            .when().post("/products/" + doorId + "/components")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void testAddComponentToItself() {
+        Integer productId = createProduct("Shelf Module", "80.00");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"componentProductId\": " + productId + ", \"quantityNeeded\": 1.00}")
+            .when().post("/products/" + productId + "/components")
+            .then()
+            .statusCode(400);
+    }
+}
@@ -2,14 +2,28 @@ package com.example.resource;
 
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+
+import static com.example.resource.CatalogFixtures.createProduct;
+import static com.example.resource.CatalogFixtures.createRawMaterial;
+import static com.example.resource.CatalogFixtures.linkRawMaterial;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @QuarkusTest
 class ProductResourceTest {
 
+    @Inject
+    SessionFactory sessionFactory;
+
     @Test
     void testListAllProducts() {
         given()
@@ -33,6 +47,50 @@ class ProductResourceTest {
             .body("pageSize", is(5));
     }
 
+    @Test
+    void testListAllProductsWithoutTotal() {
+        given()
+            .queryParam("withTotal", false)
+            .when().get("/products")
+            .then()
+            .statusCode(200)
+            .body("content", notNullValue())
+            .body("totalElements", nullValue())
+            .body("totalPages", nullValue());
+    }
+
+    @Test
+    void testListAllProductsPastLastPage() {
+        given()
+            .queryParam("page", 100000)
+            .when().get("/products")
+            .then()
+            .statusCode(200)
+            .body("content.size()", is(0))
+            .body("totalElements", notNullValue());
+    }
+
+    @Test
+    void testListAllProductsFarPastLastPage() {
+        given()
+            .queryParam("page", Integer.MAX_VALUE)
+            .queryParam("size", 100)
+            .when().get("/products")
+            .then()
+            .statusCode(200)
+            .body("content.size()", is(0))
+            .body("totalElements", notNullValue());
+
+        given()
+            .queryParam("page", Integer.MAX_VALUE)
+            .queryParam("size", 100)
+            .queryParam("search", "test")
+            .when().get("/products")
+            .then()
+            .statusCode(200)
+            .body("content.size()", is(0));
+    }
+
     @Test
     void testListAllProductsWithSearch() {
         given()
@@ -43,6 +101,100 @@ class ProductResourceTest {
             .contentType(ContentType.JSON);
     }
 
+    @Test
+    void testListAllProductsWithSearchRankedBySimilarity() {
+        createProduct("Zyx Lamp Shade Deluxe", "80.00");
+        createProduct("Zyx Lamp", "40.00");
+
+        given()
+            .queryParam("search", "ZYX LAMP")
+            .when().get("/products")
+            .then()
+            .statusCode(200)
+            .body("content.name", contains("Zyx Lamp", "Zyx Lamp Shade Deluxe"))
+            .body("totalElements", is(2));
+
+        given()
+            .queryParam("search", "shade")
+            .when().get("/products")
+            .then()
+            .statusCode(200)
+            .body("content.name", contains("Zyx Lamp Shade Deluxe"));
+    }
+
+    @Test
+    void testListAllProductsSortedByMultipleFields() {
+        createProduct("Sort Tie A", "5.00");
+        createProduct("Sort Tie B", "5.00");
+        createProduct("Sort Tie C", "9.00");
+
+        given()
+            .queryParam("search", "Sort Tie")
+            .queryParam("sortBy", "value:desc,name:desc")
+            .queryParam("size", 2)
+            .when().get("/products")
+            .then()
+            .statusCode(200)
+            .body("content.name", contains("Sort Tie C", "Sort Tie B"))
+            .body("totalElements", is(3));
+
+        given()
+            .queryParam("search", "Sort Tie")
+            .queryParam("sortBy", "value:desc,name:desc")
+            .queryParam("size", 2)
+            .queryParam("page", 1)
+            .when().get("/products")
+            .then()
+            .statusCode(200)
+            .body("content.name", contains("Sort Tie A"));
+    }
+
+    @Test
+    void testListAllProductsWithInvalidSort() {
+        given()
+            .queryParam("sortBy", "password")
+            .when().get("/products")
+            .then()
+            .statusCode(400);
+
+        given()
+            .queryParam("sortBy", "value,name")
+            .queryParam("cursor", "")
+            .when().get("/products")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void testListAllProductsWithCursor() {
+        String nextCursor = given()
+            .queryParam("cursor", "")
+            .queryParam("size", 5)
+            .when().get("/products")
+            .then()
+            .statusCode(200)
+            .body("content.size()", is(5))
+            .body("nextCursor", notNullValue())
+            .extract().path("nextCursor");
+
+        given()
+            .queryParam("cursor", nextCursor)
+            .queryParam("size", 5)
+            .when().get("/products")
+            .then()
+            .statusCode(200)
+            .body("content[0].id", greaterThan(5));
+    }
+
+    @Test
+    void testListAllProductsWithInvalidCursor() {
+        given()
+            .queryParam("cursor", "not-a-cursor")
+            .when().get("/products")
+            .then()
+            .statusCode(400);
+    }
+
     @Test
     void testCreateProduct() {
         String requestBody = """
@@ -80,6 +232,26 @@ class ProductResourceTest {
             .statusCode(400);
     }
 
+    @Test
+    void testCreateProductWithNameInDifferentCase() {
+        createProduct("Case Product", "10.00");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"name\": \"CASE PRODUCT\", \"value\": 20.00}")
+            .when().post("/products")
+            .then()
+            .statusCode(409);
+
+        // A name that was never taken is still accepted without touching the table
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"name\": \"Case Product Two\", \"value\": 20.00}")
+            .when().post("/products")
+            .then()
+            .statusCode(201);
+    }
+
     @Test
     void testGetProductByIdNotFound() {
         given()
@@ -105,6 +277,40 @@ class ProductResourceTest {
             .statusCode(404);
     }
 
+    @Test
+    void testUpdateProductEvictsCachedResponse() {
+        Integer productId = createProduct("Cached Product", "10.00");
+
+        given()
+            .when().get("/products/" + productId)
+            .then()
+            .statusCode(200)
+            .body("value", is(10.0f));
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"name\": \"Cached Product\", \"value\": 12.50}")
+            .when().put("/products/" + productId)
+            .then()
+            .statusCode(200);
+
+        given()
+            .when().get("/products/" + productId)
+            .then()
+            .statusCode(200)
+            .body("value", is(12.5f));
+
+        given()
+            .when().delete("/products/" + productId)
+            .then()
+            .statusCode(204);
+
+        given()
+            .when().get("/products/" + productId)
+            .then()
+            .statusCode(404);
+    }
+
     @Test
     void testDeleteProductNotFound() {
         given()
@@ -112,4 +318,239 @@ class ProductResourceTest {
             .then()
             .statusCode(404);
     }
+
+    @Test
+    void testImportProductsFromCsv() {
+        String csv = """
+            name,value
+            Imported Product A,10.50
+            "Imported Product, B",20.00
+            imported product a,30.00
+            Imported Product C,-1
+            """;
+
+        given()
+            .contentType("text/csv")
+            .body(csv)
+            .when().post("/products/import")
+            .then()
+            .statusCode(200)
+            .body("imported", is(2))
+            .body("failed", is(2))
+            .body("errors.line", hasItems(4, 5))
+            .body("errors[0].error", containsString("more than once"))
+            .body("errors[1].error", is("Value must be greater than zero"));
+
+        given()
+            .queryParam("search", "Imported Product, B")
+            .when().get("/products")
+            .then()
+            .statusCode(200)
+            .body("content[0].value", is(20.0f));
+    }
+
+    @Test
+    void testImportProductsWithExistingName() {
+        given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {
+                    "name": "Existing Import Product",
+                    "value": 5.00
+                }
+                """)
+            .when().post("/products")
+            .then()
+            .statusCode(201);
+
+        String ndjson = """
+            {"name": "Existing Import Product", "value": 7.00}
+            {"name": "New Import Product", "value": 8.00}
+            not json
+            """;
+
+        given()
+            .contentType("application/x-ndjson")
+            .body(ndjson.getBytes(StandardCharsets.UTF_8))
+            .when().post("/products/import")
+            .then()
+            .statusCode(200)
+            .body("imported", is(1))
+            .body("failed", is(2))
+            .body("errors[0].line", is(1))
+            .body("errors[0].error", containsString("already exists"))
+            .body("errors[1].line", is(3))
+            .body("errors[1].error", is("Invalid JSON format"));
+    }
+
+    @Test
+    void testUpsertBillOfMaterials() {
+        Integer productId = createProduct("Bulk BOM Table", "300.00");
+        Integer woodId = createRawMaterial("Bulk BOM Wood", "100.00");
+        Integer screwId = createRawMaterial("Bulk BOM Screws", "500.00");
+        Integer glueId = createRawMaterial("Bulk BOM Glue", "20.00");
+        linkRawMaterial(productId, woodId, "4.00");
+        linkRawMaterial(productId, glueId, "1.00");
+
+        String requestBody = """
+            {
+                "rawMaterials": [
+                    {"rawMaterialId": %d, "quantityNeeded": 6.00},
+                    {"rawMaterialId": %d, "quantityNeeded": 16.00},
+                    {"rawMaterialId": 99999, "quantityNeeded": 1.00},
+                    {"rawMaterialId": %d, "quantityNeeded": 8.00}
+                ]
+            }
+            """.formatted(woodId, screwId, woodId);
+
+        given()
+            .contentType(ContentType.JSON)
+            .queryParam("replace", true)
+            .body(requestBody)
+            .when().put("/products/" + productId + "/bill-of-materials")
+            .then()
+            .statusCode(200)
+            .body("upserted", is(2))
+            .body("removed", is(1))
+            .body("errors.size()", is(2))
+            .body("errors[0].rawMaterialId", is(99999))
+            .body("errors[0].error", is("Raw Material with id 99999 not found"))
+            .body("errors[1].rawMaterialId", is(woodId))
+            .body("errors[1].error", is("Raw material appears more than once for this product"));
+
+        given()
+            .when().get("/products/" + productId + "/raw-materials/" + woodId)
+            .then()
+            .statusCode(200)
+            .body("quantityNeeded", is(6.0f));
+
+        given()
+            .when().get("/products/" + productId + "/raw-materials/" + glueId)
+            .then()
+            .statusCode(404);
+    }
+
+    @Test
+    void testListBillOfMaterialsInSingleStatement() {
+        Integer productId = createProduct("Statement Count Cabinet", "900.00");
+        for (int i = 1; i <= 15; i++) {
+            Integer rawMaterialId = createRawMaterial("Statement Count Part " + i, "100.00");
+            linkRawMaterial(productId, rawMaterialId, "2.00");
+        }
+
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        given()
+            .queryParam("size", 50)
+            .when().get("/products/" + productId + "/raw-materials")
+            .then()
+            .statusCode(200)
+            .body("content.size()", is(15))
+            .body("totalElements", is(15))
+            .body("content[0].productName", is("Statement Count Cabinet"))
+            .body("content.rawMaterialName", everyItem(notNullValue()));
+
+        // Rows, names of both sides and the total all come from one statement
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testListBillOfMaterialsWithCursor() {
+        Integer productId = createProduct("Cursor BOM Desk", "250.00");
+        Integer topId = createRawMaterial("Cursor BOM Top", "10.00");
+        Integer legId = createRawMaterial("Cursor BOM Leg", "40.00");
+        Integer boltId = createRawMaterial("Cursor BOM Bolt", "200.00");
+        linkRawMaterial(productId, topId, "1.00");
+        linkRawMaterial(productId, legId, "4.00");
+        linkRawMaterial(productId, boltId, "16.00");
+
+        String nextCursor = given()
+            .queryParam("cursor", "")
+            .queryParam("size", 2)
+            .when().get("/products/" + productId + "/raw-materials")
+            .then()
+            .statusCode(200)
+            .body("content.rawMaterialId", contains(topId, legId))
+            .body("nextCursor", notNullValue())
+            .extract().path("nextCursor");
+
+        given()
+            .queryParam("cursor", nextCursor)
+            .queryParam("size", 2)
+            .when().get("/products/" + productId + "/raw-materials")
+            .then()
+            .statusCode(200)
+            .body("content.rawMaterialId", contains(boltId))
+            .body("nextCursor", nullValue());
+    }
+
+    @Test
+    void testUpsertBillOfMaterialsProductNotFound() {
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"rawMaterials\": []}")
+            .when().put("/products/99999/bill-of-materials")
+            .then()
+            .statusCode(404);
+    }
+
+    @Test
+    void testUpsertCatalogBillsOfMaterials() {
+        Integer shelfId = createProduct("Bulk Catalog Shelf", "80.00");
+        Integer stoolId = createProduct("Bulk Catalog Stool", "40.00");
+        Integer plankId = createRawMaterial("Bulk Catalog Plank", "50.00");
+        linkRawMaterial(stoolId, plankId, "1.00");
+
+        String requestBody = """
+            {
+                "products": [
+                    {"productId": %d, "rawMaterials": [{"rawMaterialId": %d, "quantityNeeded": 3.00}]},
+                    {"productId": %d, "rawMaterials": [{"rawMaterialId": %d, "quantityNeeded": 2.00}]},
+                    {"productId": 99999, "rawMaterials": [{"rawMaterialId": %d, "quantityNeeded": 1.00}]}
+                ]
+            }
+            """.formatted(shelfId, plankId, stoolId, plankId, plankId);
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(requestBody)
+            .when().put("/products/bill-of-materials")
+            .then()
+            .statusCode(200)
+            .body("upserted", is(2))
+            .body("removed", is(0))
+            .body("errors.size()", is(1))
+            .body("errors[0].productId", is(99999))
+            .body("errors[0].error", is("Product with id 99999 not found"));
+
+        given()
+            .when().get("/products/" + stoolId + "/raw-materials/" + plankId)
+            .then()
+            .statusCode(200)
+            .body("quantityNeeded", is(2.0f));
+
+        given()
+            .when().get("/products/" + shelfId + "/raw-materials/" + plankId)
+            .then()
+            .statusCode(200)
+            .body("quantityNeeded", is(3.0f));
+    }
+
+    @Test
+    void testUpsertCatalogBillsOfMaterialsInvalidQuantity() {
+        given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {
+                    "products": [
+                        {"productId": 1, "rawMaterials": [{"rawMaterialId": 1, "quantityNeeded": 0}]}
+                    ]
+                }
+                """)
+            .when().put("/products/bill-of-materials")
+            .then()
+            .statusCode(400);
+    }
 }
@@ -0,0 +1,59 @@
+package com.example.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import static com.example.resource.CatalogFixtures.createProduct;
+import static com.example.resource.CatalogFixtures.createRawMaterial;
+import static com.example.resource.CatalogFixtures.linkRawMaterial;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.*;
+
+@QuarkusTest
+class ProductionPlanResourceTest {
+
+    @Test
+    void testGetRequirements() {
+        Integer materialId = createRawMaterial("Requirement Test Board", "50.00");
+        Integer tableId = createProduct("Requirement Test Table", "300.00");
+        Integer benchId = createProduct("Requirement Test Bench", "120.00");
+        linkRawMaterial(tableId, materialId, "4.00");
+        linkRawMaterial(benchId, materialId, "1.50");
+
+        // 10 tables and 10 benches need 55.00, 5.00 more than in stock
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"targets\": [{\"productId\": " + tableId + ", \"quantity\": 10}, "
+                + "{\"productId\": " + benchId + ", \"quantity\": 10}]}")
+            .when().post("/production-plans/requirements")
+            .then()
+            .statusCode(200)
+            .body("feasible", is(false))
+            .body("rawMaterials.size()", is(1))
+            .body("rawMaterials[0].rawMaterialId", is(materialId))
+            .body("rawMaterials[0].requiredQuantity", is(55.00f))
+            .body("rawMaterials[0].stockQuantity", is(50.00f))
+            .body("rawMaterials[0].shortfall", is(5.00f));
+    }
+
+    @Test
+    void testGetRequirementsUnknownProduct() {
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"targets\": [{\"productId\": 999999, \"quantity\": 1}]}")
+            .when().post("/production-plans/requirements")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void testGetRequirementsWithoutTargets() {
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"targets\": []}")
+            .when().post("/production-plans/requirements")
+            .then()
+            .statusCode(400);
+    }
+}
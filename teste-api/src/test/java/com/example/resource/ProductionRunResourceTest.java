@@ -0,0 +1,118 @@
+package com.example.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import static com.example.resource.CatalogFixtures.createProduct;
+import static com.example.resource.CatalogFixtures.createRawMaterial;
+import static com.example.resource.CatalogFixtures.linkRawMaterial;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.*;
+
+@QuarkusTest
+class ProductionRunResourceTest {
+
+    @Test
+    void testCreateProductionRun() {
+        Integer woodId = createRawMaterial("Run Test Wood", "100.00");
+        Integer screwId = createRawMaterial("Run Test Screws", "500.00");
+        Integer chairId = createProduct("Run Test Chair", "150.00");
+        linkRawMaterial(chairId, woodId, "2.50");
+        linkRawMaterial(chairId, screwId, "12.00");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"productId\": " + chairId + ", \"quantity\": 10}")
+            .when().post("/production-runs")
+            .then()
+            .statusCode(201)
+            .body("productName", is("Run Test Chair"))
+            .body("rawMaterials.size()", is(2))
+            .body("rawMaterials[0].rawMaterialId", is(woodId))
+            .body("rawMaterials[0].quantityConsumed", is(25.00f));
+
+        given()
+            .when().get("/raw-materials/" + woodId)
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(75.00f));
+
+        given()
+            .when().get("/raw-materials/" + screwId)
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(380.00f));
+    }
+
+    @Test
+    void testCreateProductionRunWithSubAssemblies() {
+        Integer boardId = createRawMaterial("Run Test Boards", "100.00");
+        Integer handleId = createRawMaterial("Run Test Handles", "50.00");
+        Integer cabinetId = createProduct("Run Test Cabinet", "900.00");
+        Integer drawerId = createProduct("Run Test Drawer", "150.00");
+        linkRawMaterial(cabinetId, boardId, "4.00");
+        linkRawMaterial(drawerId, boardId, "1.50");
+        linkRawMaterial(drawerId, handleId, "1.00");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"componentProductId\": " + drawerId + ", \"quantityNeeded\": 3.00}")
+            .when().post("/products/" + cabinetId + "/components")
+            .then()
+            .statusCode(201);
+
+        // Each cabinet takes 4 boards of its own plus 3 drawers of 1.5 boards and 1 handle
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"productId\": " + cabinetId + ", \"quantity\": 2}")
+            .when().post("/production-runs")
+            .then()
+            .statusCode(201)
+            .body("productName", is("Run Test Cabinet"))
+            .body("rawMaterials.size()", is(2))
+            .body("rawMaterials[0].rawMaterialId", is(boardId))
+            .body("rawMaterials[0].quantityConsumed", is(17.00f))
+            .body("rawMaterials[1].rawMaterialName", is("Run Test Handles"))
+            .body("rawMaterials[1].quantityConsumed", is(6.00f));
+
+        given()
+            .when().get("/raw-materials/" + boardId)
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(83.00f));
+    }
+
+    @Test
+    void testCreateProductionRunWithInsufficientStock() {
+        Integer legId = createRawMaterial("Run Test Legs", "100.00");
+        Integer topId = createRawMaterial("Run Test Tops", "3.00");
+        Integer tableId = createProduct("Run Test Table", "400.00");
+        linkRawMaterial(tableId, legId, "4.00");
+        linkRawMaterial(tableId, topId, "1.00");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"productId\": " + tableId + ", \"quantity\": 5}")
+            .when().post("/production-runs")
+            .then()
+            .statusCode(409);
+
+        // Nothing is consumed when one of the raw materials runs short
+        given()
+            .when().get("/raw-materials/" + legId)
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(100.00f));
+    }
+
+    @Test
+    void testCreateProductionRunForUnknownProduct() {
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"productId\": 999999, \"quantity\": 1}")
+            .when().post("/production-runs")
+            .then()
+            .statusCode(404);
+    }
+}
@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Test;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @QuarkusTest
 class ProductionSuggestionResourceTest {
@@ -56,4 +58,124 @@ class ProductionSuggestionResourceTest {
             .statusCode(200)
             .body("content", notNullValue());
     }
+
+    @Test
+    void testGetProductionSuggestionsOptimalStrategy() {
+        given()
+            .queryParam("strategy", "optimal")
+            .when().get("/production-suggestions")
+            .then()
+            .statusCode(200)
+            .body("content", notNullValue());
+    }
+
+    @Test
+    void testGetProductionSuggestionsUnknownStrategy() {
+        given()
+            .queryParam("strategy", "random")
+            .when().get("/production-suggestions")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void testGetProductionSuggestionsExposesSnapshot() {
+        given()
+            .when().get("/production-suggestions")
+            .then()
+            .statusCode(200)
+            .body("snapshotVersion", instanceOf(Number.class))
+            .body("snapshotAgeMillis", instanceOf(Number.class))
+            .body("snapshotRefreshedAt", notNullValue());
+    }
+
+    @Test
+    void testGetProductionSuggestionsUnknownSnapshot() {
+        given()
+            .queryParam("snapshotVersion", Long.MAX_VALUE)
+            .when().get("/production-suggestions")
+            .then()
+            .statusCode(404);
+    }
+
+    @Test
+    void testExportProductionSuggestions() {
+        String body = given()
+            .when().get("/production-suggestions/export")
+            .then()
+            .statusCode(200)
+            .contentType("application/x-ndjson")
+            .header("X-Snapshot-Version", notNullValue())
+            .extract().asString();
+
+        Integer totalElements = given()
+            .when().get("/production-suggestions")
+            .then()
+            .statusCode(200)
+            .extract().path("totalElements");
+
+        String[] lines = body.isEmpty() ? new String[0] : body.split("\n");
+        assertEquals(totalElements.intValue(), lines.length);
+        for (String line : lines) {
+            assertTrue(line.startsWith("{\"productId\":"));
+        }
+    }
+
+    @Test
+    void testExportUnknownSnapshot() {
+        given()
+            .queryParam("snapshotVersion", Long.MAX_VALUE)
+            .when().get("/production-suggestions/export")
+            .then()
+            .statusCode(404);
+    }
+
+    @Test
+    void testGetBottlenecks() {
+        given()
+            .when().get("/production-suggestions/bottlenecks")
+            .then()
+            .statusCode(200)
+            .contentType(ContentType.JSON)
+            .body("snapshotVersion", instanceOf(Number.class))
+            .body("shadowPricesOptimal", notNullValue())
+            .body("products", instanceOf(java.util.List.class))
+            .body("rawMaterials", instanceOf(java.util.List.class));
+    }
+
+    @Test
+    void testSimulate() {
+        String requestBody = """
+            {
+                "scenarios": [
+                    {"name": "Baseline"},
+                    {"name": "More MDF", "stockDeltas": [{"rawMaterialId": 1, "delta": 100.00}]}
+                ],
+                "suggestionLimit": 3
+            }
+            """;
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(requestBody)
+            .when().post("/production-suggestions/simulate")
+            .then()
+            .statusCode(200)
+            .body("snapshotVersion", instanceOf(Number.class))
+            .body("baselineProductionValue", notNullValue())
+            .body("scenarios.size()", equalTo(2))
+            .body("scenarios[0].name", equalTo("Baseline"))
+            .body("scenarios[0].valueChange", equalTo(0.0f))
+            .body("scenarios[1].suggestions", instanceOf(java.util.List.class));
+    }
+
+    @Test
+    void testSimulateWithoutScenarios() {
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"scenarios\": []}")
+            .when().post("/production-suggestions/simulate")
+            .then()
+            .statusCode(400);
+    }
 }
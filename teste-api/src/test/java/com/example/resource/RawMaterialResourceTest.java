@@ -1,15 +1,47 @@
 package com.example.resource;
 
+import com.example.dto.stockmovement.StockMovementDTO;
+import com.example.dto.stockmovement.StockMovementsRequestDTO;
+import com.example.entity.StockMovement;
+import com.example.repository.StockMovementRepository;
+import com.example.service.StockLedgerCompactor;
+import com.example.service.StockMovementService;
+import com.example.service.StockWriteBehind;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static com.example.resource.CatalogFixtures.createProduct;
+import static com.example.resource.CatalogFixtures.createRawMaterial;
+import static com.example.resource.CatalogFixtures.linkRawMaterial;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @QuarkusTest
 class RawMaterialResourceTest {
 
+    @Inject
+    StockLedgerCompactor stockLedgerCompactor;
+
+    @Inject
+    StockWriteBehind stockWriteBehind;
+
+    @Inject
+    StockMovementRepository stockMovementRepository;
+
+    @Inject
+    StockMovementService stockMovementService;
+
     @Test
     void testGetAllRawMaterials() {
         given()
@@ -232,4 +264,326 @@ class RawMaterialResourceTest {
             .body("totalElements", instanceOf(Number.class))
             .body("totalPages", instanceOf(Number.class));
     }
+
+    @Test
+    void testImportRawMaterialsFromNdjson() {
+        String ndjson = """
+            {"name": "Imported Material A", "stockQuantity": 100}
+
+            {"name": "Imported Material B", "stockQuantity": "abc"}
+            {"name": "", "stockQuantity": 5}
+            {"name": "Imported Material C", "stockQuantity": 0}
+            """;
+
+        given()
+            .contentType("application/x-ndjson")
+            .body(ndjson.getBytes(StandardCharsets.UTF_8))
+            .when().post("/raw-materials/import")
+            .then()
+            .statusCode(200)
+            .body("imported", is(2))
+            .body("failed", is(2))
+            .body("errors.line", hasItems(3, 4))
+            .body("errors[0].error", is("Invalid field format"))
+            .body("errors[1].error", is("Name is required"));
+    }
+
+    @Test
+    void testImportRawMaterialsWithUnsupportedFormat() {
+        given()
+            .contentType(ContentType.XML)
+            .body("<rawMaterials/>")
+            .when().post("/raw-materials/import")
+            .then()
+            .statusCode(415);
+    }
+
+    @Test
+    void testApplyStockMovements() {
+        Integer boltsId = createRawMaterial("Movement Test Bolts", "10.00");
+        Integer nutsId = createRawMaterial("Movement Test Nuts", "5.00");
+
+        String requestBody = """
+            {
+                "movements": [
+                    {"rawMaterialId": %d, "delta": 15.50},
+                    {"rawMaterialId": %d, "delta": -6.00},
+                    {"rawMaterialId": %d, "delta": -30.00},
+                    {"rawMaterialId": 99999, "delta": 1.00},
+                    {"rawMaterialId": %d, "delta": -25.50}
+                ]
+            }
+            """.formatted(boltsId, nutsId, boltsId, boltsId);
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(requestBody)
+            .when().post("/raw-materials/stock-movements")
+            .then()
+            .statusCode(200)
+            .body("applied", is(2))
+            .body("rejected", is(3))
+            .body("results.applied", contains(true, false, false, false, true))
+            .body("results[1].error", is("Stock would become negative"))
+            .body("results[1].stockQuantity", is(5.0f))
+            .body("results[2].error", is("Stock would become negative"))
+            .body("results[3].error", is("Raw Material with id 99999 not found"))
+            .body("results[4].stockQuantity", is(0.0f));
+
+        given()
+            .when().get("/raw-materials/" + boltsId)
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(0.0f));
+    }
+
+    @Test
+    void testApplyStockMovementsWithInvalidData() {
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"movements\": []}")
+            .when().post("/raw-materials/stock-movements")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void testStockLedger() {
+        Instant beforeCreation = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        Integer rawMaterialId = createRawMaterial("Ledger Test Glue", "10.00");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {
+                    "movements": [
+                        {"rawMaterialId": %d, "delta": 5.00},
+                        {"rawMaterialId": %d, "delta": -3.00}
+                    ]
+                }
+                """.formatted(rawMaterialId, rawMaterialId))
+            .when().post("/raw-materials/stock-movements")
+            .then()
+            .statusCode(200);
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"name\": \"Ledger Test Glue\", \"stockQuantity\": 20.00}")
+            .when().put("/raw-materials/" + rawMaterialId)
+            .then()
+            .statusCode(200);
+
+        given()
+            .when().get("/raw-materials/" + rawMaterialId + "/stock-movements")
+            .then()
+            .statusCode(200)
+            .body("totalElements", is(4))
+            .body("content.reason", contains("INITIAL", "MOVEMENT", "MOVEMENT", "ADJUSTMENT"))
+            .body("content.delta", contains(10.0f, 5.0f, -3.0f, 8.0f));
+
+        stockLedgerCompactor.compact();
+
+        given()
+            .when().get("/raw-materials/" + rawMaterialId + "/stock")
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(20.0f));
+
+        given()
+            .queryParam("at", beforeCreation.toString())
+            .when().get("/raw-materials/" + rawMaterialId + "/stock")
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(0));
+    }
+
+    @Test
+    void testStockLedgerFoldsLateCommits() {
+        Integer rawMaterialId = createRawMaterial("Ledger Test Resin", "10.00");
+        Instant stamped = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        stockLedgerCompactor.compact();
+
+        // Stamped before the compaction above but committed after it
+        QuarkusTransaction.requiringNew().run(() -> stockMovementRepository.persist(new StockMovement(
+                rawMaterialId.longValue(), new BigDecimal("4.00"), StockMovement.Reason.MOVEMENT, stamped)));
+        stockLedgerCompactor.compact();
+
+        given()
+            .when().get("/raw-materials/" + rawMaterialId + "/stock")
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(14.0f));
+
+        given()
+            .queryParam("at", stamped.toString())
+            .when().get("/raw-materials/" + rawMaterialId + "/stock")
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(14.0f));
+    }
+
+    @Test
+    void testWriteBehindStockMovements() {
+        // Raw material 15 is in write-behind mode in the test profile
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"movements\": [{\"rawMaterialId\": 15, \"delta\": -10.00}, {\"rawMaterialId\": 15, \"delta\": -100.00}]}")
+            .when().post("/raw-materials/stock-movements")
+            .then()
+            .statusCode(200)
+            .body("applied", is(1))
+            .body("results[0].stockQuantity", is(40.0f))
+            .body("results[1].error", is("Stock would become negative"));
+
+        given()
+            .when().get("/raw-materials/15")
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(40.0f));
+
+        stockWriteBehind.flush();
+
+        given()
+            .when().get("/raw-materials/15/stock")
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(40.0f));
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"movements\": [{\"rawMaterialId\": 15, \"delta\": 10.00}]}")
+            .when().post("/raw-materials/stock-movements")
+            .then()
+            .statusCode(200);
+        stockWriteBehind.flush();
+
+        given()
+            .when().get("/raw-materials/15")
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(50.0f));
+    }
+
+    @Test
+    void testWriteBehindStockMovementsRolledBack() {
+        StockMovementsRequestDTO request = new StockMovementsRequestDTO(
+                List.of(new StockMovementDTO(15L, new BigDecimal("-20.00"))));
+
+        assertThrows(IllegalStateException.class, () -> QuarkusTransaction.requiringNew().run(() -> {
+            stockMovementService.apply(request);
+            throw new IllegalStateException("Rolled back after the movement was accepted");
+        }));
+        stockWriteBehind.flush();
+
+        // Neither flushed nor still reserved: the whole stock can be taken
+        given()
+            .when().get("/raw-materials/15")
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(50.0f));
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"movements\": [{\"rawMaterialId\": 15, \"delta\": -50.00}, {\"rawMaterialId\": 15, \"delta\": 50.00}]}")
+            .when().post("/raw-materials/stock-movements")
+            .then()
+            .statusCode(200)
+            .body("applied", is(2));
+        stockWriteBehind.flush();
+    }
+
+    @Test
+    void testProductionRunCountsUnflushedStock() {
+        Integer productId = createProduct("Write Behind Window", "120.00");
+        linkRawMaterial(productId, 15, "1.00");
+
+        // Only 5 of the 50 units in the row are left once the unflushed movement is counted
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"movements\": [{\"rawMaterialId\": 15, \"delta\": -45.00}]}")
+            .when().post("/raw-materials/stock-movements")
+            .then()
+            .statusCode(200)
+            .body("applied", is(1));
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"productId\": " + productId + ", \"quantity\": 10}")
+            .when().post("/production-runs")
+            .then()
+            .statusCode(409);
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"productId\": " + productId + ", \"quantity\": 5}")
+            .when().post("/production-runs")
+            .then()
+            .statusCode(201);
+
+        stockWriteBehind.flush();
+
+        given()
+            .when().get("/raw-materials/15/stock")
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(0.0f));
+
+        // Leave raw material 15 as seeded for the other tests
+        given()
+            .when().delete("/products/" + productId + "/raw-materials/15")
+            .then()
+            .statusCode(204);
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"movements\": [{\"rawMaterialId\": 15, \"delta\": 50.00}]}")
+            .when().post("/raw-materials/stock-movements")
+            .then()
+            .statusCode(200);
+        stockWriteBehind.flush();
+    }
+
+    @Test
+    void testRequirementsCountUnflushedStock() {
+        Integer productId = createProduct("Write Behind Shelf", "90.00");
+        linkRawMaterial(productId, 15, "1.00");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"movements\": [{\"rawMaterialId\": 15, \"delta\": -45.00}]}")
+            .when().post("/raw-materials/stock-movements")
+            .then()
+            .statusCode(200)
+            .body("applied", is(1));
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"targets\": [{\"productId\": " + productId + ", \"quantity\": 10}]}")
+            .when().post("/production-plans/requirements")
+            .then()
+            .statusCode(200)
+            .body("feasible", is(false))
+            .body("rawMaterials[0].rawMaterialId", is(15))
+            .body("rawMaterials[0].stockQuantity", is(5.00f))
+            .body("rawMaterials[0].shortfall", is(5.00f));
+
+        // Leave raw material 15 as seeded for the other tests
+        given()
+            .when().delete("/products/" + productId + "/raw-materials/15")
+            .then()
+            .statusCode(204);
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"movements\": [{\"rawMaterialId\": 15, \"delta\": 45.00}]}")
+            .when().post("/raw-materials/stock-movements")
+            .then()
+            .statusCode(200);
+        stockWriteBehind.flush();
+    }
+
+    @Test
+    void testStockOfUnknownRawMaterial() {
+        given()
+            .when().get("/raw-materials/99999/stock")
+            .then()
+            .statusCode(404);
+    }
 }
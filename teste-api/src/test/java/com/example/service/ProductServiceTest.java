@@ -4,13 +4,18 @@ import com.example.dto.PageResponse;
 import com.example.dto.product.ProductRequestDTO;
 import com.example.dto.product.ProductResponseDTO;
 import com.example.entity.Product;
+import com.example.exception.InvalidRequestException;
 import com.example.exception.ResourceNotFoundException;
+import com.example.filter.PagedResult;
+import com.example.filter.SortSpec;
 import com.example.repository.ProductRepository;
-import io.quarkus.hibernate.orm.panache.PanacheQuery;
-import io.quarkus.panache.common.Page;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.panache.common.Sort;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.InjectMock;
 import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -35,7 +40,12 @@ class ProductServiceTest {
     @InjectMock
     com.example.repository.ProductRawMaterialRepository productRawMaterialRepository;
 
+    @Inject
+    @CacheName("product-responses")
+    Cache productResponses;
+
     private Product testProduct;
+    private ProductResponseDTO testProductResponse;
     private ProductRequestDTO testProductRequest;
 
     @BeforeEach
@@ -48,20 +58,24 @@ class ProductServiceTest {
         testProduct.setName("Test Product");
         testProduct.setValue(new BigDecimal("100.00"));
 
+        testProductResponse = new ProductResponseDTO(1L, "Test Product", new BigDecimal("100.00"));
         testProductRequest = new ProductRequestDTO("Test Product", new BigDecimal("100.00"));
     }
 
+    @AfterEach
+    void tearDown() {
+        // Responses cached from mocked repositories must not leak into other tests
+        productResponses.invalidateAll().await().indefinitely();
+    }
+
     @Test
     void testFindAll() {
         // Arrange
-        PanacheQuery<Product> mockQuery = mock(PanacheQuery.class);
-        when(productRepository.findAll()).thenReturn(mockQuery);
-        when(mockQuery.count()).thenReturn(1L);
-        when(mockQuery.page(any(Page.class))).thenReturn(mockQuery);
-        when(mockQuery.list()).thenReturn(List.of(testProduct));
+        when(productRepository.findPage(null, SortSpec.none(), 0, 10, true))
+                .thenReturn(new PagedResult<>(List.of(testProductResponse), 1L));
 
         // Act
-        PageResponse<ProductResponseDTO> result = productService.findAll(0, 10, null, null, null);
+        PageResponse<ProductResponseDTO> result = productService.findAll(0, 10, null, null, null, null, true);
 
         // Assert
         assertNotNull(result);
@@ -75,19 +89,56 @@ class ProductServiceTest {
     @Test
     void testFindAllWithSearch() {
         // Arrange
-        PanacheQuery<Product> mockQuery = mock(PanacheQuery.class);
-        when(productRepository.find(anyString(), (Object[]) any())).thenReturn(mockQuery);
-        when(mockQuery.count()).thenReturn(1L);
-        when(mockQuery.page(any(Page.class))).thenReturn(mockQuery);
-        when(mockQuery.list()).thenReturn(List.of(testProduct));
+        when(productRepository.findPage("test", SortSpec.none(), 0, 10, true))
+                .thenReturn(new PagedResult<>(List.of(testProductResponse), 1L));
 
         // Act
-        PageResponse<ProductResponseDTO> result = productService.findAll(0, 10, "test", null, null);
+        PageResponse<ProductResponseDTO> result = productService.findAll(0, 10, "test", null, null, null, true);
 
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(productRepository).find(anyString(), (Object[]) any());
+        verify(productRepository).findPage("test", SortSpec.none(), 0, 10, true);
+    }
+
+    @Test
+    void testFindAllWithoutTotal() {
+        // Arrange
+        when(productRepository.findPage(null, SortSpec.none(), 0, 10, false))
+                .thenReturn(new PagedResult<>(List.of(testProductResponse), null));
+
+        // Act
+        PageResponse<ProductResponseDTO> result = productService.findAll(0, 10, null, null, null, null, false);
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertNull(result.getTotalElements());
+        assertNull(result.getTotalPages());
+    }
+
+    @Test
+    void testFindAllWithMultiFieldSort() {
+        // Arrange
+        SortSpec sort = new SortSpec(List.of(
+                new SortSpec.Field("value", Sort.Direction.Descending),
+                new SortSpec.Field("name", Sort.Direction.Ascending)));
+        when(productRepository.findPage(null, sort, 0, 10, true))
+                .thenReturn(new PagedResult<>(List.of(testProductResponse), 1L));
+
+        // Act
+        PageResponse<ProductResponseDTO> result = productService.findAll(0, 10, null, "value:desc,name", "asc", null, true);
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        verify(productRepository).findPage(null, sort, 0, 10, true);
+    }
+
+    @Test
+    void testFindAllWithInvalidSortField() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class,
+            () -> productService.findAll(0, 10, null, "password", null, null, true));
+        verify(productRepository, never()).findPage(any(), any(), anyInt(), anyInt(), anyBoolean());
     }
 
     @Test
@@ -105,6 +156,19 @@ class ProductServiceTest {
         assertEquals(new BigDecimal("100.00"), result.value());
     }
 
+    @Test
+    void testFindByIdIsCached() {
+        // Arrange
+        when(productRepository.findByIdOptional(1L)).thenReturn(Optional.of(testProduct));
+
+        // Act
+        productService.findById(1L);
+        productService.findById(1L);
+
+        // Assert
+        verify(productRepository, times(1)).findByIdOptional(1L);
+    }
+
     @Test
     void testFindByIdNotFound() {
         // Arrange
@@ -1,19 +1,36 @@
 package com.example.service;
 
 import com.example.dto.PageResponse;
+import com.example.dto.product.ProductResponseDTO;
+import com.example.dto.productionsuggestion.ProductionAnalysisDTO;
+import com.example.dto.productionsuggestion.ProductionSuggestionChangesDTO;
+import com.example.dto.productionsuggestion.ProductionSuggestionPageResponse;
 import com.example.dto.productionsuggestion.ProductionSuggestionResponseDTO;
-import com.example.entity.ProductionSuggestion;
-import com.example.repository.ProductionSuggestionRepository;
-import io.quarkus.panache.common.Page;
+import com.example.dto.productionsuggestion.SimulationRequestDTO;
+import com.example.dto.productionsuggestion.SimulationResponseDTO;
+import com.example.dto.productionsuggestion.SimulationScenarioDTO;
+import com.example.dto.productionsuggestion.StockDeltaDTO;
+import com.example.dto.productionsuggestion.ValueChangeDTO;
+import com.example.dto.rawmaterial.RawMaterialResponseDTO;
+import com.example.event.CatalogChangedEvent;
+import com.example.exception.InvalidRequestException;
+import com.example.exception.ResourceNotFoundException;
+import com.example.planning.BomLine;
+import com.example.planning.ComponentLine;
+import com.example.repository.ProductComponentRepository;
+import com.example.repository.ProductRawMaterialRepository;
+import com.example.repository.ProductRepository;
+import com.example.repository.RawMaterialRepository;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.InjectMock;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
 import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.math.BigDecimal;
-import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,44 +42,57 @@ class ProductionSuggestionServiceTest {
     @Inject
     ProductionSuggestionService productionSuggestionService;
 
+    @Inject
+    PlanningCatalog planningCatalog;
+
+    @Inject
+    ProductionSuggestionChangeFeed changeFeed;
+
     @InjectMock
-    ProductionSuggestionRepository productionSuggestionRepository;
+    ProductRepository productRepository;
 
-    private List<ProductionSuggestion> testSuggestions;
+    @InjectMock
+    RawMaterialRepository rawMaterialRepository;
+
+    @InjectMock
+    ProductRawMaterialRepository productRawMaterialRepository;
+
+    @InjectMock
+    ProductComponentRepository productComponentRepository;
 
     @BeforeEach
     void setUp() {
-        Mockito.reset(productionSuggestionRepository);
-
-        ProductionSuggestion suggestion1 = new ProductionSuggestion();
-        suggestion1.setProductId(1L);
-        suggestion1.setProductName("Product A");
-        suggestion1.setProductValue(new BigDecimal("10.00"));
-        suggestion1.setSuggestedQuantity(100L);
-        suggestion1.setTotalValue(new BigDecimal("1000.00"));
-        suggestion1.setPriorityRank(1L);
+        Mockito.reset(productRepository);
+        Mockito.reset(rawMaterialRepository);
+        Mockito.reset(productRawMaterialRepository);
+        Mockito.reset(productComponentRepository);
 
-        ProductionSuggestion suggestion2 = new ProductionSuggestion();
-        suggestion2.setProductId(2L);
-        suggestion2.setProductName("Product B");
-        suggestion2.setProductValue(new BigDecimal("20.00"));
-        suggestion2.setSuggestedQuantity(25L);
-        suggestion2.setTotalValue(new BigDecimal("500.00"));
-        suggestion2.setPriorityRank(2L);
+        // Product A: 30 units on its own (limited by Material 2), total 300.00
+        // Product B: 50 units on its own (limited by Material 1), total 250.00
+        when(productRepository.findAllForPlanning()).thenReturn(List.of(
+                new ProductResponseDTO(1L, "Product A", new BigDecimal("10.00")),
+                new ProductResponseDTO(2L, "Product B", new BigDecimal("5.00"))));
+        when(rawMaterialRepository.findAllForPlanning()).thenReturn(List.of(
+                new RawMaterialResponseDTO(1L, "Material 1", new BigDecimal("100.00")),
+                new RawMaterialResponseDTO(2L, "Material 2", new BigDecimal("30.00"))));
+        when(productRawMaterialRepository.findAllBomLines()).thenReturn(List.of(
+                new BomLine(1L, 1L, new BigDecimal("1.00")),
+                new BomLine(1L, 2L, new BigDecimal("1.00")),
+                new BomLine(2L, 1L, new BigDecimal("2.00"))));
+        planningCatalog.invalidate();
+    }
 
-        testSuggestions = Arrays.asList(suggestion1, suggestion2);
+    @AfterEach
+    void tearDown() {
+        // Do not leak the mocked catalog into tests running against the database
+        planningCatalog.invalidate();
     }
 
     @Test
     void testGetProductionSuggestions() {
-        // Arrange
-        when(productionSuggestionRepository.count(anyString())).thenReturn(2L);
-        when(productionSuggestionRepository.findAllOrderedByPriority(any(Page.class), anyString(), anyString()))
-            .thenReturn(testSuggestions);
-
         // Act
         PageResponse<ProductionSuggestionResponseDTO> result =
-            productionSuggestionService.getProductionSuggestions(0, 10, "", "");
+            productionSuggestionService.getProductionSuggestions(0, 10, "", "", null, null, null);
 
         // Assert
         assertNotNull(result);
@@ -72,21 +102,34 @@ class ProductionSuggestionServiceTest {
 
         ProductionSuggestionResponseDTO first = result.getContent().get(0);
         assertEquals("Product A", first.productName());
-        assertEquals(100L, first.suggestedQuantity());
-        assertEquals(new BigDecimal("1000.00"), first.totalValue());
+        assertEquals(30L, first.suggestedQuantity());
+        assertEquals(new BigDecimal("300.00"), first.totalValue());
         assertEquals(1L, first.priorityRank());
     }
 
+    @Test
+    void testGetProductionSuggestionsSharesStock() {
+        // Act
+        PageResponse<ProductionSuggestionResponseDTO> result =
+            productionSuggestionService.getProductionSuggestions(0, 10, "", "", null, null, null);
+
+        // Assert: Product A consumes 30 of Material 1 first, leaving 70 for Product B
+        ProductionSuggestionResponseDTO second = result.getContent().get(1);
+        assertEquals("Product B", second.productName());
+        assertEquals(35L, second.suggestedQuantity());
+        assertEquals(new BigDecimal("175.00"), second.totalValue());
+        assertEquals(2L, second.priorityRank());
+    }
+
     @Test
     void testGetProductionSuggestionsEmpty() {
         // Arrange
-        when(productionSuggestionRepository.count(anyString())).thenReturn(0L);
-        when(productionSuggestionRepository.findAllOrderedByPriority(any(Page.class), anyString(), anyString()))
-            .thenReturn(List.of());
+        when(productRawMaterialRepository.findAllBomLines()).thenReturn(List.of());
+        planningCatalog.invalidate();
 
         // Act
         PageResponse<ProductionSuggestionResponseDTO> result =
-            productionSuggestionService.getProductionSuggestions(0, 10, "", "");
+            productionSuggestionService.getProductionSuggestions(0, 10, "", "", null, null, null);
 
         // Assert
         assertNotNull(result);
@@ -96,18 +139,285 @@ class ProductionSuggestionServiceTest {
 
     @Test
     void testGetProductionSuggestionsWithSearch() {
-        // Arrange
-        when(productionSuggestionRepository.count("Product A")).thenReturn(1L);
-        when(productionSuggestionRepository.findAllOrderedByPriority(any(Page.class), eq("Product A"), anyString()))
-            .thenReturn(List.of(testSuggestions.get(0)));
-
         // Act
         PageResponse<ProductionSuggestionResponseDTO> result =
-            productionSuggestionService.getProductionSuggestions(0, 10, "Product A", "");
+            productionSuggestionService.getProductionSuggestions(0, 10, "Product A", "", null, null, null);
 
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
         assertEquals(1L, result.getTotalElements());
     }
+
+    @Test
+    void testGetProductionSuggestionsSortedByValue() {
+        // Act
+        PageResponse<ProductionSuggestionResponseDTO> result =
+            productionSuggestionService.getProductionSuggestions(0, 10, "", "asc", null, null, null);
+
+        // Assert
+        assertEquals("Product B", result.getContent().get(0).productName());
+        assertEquals(2L, result.getContent().get(0).priorityRank());
+    }
+
+    @Test
+    void testGetProductionSuggestionsOptimal() {
+        // Arrange: greedy makes 2 x Product B (8.00) and leaves no room for Product A
+        when(productRepository.findAllForPlanning()).thenReturn(List.of(
+                new ProductResponseDTO(1L, "Product A", new BigDecimal("7.00")),
+                new ProductResponseDTO(2L, "Product B", new BigDecimal("4.00"))));
+        when(rawMaterialRepository.findAllForPlanning()).thenReturn(List.of(
+                new RawMaterialResponseDTO(1L, "Material 1", new BigDecimal("10.00"))));
+        when(productRawMaterialRepository.findAllBomLines()).thenReturn(List.of(
+                new BomLine(1L, 1L, new BigDecimal("6.00")),
+                new BomLine(2L, 1L, new BigDecimal("4.00"))));
+        planningCatalog.invalidate();
+
+        // Act
+        PageResponse<ProductionSuggestionResponseDTO> greedy =
+            productionSuggestionService.getProductionSuggestions(0, 10, "", "", "greedy", null, null);
+        PageResponse<ProductionSuggestionResponseDTO> optimal =
+            productionSuggestionService.getProductionSuggestions(0, 10, "", "", "optimal", null, null);
+
+        // Assert
+        assertEquals(1, greedy.getContent().size());
+        assertEquals(new BigDecimal("8.00"), greedy.getContent().get(0).totalValue());
+
+        assertEquals(2, optimal.getContent().size());
+        assertEquals("Product A", optimal.getContent().get(0).productName());
+        assertEquals(1L, optimal.getContent().get(0).suggestedQuantity());
+        assertEquals(1L, optimal.getContent().get(1).suggestedQuantity());
+    }
+
+    @Test
+    void testGetProductionSuggestionsAfterStockChange() {
+        // Arrange
+        productionSuggestionService.getProductionSuggestions(0, 10, "", "", null, null, null);
+        when(rawMaterialRepository.findForPlanning(anyCollection())).thenReturn(List.of(
+                new RawMaterialResponseDTO(2L, "Material 2", new BigDecimal("10.00"))));
+
+        // Act
+        planningCatalog.onCatalogChanged(CatalogChangedEvent.rawMaterial(2L));
+        PageResponse<ProductionSuggestionResponseDTO> result =
+            productionSuggestionService.getProductionSuggestions(0, 10, "", "", null, null, null);
+
+        // Assert: Product A drops to 10 units (100.00), Product B ranks first and uses all of Material 1;
+        // only the changed raw material was reloaded
+        assertEquals("Product B", result.getContent().get(0).productName());
+        assertEquals(50L, result.getContent().get(0).suggestedQuantity());
+        assertEquals(1L, result.getTotalElements());
+        verify(rawMaterialRepository, times(1)).findAllForPlanning();
+        verify(productRepository, never()).findForPlanning(anyCollection());
+    }
+
+    @Test
+    void testGetProductionSuggestionsWithIndependentGroups() {
+        // Arrange: Product C only uses Material 3, so it is planned apart from Products A and B
+        when(productRepository.findAllForPlanning()).thenReturn(List.of(
+                new ProductResponseDTO(1L, "Product A", new BigDecimal("10.00")),
+                new ProductResponseDTO(2L, "Product B", new BigDecimal("5.00")),
+                new ProductResponseDTO(3L, "Product C", new BigDecimal("4.00"))));
+        when(rawMaterialRepository.findAllForPlanning()).thenReturn(List.of(
+                new RawMaterialResponseDTO(1L, "Material 1", new BigDecimal("100.00")),
+                new RawMaterialResponseDTO(2L, "Material 2", new BigDecimal("30.00")),
+                new RawMaterialResponseDTO(3L, "Material 3", new BigDecimal("70.00"))));
+        when(productRawMaterialRepository.findAllBomLines()).thenReturn(List.of(
+                new BomLine(1L, 1L, new BigDecimal("1.00")),
+                new BomLine(1L, 2L, new BigDecimal("1.00")),
+                new BomLine(2L, 1L, new BigDecimal("2.00")),
+                new BomLine(3L, 3L, new BigDecimal("1.00"))));
+        planningCatalog.invalidate();
+
+        // Act
+        PageResponse<ProductionSuggestionResponseDTO> result =
+            productionSuggestionService.getProductionSuggestions(0, 10, "", "", null, null, null);
+
+        // Assert: Product C (280.00) ranks between the two products sharing Material 1
+        assertEquals(List.of("Product A", "Product C", "Product B"),
+            result.getContent().stream().map(ProductionSuggestionResponseDTO::productName).toList());
+        assertEquals(70L, result.getContent().get(1).suggestedQuantity());
+        assertEquals(35L, result.getContent().get(2).suggestedQuantity());
+        assertEquals(3L, result.getContent().get(2).priorityRank());
+    }
+
+    @Test
+    void testGetProductionSuggestionsWithSubAssembly() {
+        // Arrange: every Product B also consumes one Product A, so it needs 3 of Material 1 and 1 of Material 2
+        when(productComponentRepository.findAllComponentLines()).thenReturn(List.of(
+                new ComponentLine(2L, 1L, new BigDecimal("1.00"))));
+        planningCatalog.invalidate();
+
+        // Act
+        PageResponse<ProductionSuggestionResponseDTO> result =
+            productionSuggestionService.getProductionSuggestions(0, 10, "", "", null, null, null);
+
+        // Assert: Product A takes all of Material 2 first, leaving nothing for Product B
+        assertEquals(1, result.getContent().size());
+        assertEquals("Product A", result.getContent().get(0).productName());
+    }
+
+    @Test
+    void testGetProductionSuggestionsAfterSubAssemblyRemoved() {
+        // Arrange
+        when(productComponentRepository.findAllComponentLines()).thenReturn(List.of(
+                new ComponentLine(2L, 1L, new BigDecimal("1.00"))));
+        planningCatalog.invalidate();
+        productionSuggestionService.getProductionSuggestions(0, 10, "", "", null, null, null);
+        when(productRawMaterialRepository.findBomLinesByProductIds(anyCollection())).thenReturn(List.of(
+                new BomLine(2L, 1L, new BigDecimal("2.00"))));
+        when(productComponentRepository.findComponentLinesByProductIds(anyCollection())).thenReturn(List.of());
+
+        // Act
+        planningCatalog.onCatalogChanged(CatalogChangedEvent.billOfMaterials(2L));
+        PageResponse<ProductionSuggestionResponseDTO> result =
+            productionSuggestionService.getProductionSuggestions(0, 10, "", "", null, null, null);
+
+        // Assert: Product B is back to its own raw materials
+        assertEquals(2, result.getContent().size());
+        assertEquals(35L, result.getContent().get(1).suggestedQuantity());
+    }
+
+    @Test
+    void testChangeFeedPushesDiff() {
+        // Arrange
+        AssertSubscriber<ProductionSuggestionChangesDTO> subscriber =
+            changeFeed.changes().subscribe().withSubscriber(AssertSubscriber.create(10));
+        when(rawMaterialRepository.findForPlanning(anyCollection())).thenReturn(List.of(
+                new RawMaterialResponseDTO(2L, "Material 2", new BigDecimal("10.00"))));
+
+        // Act: two stock edits in the same window produce one diff
+        CatalogChangedEvent event = CatalogChangedEvent.rawMaterial(2L);
+        planningCatalog.onCatalogChanged(event);
+        changeFeed.onCatalogChanged(event);
+        changeFeed.onCatalogChanged(event);
+        changeFeed.publishChanges();
+
+        // Assert: Product B moves to rank 1 with 50 units and Product A drops out of the plan
+        ProductionSuggestionChangesDTO changes = subscriber.awaitItems(1).getItems().get(0);
+        subscriber.cancel();
+        assertTrue(changes.toSnapshotVersion() > changes.fromSnapshotVersion());
+        assertEquals(1L, changes.totalElements());
+        assertEquals(1, changes.changed().size());
+        assertEquals(2L, changes.changed().get(0).productId());
+        assertEquals(1L, changes.changed().get(0).priorityRank());
+        assertEquals(50L, changes.changed().get(0).suggestedQuantity());
+        assertEquals(List.of(1L), changes.removedProductIds());
+        assertEquals(1, subscriber.getItems().size());
+    }
+
+    @Test
+    void testGetProductionSuggestionsPinnedToSnapshot() {
+        // Arrange
+        ProductionSuggestionPageResponse firstPage =
+            productionSuggestionService.getProductionSuggestions(0, 1, "", "", null, null, null);
+        when(rawMaterialRepository.findForPlanning(anyCollection())).thenReturn(List.of(
+                new RawMaterialResponseDTO(2L, "Material 2", new BigDecimal("10.00"))));
+        planningCatalog.onCatalogChanged(CatalogChangedEvent.rawMaterial(2L));
+
+        // Act
+        ProductionSuggestionPageResponse secondPage = productionSuggestionService.getProductionSuggestions(
+            1, 1, "", "", null, firstPage.getSnapshotVersion(), null);
+        ProductionSuggestionPageResponse latest =
+            productionSuggestionService.getProductionSuggestions(0, 1, "", "", null, null, null);
+
+        // Assert: the pinned page still comes from the ranking taken before the stock change
+        assertEquals("Product A", firstPage.getContent().get(0).productName());
+        assertEquals("Product B", secondPage.getContent().get(0).productName());
+        assertEquals(35L, secondPage.getContent().get(0).suggestedQuantity());
+        assertEquals(firstPage.getSnapshotVersion(), secondPage.getSnapshotVersion());
+        assertTrue(latest.getSnapshotVersion() > firstPage.getSnapshotVersion());
+        assertEquals(50L, latest.getContent().get(0).suggestedQuantity());
+    }
+
+    @Test
+    void testGetProductionSuggestionsWithCursor() {
+        // Act
+        ProductionSuggestionPageResponse firstPage =
+            productionSuggestionService.getProductionSuggestions(0, 1, "", "", null, null, "");
+        ProductionSuggestionPageResponse secondPage =
+            productionSuggestionService.getProductionSuggestions(0, 1, "", "", null, null, firstPage.getNextCursor());
+
+        // Assert
+        assertEquals("Product A", firstPage.getContent().get(0).productName());
+        assertNotNull(firstPage.getNextCursor());
+        assertEquals("Product B", secondPage.getContent().get(0).productName());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    void testGetProductionSuggestionsUnknownSnapshot() {
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+            () -> productionSuggestionService.getProductionSuggestions(0, 10, "", "", null, Long.MAX_VALUE, null));
+    }
+
+    @Test
+    void testGetProductionSuggestionsUnknownStrategy() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class,
+            () -> productionSuggestionService.getProductionSuggestions(0, 10, "", "", "random", null, null));
+    }
+
+    @Test
+    void testGetProductionAnalysis() {
+        // Act
+        ProductionAnalysisDTO result = productionSuggestionService.getProductionAnalysis(null, null);
+
+        // Assert: both materials run out; one more Product A needs 1.00 of each, one more Product B 2.00 of Material 1
+        assertEquals(2, result.products().size());
+        assertEquals("Product A", result.products().get(0).productName());
+        assertEquals(1L, result.products().get(0).limitingRawMaterialId());
+        assertEquals(new BigDecimal("1.00"), result.products().get(0).additionalQuantityForNextUnit());
+        assertEquals(1L, result.products().get(1).limitingRawMaterialId());
+        assertEquals(new BigDecimal("2.00"), result.products().get(1).additionalQuantityForNextUnit());
+
+        // Another unit of Material 1 makes half a Product B (2.50); one of Material 2 trades it for a Product A (7.50)
+        assertTrue(result.shadowPricesOptimal());
+        assertEquals("Material 2", result.rawMaterials().get(0).rawMaterialName());
+        assertEquals(new BigDecimal("7.50"), result.rawMaterials().get(0).shadowPrice());
+        assertEquals(new BigDecimal("2.50"), result.rawMaterials().get(1).shadowPrice());
+        assertEquals(2L, result.rawMaterials().get(1).limitedProducts());
+    }
+
+    @Test
+    void testSimulate() {
+        // Arrange
+        SimulationRequestDTO request = new SimulationRequestDTO(List.of(
+                new SimulationScenarioDTO("More Material 2",
+                        List.of(new StockDeltaDTO(2L, new BigDecimal("20.00"))), null, null),
+                new SimulationScenarioDTO(null,
+                        null, null, List.of(new ValueChangeDTO(2L, new BigDecimal("20.00"))))),
+                null, null);
+
+        // Act
+        SimulationResponseDTO result = productionSuggestionService.simulate(request);
+
+        // Assert: Product A makes 50 units with the extra stock, leaving 50 of Material 1 for 25 x Product B;
+        // repricing Product B makes it rank first and use all of Material 1
+        assertEquals(new BigDecimal("475.00"), result.baselineProductionValue());
+        assertEquals(2, result.scenarios().size());
+        assertEquals("More Material 2", result.scenarios().get(0).name());
+        assertEquals(new BigDecimal("625.00"), result.scenarios().get(0).totalProductionValue());
+        assertEquals(new BigDecimal("150.00"), result.scenarios().get(0).valueChange());
+        assertEquals("Scenario 2", result.scenarios().get(1).name());
+        assertEquals("Product B", result.scenarios().get(1).suggestions().get(0).productName());
+        assertEquals(new BigDecimal("1000.00"), result.scenarios().get(1).totalProductionValue());
+
+        // The snapshot itself is left untouched
+        PageResponse<ProductionSuggestionResponseDTO> current =
+            productionSuggestionService.getProductionSuggestions(0, 10, "", "", null, null, null);
+        assertEquals(30L, current.getContent().get(0).suggestedQuantity());
+    }
+
+    @Test
+    void testSimulateUnknownRawMaterial() {
+        // Arrange
+        SimulationRequestDTO request = new SimulationRequestDTO(List.of(
+                new SimulationScenarioDTO("Unknown",
+                        List.of(new StockDeltaDTO(99L, BigDecimal.ONE)), null, null)),
+                null, null);
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> productionSuggestionService.simulate(request));
+    }
 }
@@ -4,13 +4,17 @@ import com.example.dto.PageResponse;
 import com.example.dto.rawmaterial.RawMaterialRequestDTO;
 import com.example.dto.rawmaterial.RawMaterialResponseDTO;
 import com.example.entity.RawMaterial;
+import com.example.entity.StockMovement;
 import com.example.exception.ResourceNotFoundException;
+import com.example.filter.PagedResult;
+import com.example.filter.SortSpec;
 import com.example.repository.RawMaterialRepository;
-import io.quarkus.hibernate.orm.panache.PanacheQuery;
-import io.quarkus.panache.common.Page;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.InjectMock;
 import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -35,33 +39,46 @@ class RawMaterialServiceTest {
     @InjectMock
     com.example.repository.ProductRawMaterialRepository productRawMaterialRepository;
 
+    @InjectMock
+    StockLedger stockLedger;
+
+    @Inject
+    @CacheName("raw-material-responses")
+    Cache rawMaterialResponses;
+
     private RawMaterial testRawMaterial;
+    private RawMaterialResponseDTO testRawMaterialResponse;
     private RawMaterialRequestDTO testRawMaterialRequest;
 
     @BeforeEach
     void setUp() {
         Mockito.reset(rawMaterialRepository);
         Mockito.reset(productRawMaterialRepository);
+        Mockito.reset(stockLedger);
 
         testRawMaterial = new RawMaterial();
         testRawMaterial.setId(1L);
         testRawMaterial.setName("Test Material");
         testRawMaterial.setStockQuantity(new BigDecimal("50.00"));
 
+        testRawMaterialResponse = new RawMaterialResponseDTO(1L, "Test Material", new BigDecimal("50.00"));
         testRawMaterialRequest = new RawMaterialRequestDTO("Test Material", new BigDecimal("50.00"));
     }
 
+    @AfterEach
+    void tearDown() {
+        // Responses cached from mocked repositories must not leak into other tests
+        rawMaterialResponses.invalidateAll().await().indefinitely();
+    }
+
     @Test
     void testFindAll() {
         // Arrange
-        PanacheQuery<RawMaterial> mockQuery = mock(PanacheQuery.class);
-        when(rawMaterialRepository.findAll()).thenReturn(mockQuery);
-        when(mockQuery.count()).thenReturn(1L);
-        when(mockQuery.page(any(Page.class))).thenReturn(mockQuery);
-        when(mockQuery.list()).thenReturn(List.of(testRawMaterial));
+        when(rawMaterialRepository.findPage(null, SortSpec.none(), 0, 10, true))
+                .thenReturn(new PagedResult<>(List.of(testRawMaterialResponse), 1L));
 
         // Act
-        PageResponse<RawMaterialResponseDTO> result = rawMaterialService.findAll(0, 10, null, null, null);
+        PageResponse<RawMaterialResponseDTO> result = rawMaterialService.findAll(0, 10, null, null, null, null, true);
 
         // Assert
         assertNotNull(result);
@@ -85,6 +102,19 @@ class RawMaterialServiceTest {
         assertEquals(new BigDecimal("50.00"), result.stockQuantity());
     }
 
+    @Test
+    void testFindByIdIsCached() {
+        // Arrange
+        when(rawMaterialRepository.findByIdOptional(1L)).thenReturn(Optional.of(testRawMaterial));
+
+        // Act
+        rawMaterialService.findById(1L);
+        rawMaterialService.findById(1L);
+
+        // Assert
+        verify(rawMaterialRepository, times(1)).findByIdOptional(1L);
+    }
+
     @Test
     void testFindByIdNotFound() {
         // Arrange
@@ -125,6 +155,7 @@ class RawMaterialServiceTest {
         assertNotNull(result);
         assertEquals("Updated Material", result.name());
         assertEquals(new BigDecimal("100.00"), result.stockQuantity());
+        verify(stockLedger).record(1L, new BigDecimal("50.00"), StockMovement.Reason.ADJUSTMENT);
     }
 
     @Test
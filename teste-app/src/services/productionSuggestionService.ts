@@ -10,13 +10,32 @@ export interface ProductionSuggestion {
   priorityRank: number
 }
 
+export interface ProductionSuggestionPage extends PageResponse<ProductionSuggestion> {
+  snapshotVersion?: number
+}
+
+export interface ProductionSuggestionChange {
+  productId: number
+  priorityRank: number
+  suggestedQuantity: number
+  totalValue: number
+}
+
+export interface ProductionSuggestionChanges {
+  fromSnapshotVersion: number
+  toSnapshotVersion: number
+  totalElements: number
+  changed: ProductionSuggestionChange[]
+  removedProductIds: number[]
+}
+
 export const productionSuggestionService = {
   async getAll(
     page: number = 0,
     size: number = 10,
     searchName: string = '',
     sortDirection: string = ''
-  ): Promise<PageResponse<ProductionSuggestion>> {
+  ): Promise<ProductionSuggestionPage> {
     const params = new URLSearchParams()
     params.append('page', page.toString())
     params.append('size', size.toString())
@@ -25,5 +44,15 @@ export const productionSuggestionService = {
 
     const response = await api.get(`/production-suggestions?${params.toString()}`)
     return response.data
+  },
+
+  subscribeToChanges(
+    onChanges: (changes: ProductionSuggestionChanges) => void,
+    onError?: () => void
+  ): () => void {
+    const source = new EventSource(`${api.defaults.baseURL}/production-suggestions/changes`)
+    source.onmessage = (event) => onChanges(JSON.parse(event.data))
+    if (onError) source.onerror = onError
+    return () => source.close()
   }
 }
@@ -92,4 +92,59 @@ describe('Production Suggestion Store', () => {
     expect(store.totalElements).toBe(0)
     expect(store.error).toBeNull()
   })
+
+  it('patches suggestions on the page with pushed changes', async () => {
+    const store = useProductionSuggestionStore()
+    vi.mocked(productionSuggestionService.getAll).mockResolvedValue({
+      content: [
+        { productId: 1, productName: 'Product A', productValue: 10, suggestedQuantity: 100, totalValue: 1000, priorityRank: 1 },
+        { productId: 2, productName: 'Product B', productValue: 20, suggestedQuantity: 50, totalValue: 1000, priorityRank: 2 }
+      ],
+      totalElements: 2,
+      totalPages: 1,
+      pageNumber: 0,
+      pageSize: 10,
+      snapshotVersion: 3
+    })
+    await store.fetchSuggestions()
+
+    store.applyChanges({
+      fromSnapshotVersion: 3,
+      toSnapshotVersion: 4,
+      totalElements: 2,
+      changed: [
+        { productId: 1, priorityRank: 2, suggestedQuantity: 40, totalValue: 400 },
+        { productId: 2, priorityRank: 1, suggestedQuantity: 60, totalValue: 1200 }
+      ],
+      removedProductIds: []
+    })
+
+    expect(store.suggestions.map((s) => s.productId)).toEqual([2, 1])
+    expect(store.suggestions[1].suggestedQuantity).toBe(40)
+    expect(store.snapshotVersion).toBe(4)
+    expect(productionSuggestionService.getAll).toHaveBeenCalledTimes(1)
+  })
+
+  it('reloads the page when a pushed change skips a snapshot', async () => {
+    const store = useProductionSuggestionStore()
+    vi.mocked(productionSuggestionService.getAll).mockResolvedValue({
+      content: [],
+      totalElements: 0,
+      totalPages: 0,
+      pageNumber: 0,
+      pageSize: 10,
+      snapshotVersion: 3
+    })
+    await store.fetchSuggestions()
+
+    store.applyChanges({
+      fromSnapshotVersion: 5,
+      toSnapshotVersion: 6,
+      totalElements: 1,
+      changed: [{ productId: 1, priorityRank: 1, suggestedQuantity: 10, totalValue: 100 }],
+      removedProductIds: []
+    })
+
+    expect(productionSuggestionService.getAll).toHaveBeenCalledTimes(2)
+  })
 })
@@ -1,6 +1,10 @@
 import { defineStore } from 'pinia'
 import { ref } from 'vue'
-import { productionSuggestionService, type ProductionSuggestion } from '@/services/productionSuggestionService'
+import {
+  productionSuggestionService,
+  type ProductionSuggestion,
+  type ProductionSuggestionChanges
+} from '@/services/productionSuggestionService'
 
 export const useProductionSuggestionStore = defineStore('productionSuggestion', () => {
   const suggestions = ref<ProductionSuggestion[]>([])
@@ -12,6 +16,8 @@ export const useProductionSuggestionStore = defineStore('productionSuggestion',
   const sortDirection = ref('')
   const loading = ref(false)
   const error = ref<string | null>(null)
+  const snapshotVersion = ref<number | null>(null)
+  let stopChanges: (() => void) | null = null
 
   async function fetchSuggestions() {
     loading.value = true
@@ -28,6 +34,7 @@ export const useProductionSuggestionStore = defineStore('productionSuggestion',
       pageSize.value = response.pageSize
       totalElements.value = response.totalElements
       totalPages.value = response.totalPages
+      snapshotVersion.value = response.snapshotVersion ?? null
     } catch (e: any) {
       error.value = e.response?.data?.error || 'Failed to load production suggestions'
       console.error('Error fetching production suggestions:', e)
@@ -36,6 +43,63 @@ export const useProductionSuggestionStore = defineStore('productionSuggestion',
     }
   }
 
+  // Patches the rows on screen with a pushed diff; the page is only reloaded when an update
+  // was missed or when products enter or leave it
+  function applyChanges(changes: ProductionSuggestionChanges) {
+    if (snapshotVersion.value !== null && changes.toSnapshotVersion <= snapshotVersion.value) {
+      return
+    }
+    if (snapshotVersion.value !== changes.fromSnapshotVersion) {
+      fetchSuggestions()
+      return
+    }
+
+    const onPage = new Set(suggestions.value.map((suggestion) => suggestion.productId))
+    const rankOrder = !searchName.value && !sortDirection.value
+    const firstRank = currentPage.value * pageSize.value + 1
+    const lastRank = firstRank + pageSize.value - 1
+    const inPageRanks = (rank: number) => rank >= firstRank && rank <= lastRank
+    const membershipChanged =
+      changes.removedProductIds.some((id) => onPage.has(id)) ||
+      (rankOrder &&
+        changes.changed.some((change) => onPage.has(change.productId) !== inPageRanks(change.priorityRank)))
+    if (membershipChanged) {
+      fetchSuggestions()
+      return
+    }
+
+    const changed = new Map(changes.changed.map((change) => [change.productId, change]))
+    const patched = suggestions.value.map((suggestion) => {
+      const change = changed.get(suggestion.productId)
+      return change
+        ? {
+            ...suggestion,
+            priorityRank: change.priorityRank,
+            suggestedQuantity: change.suggestedQuantity,
+            totalValue: change.totalValue
+          }
+        : suggestion
+    })
+    if (rankOrder) {
+      patched.sort((a, b) => a.priorityRank - b.priorityRank)
+    }
+    suggestions.value = patched
+    totalElements.value = changes.totalElements
+    totalPages.value = Math.ceil(changes.totalElements / pageSize.value)
+    snapshotVersion.value = changes.toSnapshotVersion
+  }
+
+  function startLiveUpdates() {
+    if (!stopChanges) {
+      stopChanges = productionSuggestionService.subscribeToChanges(applyChanges)
+    }
+  }
+
+  function stopLiveUpdates() {
+    stopChanges?.()
+    stopChanges = null
+  }
+
   function setPage(page: number) {
     currentPage.value = page
     fetchSuggestions()
@@ -69,7 +133,11 @@ export const useProductionSuggestionStore = defineStore('productionSuggestion',
     sortDirection,
     loading,
     error,
+    snapshotVersion,
     fetchSuggestions,
+    applyChanges,
+    startLiveUpdates,
+    stopLiveUpdates,
     setPage,
     setPageSize,
     setSearchName,